@@ -0,0 +1,89 @@
+package ru.progrm_jarvis.lang.hq9plus.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.progrm_jarvis.lang.hq9plus.AsmHQ9PlusCompilers;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusClassDefiner;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusClassDefiners;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusProgram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the time taken to define and load the compiled classes.
+ * <p>
+ * Each invocation defines a new class so that it is never already loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassDefinitionBenchmark {
+
+    /**
+     * Tokens of the source code of the defined class
+     */
+    @Param({"+", "HQ9+", "H+H+9"})
+    public String tokens;
+
+    /**
+     * Length of the source code of the defined class
+     */
+    @Param({"100", "100000"})
+    public int sourceSize;
+
+    /**
+     * Bytecode of the defined class
+     */
+    private byte[] bytecode;
+
+    /**
+     * Standard definer of the classes which defines hidden classes if the JVM supports those
+     */
+    private HQ9PlusClassDefiner standardDefiner;
+
+    /**
+     * Compiles the defined class.
+     */
+    @Setup
+    public void setUp() {
+        final String packageName = HQ9PlusClassDefiners.standardHiddenClassPackage();
+        bytecode = AsmHQ9PlusCompilers.streamBased(true).compileSourceToBytes(
+                packageName.isEmpty() ? "DefinedProgram" : packageName + ".DefinedProgram",
+                HQ9PlusBenchmarks.source(tokens, sourceSize)
+        );
+        standardDefiner = HQ9PlusClassDefiners.standard();
+    }
+
+    /**
+     * Defines the class in a new class loader.
+     *
+     * @return defined class
+     */
+    @Benchmark
+    public Class<?> defineByClassLoader() {
+        return HQ9PlusClassDefiners.classLoaderBased(ClassDefinitionBenchmark.class.getClassLoader())
+                .define(bytecode);
+    }
+
+    /**
+     * Defines the class using the standard definer.
+     *
+     * @return defined class
+     */
+    @Benchmark
+    public Class<?> defineStandard() {
+        return standardDefiner.define(bytecode);
+    }
+
+    /**
+     * Defines the class using the standard definer and looks up its entry point which links the class.
+     *
+     * @return program of the defined class
+     */
+    @Benchmark
+    public HQ9PlusProgram defineAndLink() {
+        return HQ9PlusProgram.of(standardDefiner.define(bytecode));
+    }
+}
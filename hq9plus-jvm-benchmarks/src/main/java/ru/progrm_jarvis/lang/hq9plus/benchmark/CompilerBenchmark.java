@@ -0,0 +1,98 @@
+package ru.progrm_jarvis.lang.hq9plus.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.progrm_jarvis.lang.hq9plus.AbstractAsmHQ9PlusCompiler;
+import ru.progrm_jarvis.lang.hq9plus.AsmHQ9PlusCompilers;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the throughput of the compiler depending on the size of the source code and its tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilerBenchmark {
+
+    /**
+     * Name of the compiled class
+     */
+    private static final String CLASS_NAME = "ru.progrm_jarvis.lang.hq9plus.benchmark.CompiledProgram";
+
+    /**
+     * Tokens repeated in the source code
+     */
+    @Param({"+", "H", "9", "HQ9+", "H+H+9"})
+    public String tokens;
+
+    /**
+     * Length of the source code
+     */
+    @Param({"100", "10000", "1000000"})
+    public int sourceSize;
+
+    /**
+     * Compiler used by the benchmark
+     */
+    private AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler;
+
+    /**
+     * Compiled source code
+     */
+    private String sourceCode;
+
+    /**
+     * Compiled source code encoded in ASCII
+     */
+    private ByteBuffer asciiSourceCode;
+
+    /**
+     * Creates the compiler and the source code.
+     */
+    @Setup
+    public void setUp() {
+        compiler = AsmHQ9PlusCompilers.streamBased(true);
+        sourceCode = HQ9PlusBenchmarks.source(tokens, sourceSize);
+        asciiSourceCode = ByteBuffer.allocateDirect(sourceSize);
+        ((Buffer) asciiSourceCode.put(sourceCode.getBytes(StandardCharsets.US_ASCII))).flip();
+    }
+
+    /**
+     * Parses the source code.
+     *
+     * @return parsed AST
+     */
+    @Benchmark
+    public HQ9PlusPackedAst parse() {
+        return HQ9PlusPackedAst.parse(sourceCode, true);
+    }
+
+    /**
+     * Compiles the source code.
+     *
+     * @return bytecode of the compiled class
+     */
+    @Benchmark
+    public byte[] compile() {
+        return compiler.compileSourceToBytes(CLASS_NAME, sourceCode);
+    }
+
+    /**
+     * Compiles the source code scanning it as ASCII bytes.
+     *
+     * @return bytecode of the compiled class
+     */
+    @Benchmark
+    public byte[] compileAscii() {
+        return compiler.compileAsciiToBytes(CLASS_NAME, asciiSourceCode.duplicate());
+    }
+}
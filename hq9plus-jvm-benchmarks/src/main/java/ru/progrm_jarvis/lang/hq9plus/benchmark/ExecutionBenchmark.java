@@ -0,0 +1,131 @@
+package ru.progrm_jarvis.lang.hq9plus.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.progrm_jarvis.lang.hq9plus.AsmHQ9PlusCompilers;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusClassDefiners;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusCompilerOptions;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusExecution;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusOptimizationLevel;
+import ru.progrm_jarvis.lang.hq9plus.HQ9PlusProgram;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the throughput of the compiled programs writing to the output discarding everything.
+ * <p>
+ * Each program repeats a single token so that the paths of {@code h}, {@code q}, {@code nine}
+ * and {@code plus} methods are measured separately.
+ * Non-reentrant programs are run by their {@code main} method with {@link System#out} discarding everything.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionBenchmark {
+
+    /**
+     * Token repeated by the program
+     */
+    @Param({"H", "Q", "9", "+"})
+    public String token;
+
+    /**
+     * Amount of repetitions of the token
+     */
+    @Param({"1", "100"})
+    public int repetitions;
+
+    /**
+     * {@code true} if the program should use buffered output and {@code false} otherwise
+     */
+    @Param({"false", "true"})
+    public boolean bufferedOutput;
+
+    /**
+     * {@code true} if the program should be reentrant and {@code false} if it should write to {@link System#out}
+     */
+    @Param({"false", "true"})
+    public boolean reentrant;
+
+    /**
+     * Level of optimizations applied to the program
+     */
+    @Param({"NONE", "FOLD_OUTPUT"})
+    public HQ9PlusOptimizationLevel optimizationLevel;
+
+    /**
+     * Executed program
+     */
+    private HQ9PlusProgram program;
+
+    /**
+     * Output to which the program writes
+     */
+    private PrintStream output;
+
+    /**
+     * Original {@link System#out} replaced while the non-reentrant program is benchmarked
+     */
+    private PrintStream originalSystemOutput;
+
+    /**
+     * Compiles the executed program.
+     *
+     * @throws IOException if an exception occurs while compiling the program
+     */
+    @Setup
+    public void setUp() throws IOException {
+        output = HQ9PlusBenchmarks.NULL_OUTPUT;
+        if (!reentrant) {
+            // the output gets replaced before the program's class is initialized as it may keep the output
+            originalSystemOutput = System.out;
+            System.setOut(output);
+        }
+
+        program = HQ9PlusProgram.compile(
+                AsmHQ9PlusCompilers.streamBased(true, HQ9PlusCompilerOptions.builder()
+                        .reentrant(reentrant)
+                        .bufferedOutput(bufferedOutput)
+                        .optimizationLevel(optimizationLevel)
+                        .build()
+                ), "ru.progrm_jarvis.lang.hq9plus.benchmark.ExecutedProgram",
+                new ByteArrayInputStream(
+                        HQ9PlusBenchmarks.source(token, repetitions).getBytes(StandardCharsets.US_ASCII)
+                ),
+                HQ9PlusClassDefiners.classLoaderBased(ExecutionBenchmark.class.getClassLoader())
+        );
+    }
+
+    /**
+     * Restores the original {@link System#out}.
+     */
+    @TearDown
+    public void tearDown() {
+        if (originalSystemOutput != null) System.setOut(originalSystemOutput);
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @return final value of the program's counter or {@code 0} if the program is not reentrant
+     */
+    @Benchmark
+    public long execute() {
+        if (!reentrant) {
+            program.run();
+
+            return 0;
+        }
+
+        final HQ9PlusExecution execution = program.newExecution(output);
+        execution.run();
+
+        return execution.getCounter();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.progrm_jarvis.lang.hq9plus.benchmark;
+
+import lombok.experimental.UtilityClass;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Entry point of the benchmarks.
+ * <p>
+ * Accepts the same arguments as {@link org.openjdk.jmh.Main} while always profiling garbage collection
+ * so that the allocation rate of each benchmark is reported next to its score.
+ */
+@UtilityClass
+public class HQ9PlusBenchmarks {
+
+    /**
+     * Output discarding everything written to it
+     */
+    final PrintStream NULL_OUTPUT = new PrintStream(new OutputStream() {
+        @Override
+        public void write(final int b) {}
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {}
+    });
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command-line arguments
+     *
+     * @throws CommandLineOptionException if the arguments are invalid
+     * @throws RunnerException if an exception occurs while running the benchmarks
+     */
+    public void main(final String... args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Creates the source code of the given size repeating the given tokens.
+     *
+     * @param tokens repeated tokens
+     * @param size length of the source code
+     * @return created source code
+     */
+    String source(final String tokens, final int size) {
+        final StringBuilder source = new StringBuilder(size);
+        while (source.length() < size) source.append(tokens);
+        source.setLength(size);
+
+        return source.toString();
+    }
+}
@@ -3,16 +3,34 @@ package ru.progrm_jarvis.lang.hq9plus;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAsciiSourceCode;
 import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
 
-import java.io.IOException;
-import java.io.PrintStream;
-import java.io.Reader;
+import java.io.*;
+import java.lang.invoke.MethodHandles;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.objectweb.asm.Opcodes.*;
 
@@ -24,7 +42,6 @@ import static org.objectweb.asm.Opcodes.*;
  */
 @ToString
 @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
-@RequiredArgsConstructor
 public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompiler<I, O> {
 
     /**
@@ -35,6 +52,10 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Type of {@link String} class
      */
     STRING_TYPE = Type.getType(String.class),
+    /**
+     * Type of {@link StringBuilder} class
+     */
+    STRING_BUILDER_TYPE = Type.getType(StringBuilder.class),
     /**
      * Type of {@link System} class
      */
@@ -43,14 +64,59 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Type of {@link PrintStream} class
      */
     PRINT_STREAM_TYPE = Type.getType(PrintStream.class),
+    /**
+     * Type of {@link OutputStream} class
+     */
+    OUTPUT_STREAM_TYPE = Type.getType(OutputStream.class),
+    /**
+     * Type of {@link BufferedOutputStream} class
+     */
+    BUFFERED_OUTPUT_STREAM_TYPE = Type.getType(BufferedOutputStream.class),
+    /**
+     * Type of {@link AtomicLong} class
+     */
+    ATOMIC_LONG_TYPE = Type.getType(AtomicLong.class),
+    /**
+     * Type of {@link LongAdder} class
+     */
+    LONG_ADDER_TYPE = Type.getType(LongAdder.class),
+    /**
+     * Type of {@link HQ9PlusExecution} class
+     */
+    EXECUTION_TYPE = Type.getType(HQ9PlusExecution.class),
     /**
      * Type of {@link BigInteger} class
      */
     BIG_INTEGER_TYPE = Type.getType(BigInteger.class),
+    /**
+     * Type of {@link CharSequence} class
+     */
+    CHAR_SEQUENCE_TYPE = Type.getType(CharSequence.class),
+    /**
+     * Type of {@link Class} class
+     */
+    CLASS_TYPE = Type.getType(Class.class),
+    /**
+     * Type of {@link MethodHandles.Lookup} class
+     */
+    LOOKUP_TYPE = Type.getType(MethodHandles.Lookup.class),
+    /**
+     * Type of {@link CharSequence}{@code []} class
+     */
+    CHAR_SEQUENCE_ARRAY_TYPE = Type.getType(CharSequence[].class),
+    /**
+     * Type of {@link HQ9PlusOperationEvent} class
+     * which is not loaded by the compiler so that it does not require <i>JDK Flight Recorder</i>
+     */
+    OPERATION_EVENT_TYPE = Type.getObjectType("ru/progrm_jarvis/lang/hq9plus/HQ9PlusOperationEvent"),
     /**
      * Type of {@link Object}{@code []} class
      */
     OBJECT_ARRAY_TYPE = Type.getType(Object[].class),
+    /**
+     * Type of {@code byte[]} class
+     */
+    BYTE_ARRAY_TYPE = Type.getType(byte[].class),
     /**
      * Type of {@link String}{@code []} class
      */
@@ -67,19 +133,96 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Type of {@code void(int)} method
      */
     VOID_INT_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, Type.INT_TYPE),
+    /**
+     * Type of {@code void(long)} method
+     */
+    VOID_LONG_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, Type.LONG_TYPE),
+    /**
+     * Type of {@code long(long)} method
+     */
+    LONG_LONG_METHOD_TYPE = Type.getMethodType(Type.LONG_TYPE, Type.LONG_TYPE),
     /**
      * Type of {@code void}{@code (}{@link String}{@code )} method
      */
-    VOID_STRING_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, STRING_TYPE);
+    VOID_STRING_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, STRING_TYPE),
+    /**
+     * Type of {@link StringBuilder}{@code (}{@link String}{@code )} method
+     */
+    STRING_BUILDER_STRING_METHOD_TYPE = Type.getMethodType(STRING_BUILDER_TYPE, STRING_TYPE),
+    /**
+     * Type of {@code void(}{@link PrintStream}{@code )} method
+     */
+    VOID_PRINT_STREAM_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, PRINT_STREAM_TYPE),
+    /**
+     * Type of {@code void(byte[], int, int)} method
+     */
+    VOID_BYTE_ARRAY_INT_INT_METHOD_TYPE = Type.getMethodType(
+            Type.VOID_TYPE, BYTE_ARRAY_TYPE, Type.INT_TYPE, Type.INT_TYPE
+    ),
+    /**
+     * Type of {@link String}{@code ()} method
+     */
+    STRING_METHOD_TYPE = Type.getMethodType(STRING_TYPE),
+    /**
+     * Type of {@link String}{@code (}{@link CharSequence}{@code , }{@link CharSequence}{@code )} method
+     */
+    STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_METHOD_TYPE = Type.getMethodType(
+            STRING_TYPE, CHAR_SEQUENCE_TYPE, CHAR_SEQUENCE_TYPE
+    ),
+    /**
+     * Type of {@link String}{@code (}{@link CharSequence}{@code , }{@link CharSequence}{@code [])} method
+     */
+    STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_ARRAY_METHOD_TYPE = Type.getMethodType(
+            STRING_TYPE, CHAR_SEQUENCE_TYPE, CHAR_SEQUENCE_ARRAY_TYPE
+    ),
+    /**
+     * Type of {@code byte[]()} method
+     */
+    BYTE_ARRAY_METHOD_TYPE = Type.getMethodType(BYTE_ARRAY_TYPE),
+    /**
+     * Type of {@code byte[](}{@link MethodHandles.Lookup}{@code , }{@link String}{@code , }{@link Class}{@code , }
+     * {@link String}{@code [])} method
+     */
+    BYTE_ARRAY_LOOKUP_STRING_CLASS_STRING_ARRAY_METHOD_TYPE = Type.getMethodType(
+            BYTE_ARRAY_TYPE, LOOKUP_TYPE, STRING_TYPE, CLASS_TYPE, STRING_ARRAY_TYPE
+    ),
+    /**
+     * Type of {@code void(}{@link OutputStream}{@code , int)} method
+     */
+    VOID_OUTPUT_STREAM_INT_METHOD_TYPE = Type.getMethodType(Type.VOID_TYPE, OUTPUT_STREAM_TYPE, Type.INT_TYPE),
+    /**
+     * Type of {@code void(}{@link OutputStream}{@code , boolean)} method
+     */
+    VOID_OUTPUT_STREAM_BOOLEAN_METHOD_TYPE = Type.getMethodType(
+            Type.VOID_TYPE, OUTPUT_STREAM_TYPE, Type.BOOLEAN_TYPE
+    ),
+    /**
+     * Type of {@link HQ9PlusOperationEvent}{@code ()} method
+     */
+    OPERATION_EVENT_METHOD_TYPE = Type.getMethodType(OPERATION_EVENT_TYPE),
+    /**
+     * Type of {@code void(}{@link String}{@code , int, long, long)} method
+     */
+    VOID_STRING_INT_LONG_LONG_METHOD_TYPE = Type.getMethodType(
+            Type.VOID_TYPE, STRING_TYPE, Type.INT_TYPE, Type.LONG_TYPE, Type.LONG_TYPE
+    );
 
     /**
      * Name of the constructor method
      */
     protected static final String CONSTRUCTOR_METHOD_NAME = "<init>",
+    /**
+     * Name of the static initializer method
+     */
+    STATIC_INITIALIZER_METHOD_NAME = "<clinit>",
     /**
      * Name of the main class method
      */
     MAIN_METHOD_NAME = "main",
+    /**
+     * Name of {@link HQ9PlusExecution#run()} method
+     */
+    RUN_METHOD_NAME = "run",
     /**
      * Name of the {@code h} method
      */
@@ -104,6 +247,62 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Name of {@link PrintStream#println()} {@link PrintStream#println(String)} methods
      */
     PRINTLN_METHOD_NAME = "println",
+    /**
+     * Name of {@link PrintStream#write(byte[], int, int)} method
+     */
+    WRITE_METHOD_NAME = "write",
+    /**
+     * Name of {@link PrintStream#flush()} method
+     */
+    FLUSH_METHOD_NAME = "flush",
+    /**
+     * Name of {@link System#lineSeparator()} method
+     */
+    LINE_SEPARATOR_METHOD_NAME = "lineSeparator",
+    /**
+     * Name of {@link String#replace(CharSequence, CharSequence)} method
+     */
+    REPLACE_METHOD_NAME = "replace",
+    /**
+     * Name of {@link String#getBytes()} method
+     */
+    GET_BYTES_METHOD_NAME = "getBytes",
+    /**
+     * Name of {@link StringBuilder#append(String)} method
+     */
+    APPEND_METHOD_NAME = "append",
+    /**
+     * Name of {@link StringBuilder#toString()} method
+     */
+    TO_STRING_METHOD_NAME = "toString",
+    /**
+     * Name of {@link String#join(CharSequence, CharSequence...)} method
+     */
+    JOIN_METHOD_NAME = "join",
+    /**
+     * Name of the bootstrap method of the dynamic constants holding the encoded texts
+     */
+    TEXT_BYTES_BOOTSTRAP_METHOD_NAME = "textBytes$bootstrap",
+    /**
+     * Name of {@link AtomicLong#addAndGet(long)} method
+     */
+    ADD_AND_GET_METHOD_NAME = "addAndGet",
+    /**
+     * Name of {@link LongAdder#add(long)} method
+     */
+    ADD_METHOD_NAME = "add",
+    /**
+     * Name of {@link LongAdder#increment()} method
+     */
+    INCREMENT_METHOD_NAME = "increment",
+    /**
+     * Name of {@link HQ9PlusOperationEvent#start()} method
+     */
+    START_METHOD_NAME = "start",
+    /**
+     * Name of {@link HQ9PlusOperationEvent#complete(String, int, long, long)} method
+     */
+    COMPLETE_METHOD_NAME = "complete",
     /**
      * Name of {@link System#out} field
      */
@@ -112,10 +311,42 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Name of counter field
      */
     COUNTER_FIELD_NAME = "counter",
+    /**
+     * Name of the field holding the encoded output of {@code 9} method
+     */
+    NINE_BYTES_FIELD_NAME = "nine$bytes",
+    /**
+     * Name of the field holding the encoded output of {@code h} method
+     */
+    H_BYTES_FIELD_NAME = "h$bytes",
+    /**
+     * Name of the field holding the encoded output of {@code q} method
+     */
+    Q_BYTES_FIELD_NAME = "q$bytes",
+    /**
+     * Name of the field holding the encoded output of the whole program folded at compile-time
+     */
+    OUTPUT_BYTES_FIELD_NAME = "output$bytes",
+    /**
+     * Name of the field holding the buffered output of the program
+     */
+    OUTPUT_FIELD_NAME = "output",
+    /**
+     * Internal name of the template class from which the fixed methods get spliced into the generated classes
+     */
+    TEMPLATE_INTERNAL_CLASS_NAME = "ru/progrm_jarvis/lang/hq9plus/HQ9PlusClassTemplate",
     /**
      * Internal name of {@link Object} class
      */
     OBJECT_INTERNAL_NAME = OBJECT_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link String} class
+     */
+    STRING_INTERNAL_NAME = STRING_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link StringBuilder} class
+     */
+    STRING_BUILDER_INTERNAL_NAME = STRING_BUILDER_TYPE.getInternalName(),
     /**
      * Internal name of {@link System} class
      */
@@ -124,6 +355,26 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Internal name of {@link PrintStream} class
      */
     PRINT_STREAM_INTERNAL_NAME = PRINT_STREAM_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link BufferedOutputStream} class
+     */
+    BUFFERED_OUTPUT_STREAM_INTERNAL_NAME = BUFFERED_OUTPUT_STREAM_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link AtomicLong} class
+     */
+    ATOMIC_LONG_INTERNAL_NAME = ATOMIC_LONG_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link LongAdder} class
+     */
+    LONG_ADDER_INTERNAL_NAME = LONG_ADDER_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link HQ9PlusExecution} class
+     */
+    EXECUTION_INTERNAL_NAME = EXECUTION_TYPE.getInternalName(),
+    /**
+     * Internal name of {@link HQ9PlusOperationEvent} class
+     */
+    OPERATION_EVENT_INTERNAL_NAME = OPERATION_EVENT_TYPE.getInternalName(),
     /**
      * Descriptor of {@code long}
      */
@@ -140,6 +391,14 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Descriptor of {@link PrintStream} class
      */
     PRINT_STREAM_DESCRIPTOR = PRINT_STREAM_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link AtomicLong} class
+     */
+    ATOMIC_LONG_DESCRIPTOR = ATOMIC_LONG_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link LongAdder} class
+     */
+    LONG_ADDER_DESCRIPTOR = LONG_ADDER_TYPE.getDescriptor(),
     /**
      * Descriptor of {@link Object}{@code []} class
      */
@@ -148,6 +407,10 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Descriptor of {@link String}{@code []} class
      */
     STRING_ARRAY_DESCRIPTOR = STRING_ARRAY_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code byte[]} class
+     */
+    BYTE_ARRAY_DESCRIPTOR = BYTE_ARRAY_TYPE.getDescriptor(),
     /**
      * Descriptor of {@code void}{@code ()} method
      */
@@ -156,14 +419,74 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * Descriptor of {@code void(int)} method
      */
     VOID_INT_METHOD_DESCRIPTOR = VOID_INT_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(long)} method
+     */
+    VOID_LONG_METHOD_DESCRIPTOR = VOID_LONG_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code long(long)} method
+     */
+    LONG_LONG_METHOD_DESCRIPTOR = LONG_LONG_METHOD_TYPE.getDescriptor(),
     /**
      * Descriptor of {@code void}{@code (}{@link String}{@code [])} method
      */
     VOID_STRING_METHOD_DESCRIPTOR = VOID_STRING_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link StringBuilder}{@code (}{@link String}{@code )} method
+     */
+    STRING_BUILDER_STRING_METHOD_DESCRIPTOR = STRING_BUILDER_STRING_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(}{@link PrintStream}{@code )} method
+     */
+    VOID_PRINT_STREAM_METHOD_DESCRIPTOR = VOID_PRINT_STREAM_METHOD_TYPE.getDescriptor(),
     /**
      * Descriptor of {@code void}{@code (}{@link String}{@code [])} method
      */
-    VOID_STRING_ARRAY_METHOD_DESCRIPTOR = VOID_STRING_ARRAY_METHOD_TYPE.getDescriptor();
+    VOID_STRING_ARRAY_METHOD_DESCRIPTOR = VOID_STRING_ARRAY_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(byte[], int, int)} method
+     */
+    VOID_BYTE_ARRAY_INT_INT_METHOD_DESCRIPTOR = VOID_BYTE_ARRAY_INT_INT_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link String}{@code ()} method
+     */
+    STRING_METHOD_DESCRIPTOR = STRING_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link String}{@code (}{@link CharSequence}{@code , }{@link CharSequence}{@code )} method
+     */
+    STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_METHOD_DESCRIPTOR
+            = STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link String}{@code (}{@link CharSequence}{@code , }{@link CharSequence}{@code [])} method
+     */
+    STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_ARRAY_METHOD_DESCRIPTOR
+            = STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_ARRAY_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code byte[]()} method
+     */
+    BYTE_ARRAY_METHOD_DESCRIPTOR = BYTE_ARRAY_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code byte[](}{@link MethodHandles.Lookup}{@code , }{@link String}{@code , }{@link Class}
+     * {@code , }{@link String}{@code [])} method
+     */
+    BYTE_ARRAY_LOOKUP_STRING_CLASS_STRING_ARRAY_METHOD_DESCRIPTOR
+            = BYTE_ARRAY_LOOKUP_STRING_CLASS_STRING_ARRAY_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(}{@link OutputStream}{@code , int)} method
+     */
+    VOID_OUTPUT_STREAM_INT_METHOD_DESCRIPTOR = VOID_OUTPUT_STREAM_INT_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(}{@link OutputStream}{@code , boolean)} method
+     */
+    VOID_OUTPUT_STREAM_BOOLEAN_METHOD_DESCRIPTOR = VOID_OUTPUT_STREAM_BOOLEAN_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@link HQ9PlusOperationEvent}{@code ()} method
+     */
+    OPERATION_EVENT_METHOD_DESCRIPTOR = OPERATION_EVENT_METHOD_TYPE.getDescriptor(),
+    /**
+     * Descriptor of {@code void(}{@link String}{@code , int, long, long)} method
+     */
+    VOID_STRING_INT_LONG_LONG_METHOD_DESCRIPTOR = VOID_STRING_INT_LONG_LONG_METHOD_TYPE.getDescriptor();
 
     /**
      * {@link Object}-array with its only value being {@link org.objectweb.asm.Opcodes#INTEGER}
@@ -174,6 +497,102 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      */
     PRINT_STREAM_INTERNAL_NAME_OBJECT_ARRAY = {PRINT_STREAM_INTERNAL_NAME};
 
+    /**
+     * Frame locals of {@code main} method at the beginning of a folded loop
+     */
+    private static final Object[] MAIN_LOOP_FRAME_LOCALS = {STRING_ARRAY_TYPE.getInternalName(), INTEGER};
+
+    /**
+     * Minimal length of a run of {@link HQ9PlusAstNode#H H}, {@link HQ9PlusAstNode#Q Q}
+     * or {@link HQ9PlusAstNode#NINE 9} nodes which gets folded into a counted loop
+     */
+    protected static final int MIN_LOOPED_INVOCATIONS = 5;
+
+    /**
+     * Minimal length of a run of {@link HQ9PlusAstNode#PLUS +} nodes which gets folded into a single increment
+     */
+    protected static final int MIN_FOLDED_INCREMENTS = 4;
+
+    /**
+     * Maximal size of method's bytecode for which the method still gets JIT-compiled by HotSpot
+     * (the default value of {@code -XX:HugeMethodLimit})
+     */
+    protected static final int MAX_JIT_COMPILED_METHOD_CODE_SIZE = 8000;
+
+    /**
+     * Maximal size of bytecode of a single invocation of a static method
+     */
+    protected static final int INVOCATION_CODE_SIZE = 3;
+
+    /**
+     * Maximal size of bytecode of a single invocation of an instance method on {@code this}
+     */
+    protected static final int INSTANCE_INVOCATION_CODE_SIZE = INVOCATION_CODE_SIZE + 1;
+
+    /**
+     * Maximal size of bytecode of a counted loop emitted by
+     * {@link #invokeRepeatedly(MethodVisitor, String, String, boolean, int, int, Object[])}
+     */
+    protected static final int LOOP_CODE_SIZE = 16;
+
+    /**
+     * Maximal size of bytecode of a counted loop of invocations of an instance method on {@code this}
+     */
+    protected static final int INSTANCE_LOOP_CODE_SIZE = LOOP_CODE_SIZE + 1;
+
+    /**
+     * Maximal size of bytecode emitted by
+     * {@link #incrementCounter(MethodVisitor, String, HQ9PlusAccumulatorMode, long)}
+     */
+    protected static final int INCREMENT_CODE_SIZE = 10;
+
+    /**
+     * Maximal size of bytecode emitted by {@link #incrementExecutionCounter(MethodVisitor, String, long)}
+     */
+    protected static final int EXECUTION_INCREMENT_CODE_SIZE = 12;
+
+    /**
+     * Maximal size of bytecode emitted by {@link #startOperationEvent(MethodVisitor, int)}
+     * and {@link #completeOperationEvent(MethodVisitor, int, String, int, long, long)} around a run
+     */
+    protected static final int OPERATION_EVENT_CODE_SIZE = 22;
+
+    /**
+     * Maximal stack size required by {@link #completeOperationEvent(MethodVisitor, int, String, int, long, long)}
+     */
+    protected static final int OPERATION_EVENT_STACK_SIZE = 7;
+
+    /**
+     * Maximal length of a string constant in <i>modified UTF-8</i>
+     */
+    protected static final int MAX_STRING_CONSTANT_LENGTH = 65535;
+
+    /**
+     * Maximal amount of characters per verse of <i><b>N</b>-bottles of beer</i> song
+     * used to estimate whether the song can be pre-rendered
+     */
+    protected static final int MAX_BOTTLES_OF_BEER_VERSE_LENGTH = 150;
+
+    /**
+     * Interpreter used to fold the output of the whole program at compile-time
+     * whose lines are separated by {@code '\n'} as required by the text bytes fields
+     */
+    private static final HQ9PlusInterpreter OUTPUT_FOLDING_INTERPRETER = HQ9PlusInterpreter.create(true, "\n");
+
+    /**
+     * Length of the output of {@link HQ9PlusAstNode#NINE 9} node whose lines are separated by {@code '\n'}
+     */
+    private static final int BOTTLES_OF_BEER_SONG_LENGTH = HQ9PlusConst.bottlesOfBeerSong(
+            HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT, "\n"
+    ).length();
+
+    /**
+     * Amount of lines of the output of {@link HQ9PlusAstNode#NINE 9} node
+     */
+    private static final int BOTTLES_OF_BEER_SONG_LINE_COUNT = (int) HQ9PlusConst.bottlesOfBeerSong(
+            HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT, "\n"
+    ).chars().filter(character -> character == '\n').count();
+
     /**
      * {@code true} if the case of source code should be respected and {@code false} otherwise
      *
@@ -182,6 +601,52 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      */
     boolean respectCase;
 
+    /**
+     * Options of the generated classes
+     */
+    @NonNull HQ9PlusCompilerOptions options;
+
+    /**
+     * Listener notified about the compiled classes or {@code null} if the compilation should not be measured
+     */
+    @ToString.Exclude @Nullable HQ9PlusCompilationListener listener;
+
+    /**
+     * Lazily created templates of the fixed methods indexed by {@link #classTemplateIndex(boolean, boolean)}
+     */
+    @ToString.Exclude AtomicReferenceArray<ClassTemplate> classTemplates = new AtomicReferenceArray<>(3);
+
+    /**
+     * Creates a new compiler generating classes with the given options.
+     *
+     * @param respectCase {@code true} if the case of source code should be respected and {@code false} otherwise
+     * @param options options of the generated classes
+     *
+     * @throws IllegalArgumentException if the options are invalid
+     */
+    protected AbstractAsmHQ9PlusCompiler(final boolean respectCase, @NonNull final HQ9PlusCompilerOptions options) {
+        if (options.getOutputBufferSize() <= 0) throw new IllegalArgumentException(
+                "Output buffer size should be positive (" + options.getOutputBufferSize() + ')'
+        );
+        if (options.getFoldedOutputBudget() < 0) throw new IllegalArgumentException(
+                "Folded output budget should not be negative (" + options.getFoldedOutputBudget() + ')'
+        );
+
+        this.respectCase = respectCase;
+        this.options = options;
+        final HQ9PlusCompilationListener listener = options.getListener();
+        this.listener = listener == HQ9PlusCompilationListener.NONE ? null : listener;
+    }
+
+    /**
+     * Creates a new compiler generating classes with the default options.
+     *
+     * @param respectCase {@code true} if the case of source code should be respected and {@code false} otherwise
+     */
+    protected AbstractAsmHQ9PlusCompiler(final boolean respectCase) {
+        this(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
     /**
      * Pushes the {@code int} value onto the stack effectively.
      *
@@ -227,81 +692,540 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
     }
 
     /**
-     * Implements the method printing the given text.
+     * Pushes the {@code long} value onto the stack effectively.
      *
-     * @param classWriter class-writer used to implement the method
-     * @param methodName name of the implemented method
-     * @param text text which should be printed
+     * @param method method in whose frame the {@code long}-value should be pushed onto the stack
+     * @param value value to push onto the stack
      */
-    protected static void implementTextOutputMethod(@NonNull final ClassWriter classWriter,
-                                             @NonNull final String methodName,
-                                             @NonNull final String text) {
-        val method = classWriter.visitMethod(
-                ACC_PROTECTED | ACC_STATIC | ACC_SYNTHETIC, methodName,
-                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
-        );
+    protected static void pushLong(final MethodVisitor method, final long value) {
+        if (value == 0L) method.visitInsn(LCONST_0);
+        else if (value == 1L) method.visitInsn(LCONST_1);
+        else method.visitLdcInsn(value);
+    }
 
-        method.visitCode();
-        method.visitFieldInsn(
-                GETSTATIC, SYSTEM_INTERNAL_NAME, OUT_FIELD_NAME, PRINT_STREAM_DESCRIPTOR
-        );
-        method.visitLdcInsn(text);
-        method.visitMethodInsn(
-                INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
-                PRINTLN_METHOD_NAME, VOID_STRING_METHOD_DESCRIPTOR, false
-        );
-        method.visitInsn(RETURN);
+    /**
+     * Computes the length of the given character in <i>modified UTF-8</i> used by class-file constants.
+     *
+     * @param character character whose length should be computed
+     * @return amount of bytes occupied by the character
+     */
+    protected static int modifiedUtf8Length(final char character) {
+        if (character != 0 && character < 0x80) return 1;
+        if (character < 0x800) return 2;
 
-        method.visitMaxs(2, 0);
-        method.visitEnd();
+        return 3;
     }
 
     /**
-     * Implements the method printing <i><b>N</b>-bottles of beer</i> song.
+     * Finds the end of the longest part of the text starting at the given index
+     * which fits into a single string constant.
      *
-     * @param classWriter class-writer used to implement the method
-     * @param methodName name of the implemented method
-     * @param initialBottles initial amount of bottles of beer
+     * @param text text whose part should be found
+     * @param start index of the first character of the part
+     * @return index of the character following the last character of the part
      */
-    @SuppressWarnings("Duplicates") // those are just similar bytecode instructions generated
-    protected static void implementNBottlesOfBeerMethod(@NonNull final ClassWriter classWriter,
-                                                        @NonNull final String methodName,
-                                                        final int initialBottles) {
-        if (initialBottles < 1) throw new IllegalArgumentException(
-                "There is no need to sing about bottles of beer if there isn't enough of those (" + initialBottles + ')'
-        );
+    protected static int stringConstantEnd(@NonNull final CharSequence text, final int start) {
+        final int length = text.length();
+        int end = start;
+        int constantLength = 0;
+        while (end < length) {
+            final char character = text.charAt(end);
+            if ((constantLength += modifiedUtf8Length(character)) > MAX_STRING_CONSTANT_LENGTH) {
+                // don't split surrogate pairs between the constants
+                if (end > start + 1 && Character.isLowSurrogate(character)
+                        && Character.isHighSurrogate(text.charAt(end - 1))) end--;
+                break;
+            }
+            end++;
+        }
 
-        val method = classWriter.visitMethod(
-                ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, methodName,
-                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
-        );
-        method.visitCode();
+        return end;
+    }
+
+    /**
+     * Pushes the given text onto the stack as a single {@link String}.
+     * <p>
+     * Texts not fitting into a single string constant get concatenated from multiple constants
+     * using a {@link StringBuilder} so that the text is never stored as a single huge constant.
+     * This requires at most 3 slots of the stack.
+     *
+     * @param method method visitor
+     * @param text text which should be pushed
+     */
+    protected static void pushString(@NonNull final MethodVisitor method, @NonNull final CharSequence text) {
+        final int length = text.length();
+        int end = stringConstantEnd(text, 0);
+        if (end == length) {
+            method.visitLdcInsn(text.toString());
+            return;
+        }
+
+        // new StringBuilder(length)
+        method.visitTypeInsn(NEW, STRING_BUILDER_INTERNAL_NAME);
+        method.visitInsn(DUP);
+        pushInt(method, length);
+        method.visitMethodInsn(
+                INVOKESPECIAL, STRING_BUILDER_INTERNAL_NAME, CONSTRUCTOR_METHOD_NAME, VOID_INT_METHOD_DESCRIPTOR, false
+        );
+        int start = 0;
+        while (start < length) {
+            method.visitLdcInsn(text.subSequence(start, end).toString());
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, STRING_BUILDER_INTERNAL_NAME,
+                    APPEND_METHOD_NAME, STRING_BUILDER_STRING_METHOD_DESCRIPTOR, false
+            );
+
+            start = end;
+            end = stringConstantEnd(text, start);
+        }
+        method.visitMethodInsn(
+                INVOKEVIRTUAL, STRING_BUILDER_INTERNAL_NAME, TO_STRING_METHOD_NAME, STRING_METHOD_DESCRIPTOR, false
+        );
+    }
+
+    /**
+     * Implements the method printing the given text.
+     * <p>
+     * Texts not fitting into a single string constant get split into multiple constants
+     * printed one after another so that the text is never stored as a single huge constant.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param methodName name of the implemented method
+     * @param text text which should be printed
+     */
+    protected static void implementTextOutputMethod(@NonNull final ClassWriter classWriter,
+                                             @NonNull final String methodName,
+                                             @NonNull final CharSequence text) {
+        implementTextOutputMethod(classWriter, OutputField.SYSTEM_OUT, methodName, text);
+    }
+
+    /**
+     * Implements the method printing the given text to the given output.
+     * <p>
+     * Texts not fitting into a single string constant get split into multiple constants
+     * printed one after another so that the text is never stored as a single huge constant.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the text should be printed
+     * @param methodName name of the implemented method
+     * @param text text which should be printed
+     */
+    protected static void implementTextOutputMethod(@NonNull final ClassWriter classWriter,
+                                                    @NonNull final OutputField output,
+                                                    @NonNull final String methodName,
+                                                    @NonNull final CharSequence text) {
+        final MethodVisitor method = classWriter.visitMethod(
+                output.methodAccess(ACC_PROTECTED | ACC_STATIC | ACC_SYNTHETIC), methodName,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+
+        method.visitCode();
+        output.push(method);
+        final int length = text.length();
+        int end = stringConstantEnd(text, 0);
+        if (end == length) {
+            method.visitLdcInsn(text.toString());
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
+                    PRINTLN_METHOD_NAME, VOID_STRING_METHOD_DESCRIPTOR, false
+            );
+        } else {
+            int start = 0;
+            while (start < length) {
+                // `out` -> `out`, `out`
+                method.visitInsn(DUP);
+                method.visitLdcInsn(text.subSequence(start, end).toString());
+                method.visitMethodInsn(
+                        INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
+                        PRINT_METHOD_NAME, VOID_STRING_METHOD_DESCRIPTOR, false
+                );
+
+                start = end;
+                end = stringConstantEnd(text, start);
+            }
+            // no dup as the last use of `out`
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
+                    PRINTLN_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
+            );
+        }
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(3, output.firstLocalIndex());
+        method.visitEnd();
+    }
+
+    /**
+     * Pushes the encoded bytes of the text onto the stack.
+     *
+     * @param method method visitor
+     * @param internalClassName internal name of the class containing the field
+     * @param bytesFieldName name of the {@code byte[]} field holding the encoded text
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes are dynamic constants rather than fields
+     *
+     * @see #implementTextBytesBootstrapMethod(ClassWriter) bootstrap method of the dynamic constants
+     */
+    protected static void pushTextBytes(@NonNull final MethodVisitor method,
+                                        @NonNull final String internalClassName,
+                                        @NonNull final String bytesFieldName,
+                                        @NonNull final Map<String, CharSequence> textBytesFields,
+                                        final boolean lazyConstants) {
+        if (!lazyConstants) {
+            method.visitFieldInsn(GETSTATIC, internalClassName, bytesFieldName, BYTE_ARRAY_DESCRIPTOR);
+            return;
+        }
+
+        final CharSequence text = textBytesFields.get(bytesFieldName);
+        if (text == null) throw new IllegalArgumentException("There is no text of field " + bytesFieldName);
+
+        // the text is passed as the static arguments each fitting into a single string constant
+        final List<String> textParts = new ArrayList<>();
+        final int length = text.length();
+        int start = 0;
+        while (start < length) {
+            final int end = stringConstantEnd(text, start);
+            textParts.add(text.subSequence(start, end).toString());
+            start = end;
+        }
+        method.visitLdcInsn(new ConstantDynamic(
+                bytesFieldName, BYTE_ARRAY_DESCRIPTOR, new Handle(
+                        H_INVOKESTATIC, internalClassName, TEXT_BYTES_BOOTSTRAP_METHOD_NAME,
+                        BYTE_ARRAY_LOOKUP_STRING_CLASS_STRING_ARRAY_METHOD_DESCRIPTOR, false
+                ), textParts.toArray()
+        ));
+    }
+
+    /**
+     * Implements the bootstrap method of the dynamic constants holding the encoded texts.
+     * <p>
+     * The bootstrap method joins the parts of the text passed as its static arguments and encodes it
+     * the same way as {@link #initializeTextBytesFields(ClassWriter, MethodVisitor, String, Map)} does
+     * so that the text only gets encoded once the constant gets first used.
+     *
+     * @param classWriter class-writer used to implement the method
+     */
+    protected static void implementTextBytesBootstrapMethod(@NonNull final ClassWriter classWriter) {
+        final MethodVisitor method = classWriter.visitMethod(
+                ACC_PRIVATE | ACC_STATIC | ACC_VARARGS | ACC_SYNTHETIC, TEXT_BYTES_BOOTSTRAP_METHOD_NAME,
+                BYTE_ARRAY_LOOKUP_STRING_CLASS_STRING_ARRAY_METHOD_DESCRIPTOR,
+                null /* no generics */, null /* no exceptions */
+        );
+        method.visitCode();
+
+        // String.join("", textParts).replace("\n", System.lineSeparator()).getBytes()
+        method.visitLdcInsn("");
+        method.visitVarInsn(ALOAD, 3);
+        method.visitMethodInsn(
+                INVOKESTATIC, STRING_INTERNAL_NAME,
+                JOIN_METHOD_NAME, STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_ARRAY_METHOD_DESCRIPTOR, false
+        );
+        method.visitLdcInsn("\n");
+        method.visitMethodInsn(
+                INVOKESTATIC, SYSTEM_INTERNAL_NAME, LINE_SEPARATOR_METHOD_NAME, STRING_METHOD_DESCRIPTOR, false
+        );
+        method.visitMethodInsn(
+                INVOKEVIRTUAL, STRING_INTERNAL_NAME,
+                REPLACE_METHOD_NAME, STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_METHOD_DESCRIPTOR, false
+        );
+        method.visitMethodInsn(
+                INVOKEVIRTUAL, STRING_INTERNAL_NAME, GET_BYTES_METHOD_NAME, BYTE_ARRAY_METHOD_DESCRIPTOR, false
+        );
+        method.visitInsn(ARETURN);
+
+        method.visitMaxs(3, 4 /* lookup, name, type and text parts */);
+        method.visitEnd();
+    }
+
+    /**
+     * Implements the method writing the bytes stored in the given static field.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the bytes should be written
+     * @param internalClassName internal name of the class containing the field
+     * @param methodName name of the implemented method
+     * @param bytesFieldName name of the {@code byte[]} field whose content should be written
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes are dynamic constants rather than fields
+     */
+    protected static void implementBytesOutputMethod(@NonNull final ClassWriter classWriter,
+                                                     @NonNull final OutputField output,
+                                                     @NonNull final String internalClassName,
+                                                     @NonNull final String methodName,
+                                                     @NonNull final String bytesFieldName,
+                                                     @NonNull final Map<String, CharSequence> textBytesFields,
+                                                     final boolean lazyConstants) {
+        final MethodVisitor method = classWriter.visitMethod(
+                output.methodAccess(ACC_PROTECTED | ACC_STATIC | ACC_SYNTHETIC), methodName,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+
+        method.visitCode();
+        output.push(method);
+        // `out` -> `out`, bytes, 0, bytes.length
+        pushTextBytes(method, internalClassName, bytesFieldName, textBytesFields, lazyConstants);
+        method.visitInsn(ICONST_0);
+        pushTextBytes(method, internalClassName, bytesFieldName, textBytesFields, lazyConstants);
+        method.visitInsn(ARRAYLENGTH);
+        method.visitMethodInsn(
+                INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
+                WRITE_METHOD_NAME, VOID_BYTE_ARRAY_INT_INT_METHOD_DESCRIPTOR, false
+        );
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(4, output.firstLocalIndex());
+        method.visitEnd();
+    }
+
+    /**
+     * Implements the method printing the given text followed by the line separator to the given output.
+     * <p>
+     * The text gets encoded once and written in bulk unless it is too long to fit into a single string constant,
+     * in which case it gets printed by
+     * {@link #implementTextOutputMethod(ClassWriter, OutputField, String, CharSequence)}.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the text should be printed
+     * @param internalClassName internal name of the class in which the method is implemented
+     * @param methodName name of the implemented method
+     * @param bytesFieldName name of the field which should hold the encoded text
+     * @param text text which should be printed
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes should be dynamic constants rather than fields
+     */
+    protected static void implementEncodedTextOutputMethod(@NonNull final ClassWriter classWriter,
+                                                           @NonNull final OutputField output,
+                                                           @NonNull final String internalClassName,
+                                                           @NonNull final String methodName,
+                                                           @NonNull final String bytesFieldName,
+                                                           @NonNull final CharSequence text,
+                                                           @NonNull final Map<String, CharSequence>
+                                                                   textBytesFields,
+                                                           final boolean lazyConstants) {
+        final int length = text.length();
+        if (length < MAX_STRING_CONSTANT_LENGTH && stringConstantEnd(text, 0) == length) {
+            textBytesFields.put(bytesFieldName, new StringBuilder(length + 1).append(text).append('\n'));
+            implementBytesOutputMethod(
+                    classWriter, output, internalClassName, methodName, bytesFieldName, textBytesFields, lazyConstants
+            );
+        } else implementTextOutputMethod(classWriter, output, methodName, text);
+    }
+
+    /**
+     * Implements the static initializer of the generated class.
+     *
+     * @param classWriter class-writer used to implement the static initializer
+     * @param internalClassName internal name of the class being initialized
+     * @param outputBufferSize size of the buffer of the buffered output
+     * or non-positive number if the program should not use buffered output
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param accumulatorMode strategy of the counter field which should be initialized
+     * or {@code null} if there is no counter field
+     */
+    protected static void implementStaticInitializer(@NonNull final ClassWriter classWriter,
+                                                     @NonNull final String internalClassName,
+                                                     final int outputBufferSize,
+                                                     @NonNull final Map<String, CharSequence> textBytesFields,
+                                                     @Nullable final HQ9PlusAccumulatorMode accumulatorMode) {
+        final boolean initializeCounter = accumulatorMode != null && accumulatorMode != HQ9PlusAccumulatorMode.PLAIN;
+        if (outputBufferSize <= 0 && textBytesFields.isEmpty() && !initializeCounter) return;
+
+        final MethodVisitor method = classWriter.visitMethod(
+                ACC_STATIC, STATIC_INITIALIZER_METHOD_NAME,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+        method.visitCode();
+
+        if (outputBufferSize > 0) initializeBufferedOutputField(
+                classWriter, method, internalClassName, outputBufferSize
+        );
+        initializeTextBytesFields(classWriter, method, internalClassName, textBytesFields);
+        if (initializeCounter) initializeCounterField(method, internalClassName, accumulatorMode);
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(outputBufferSize > 0 ? 6 : 3, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * Initializes the field holding the buffered output of the program.
+     * The buffered output is a non-auto-flushing {@link PrintStream} writing to {@link System#out}
+     * through a buffer of the given size.
+     *
+     * @param classWriter class-writer used to declare the field
+     * @param method static initializer in which the field should be initialized
+     * @param internalClassName internal name of the class containing the field
+     * @param bufferSize size of the buffer of the output
+     */
+    protected static void initializeBufferedOutputField(@NonNull final ClassWriter classWriter,
+                                                        @NonNull final MethodVisitor method,
+                                                        @NonNull final String internalClassName,
+                                                        final int bufferSize) {
+        classWriter.visitField(
+                ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC,
+                OUTPUT_FIELD_NAME, PRINT_STREAM_DESCRIPTOR, null /* no generics */, null /* no default value */
+        );
+
+        // new PrintStream(new BufferedOutputStream(System.out, bufferSize), false)
+        method.visitTypeInsn(NEW, PRINT_STREAM_INTERNAL_NAME);
+        method.visitInsn(DUP);
+        method.visitTypeInsn(NEW, BUFFERED_OUTPUT_STREAM_INTERNAL_NAME);
+        method.visitInsn(DUP);
+        OutputField.SYSTEM_OUT.push(method);
+        pushInt(method, bufferSize);
+        method.visitMethodInsn(
+                INVOKESPECIAL, BUFFERED_OUTPUT_STREAM_INTERNAL_NAME,
+                CONSTRUCTOR_METHOD_NAME, VOID_OUTPUT_STREAM_INT_METHOD_DESCRIPTOR, false
+        );
+        method.visitInsn(ICONST_0);
+        method.visitMethodInsn(
+                INVOKESPECIAL, PRINT_STREAM_INTERNAL_NAME,
+                CONSTRUCTOR_METHOD_NAME, VOID_OUTPUT_STREAM_BOOLEAN_METHOD_DESCRIPTOR, false
+        );
+        method.visitFieldInsn(PUTSTATIC, internalClassName, OUTPUT_FIELD_NAME, PRINT_STREAM_DESCRIPTOR);
+    }
+
+    /**
+     * Initializes the fields holding the encoded bytes of the texts.
+     * <p>
+     * The texts use {@code '\n'} as the line separator which gets replaced with {@link System#lineSeparator()}
+     * and the texts get encoded using the default charset (as done by {@link PrintStream}) when the class
+     * gets initialized as those are only known at runtime.
+     *
+     * @param classWriter class-writer used to declare the fields
+     * @param method static initializer in which the fields should be initialized
+     * @param internalClassName internal name of the class containing the fields
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     */
+    protected static void initializeTextBytesFields(@NonNull final ClassWriter classWriter,
+                                                    @NonNull final MethodVisitor method,
+                                                    @NonNull final String internalClassName,
+                                                    @NonNull final Map<String, CharSequence> textBytesFields) {
+        for (final Map.Entry<String, CharSequence> textBytesField : textBytesFields.entrySet()) {
+            final String fieldName = textBytesField.getKey();
+            classWriter.visitField(
+                    ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC,
+                    fieldName, BYTE_ARRAY_DESCRIPTOR, null /* no generics */, null /* no default value */
+            );
+
+            pushString(method, textBytesField.getValue());
+            method.visitLdcInsn("\n");
+            method.visitMethodInsn(
+                    INVOKESTATIC, SYSTEM_INTERNAL_NAME, LINE_SEPARATOR_METHOD_NAME, STRING_METHOD_DESCRIPTOR, false
+            );
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, STRING_INTERNAL_NAME,
+                    REPLACE_METHOD_NAME, STRING_CHAR_SEQUENCE_CHAR_SEQUENCE_METHOD_DESCRIPTOR, false
+            );
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, STRING_INTERNAL_NAME, GET_BYTES_METHOD_NAME, BYTE_ARRAY_METHOD_DESCRIPTOR, false
+            );
+            method.visitFieldInsn(PUTSTATIC, internalClassName, fieldName, BYTE_ARRAY_DESCRIPTOR);
+        }
+    }
+
+    /**
+     * Implements the method printing <i><b>N</b>-bottles of beer</i> song.
+     * <p>
+     * The song gets pre-rendered at compile-time and written in bulk unless it is too long to fit into
+     * a single string constant, in which case it gets printed by a loop.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the song should be printed
+     * @param internalClassName internal name of the class in which the method is implemented
+     * @param methodName name of the implemented method
+     * @param bytesFieldName name of the field which should hold the pre-rendered song
+     * @param initialBottles initial amount of bottles of beer
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes should be dynamic constants rather than fields
+     *
+     * @see #implementNBottlesOfBeerMethod(ClassWriter, OutputField, String, int) fallback implementation
+     */
+    protected static void implementBottlesOfBeerMethod(@NonNull final ClassWriter classWriter,
+                                                       @NonNull final OutputField output,
+                                                       @NonNull final String internalClassName,
+                                                       @NonNull final String methodName,
+                                                       @NonNull final String bytesFieldName,
+                                                       final int initialBottles,
+                                                       @NonNull final Map<String, CharSequence> textBytesFields,
+                                                       final boolean lazyConstants) {
+        if ((long) initialBottles * MAX_BOTTLES_OF_BEER_VERSE_LENGTH <= MAX_STRING_CONSTANT_LENGTH) {
+            final String song = HQ9PlusConst.bottlesOfBeerSong(initialBottles, "\n");
+            if (stringConstantEnd(song, 0) == song.length()) {
+                textBytesFields.put(bytesFieldName, song);
+                implementBytesOutputMethod(
+                        classWriter, output, internalClassName, methodName, bytesFieldName,
+                        textBytesFields, lazyConstants
+                );
+
+                return;
+            }
+        }
+
+        implementNBottlesOfBeerMethod(classWriter, output, methodName, initialBottles);
+    }
+
+    /**
+     * Implements the method printing <i><b>N</b>-bottles of beer</i> song.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param methodName name of the implemented method
+     * @param initialBottles initial amount of bottles of beer
+     */
+    protected static void implementNBottlesOfBeerMethod(@NonNull final ClassWriter classWriter,
+                                                        @NonNull final String methodName,
+                                                        final int initialBottles) {
+        implementNBottlesOfBeerMethod(classWriter, OutputField.SYSTEM_OUT, methodName, initialBottles);
+    }
+
+    /**
+     * Implements the method printing <i><b>N</b>-bottles of beer</i> song to the given output.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the song should be printed
+     * @param methodName name of the implemented method
+     * @param initialBottles initial amount of bottles of beer
+     */
+    @SuppressWarnings("Duplicates") // those are just similar bytecode instructions generated
+    protected static void implementNBottlesOfBeerMethod(@NonNull final ClassWriter classWriter,
+                                                        @NonNull final OutputField output,
+                                                        @NonNull final String methodName,
+                                                        final int initialBottles) {
+        if (initialBottles < 1) throw new IllegalArgumentException(
+                "There is no need to sing about bottles of beer if there isn't enough of those (" + initialBottles + ')'
+        );
 
-        // push the `System#out` onto the stack
-        method.visitFieldInsn(
-                GETSTATIC, SYSTEM_INTERNAL_NAME, OUT_FIELD_NAME, PRINT_STREAM_DESCRIPTOR
+        final MethodVisitor method = classWriter.visitMethod(
+                output.methodAccess(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC), methodName,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
         );
+        method.visitCode();
+        final int counterIndex = output.firstLocalIndex();
+
+        // push the output onto the stack
+        output.push(method);
         if (initialBottles > 1) {
             // loop to print those happy messages about multiple bottles
 
             // push the initial counter value ...
             pushInt(method, initialBottles);
             // ... and store it in the local variable
-            method.visitVarInsn(ISTORE, 0);
+            method.visitVarInsn(ISTORE, counterIndex);
 
-            val loopBeginLabel = new Label();
+            final Label loopBeginLabel = new Label();
             method.visitLabel(loopBeginLabel);
-            method.visitFrame(F_FULL, 1, FRAME_ITEM_INTEGER_OBJECT_ARRAY, 1, PRINT_STREAM_INTERNAL_NAME_OBJECT_ARRAY);
+            final Object[] frameLocals = output.frameLocals(FRAME_ITEM_INTEGER_OBJECT_ARRAY);
+            method.visitFrame(F_FULL, frameLocals.length, frameLocals, 1, PRINT_STREAM_INTERNAL_NAME_OBJECT_ARRAY);
 
-            method.visitVarInsn(ILOAD, 0);
+            method.visitVarInsn(ILOAD, counterIndex);
             method.visitInsn(ICONST_1);
 
-            val loopEndLabel = new Label();
+            final Label loopEndLabel = new Label();
             // loop check to end iteration once `1` is reached
             method.visitJumpInsn(IF_ICMPEQ, loopEndLabel);
 
             { // the very method body
-                method.visitVarInsn(ILOAD, 0);
+                method.visitVarInsn(ILOAD, counterIndex);
                 // `out`, counter -> `out`, counter, `out`, counter
                 method.visitInsn(DUP2);
                 method.visitMethodInsn(
@@ -348,10 +1272,10 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
                 method.visitInsn(DUP);
 
                 // decrement the counter
-                method.visitIincInsn(0, -1);
+                method.visitIincInsn(counterIndex, -1);
                 // get the value of the counter
                 // `out`, `out` -> `out`, `out`, counter 
-                method.visitVarInsn(ILOAD, 0);
+                method.visitVarInsn(ILOAD, counterIndex);
                 method.visitMethodInsn(
                         INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
                         PRINT_METHOD_NAME, VOID_INT_METHOD_DESCRIPTOR, false
@@ -435,7 +1359,7 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
         // return from the method
         method.visitInsn(RETURN);
 
-        method.visitMaxs(4, 1 /* counter */);
+        method.visitMaxs(4, counterIndex + 1 /* counter */);
         method.visitEnd();
     }
 
@@ -448,6 +1372,30 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
         implementTextOutputMethod(classWriter, H_METHOD_NAME, HQ9PlusConst.HELLO_WORLD_TEXT);
     }
 
+    /**
+     * Implements the {@link HQ9PlusAstNode#H H} method using the given class-writer.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the text should be printed
+     * @param internalClassName internal name of the class in which the method is implemented
+     * @param encodeText {@code true} if the text should be encoded once and written as bytes
+     * and {@code false} if it should be printed as a string
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes should be dynamic constants rather than fields
+     */
+    protected static void implementHMethod(@NonNull final ClassWriter classWriter,
+                                           @NonNull final OutputField output,
+                                           @NonNull final String internalClassName,
+                                           final boolean encodeText,
+                                           @NonNull final Map<String, CharSequence> textBytesFields,
+                                           final boolean lazyConstants) {
+        if (encodeText) implementEncodedTextOutputMethod(
+                classWriter, output, internalClassName, H_METHOD_NAME, H_BYTES_FIELD_NAME,
+                HQ9PlusConst.HELLO_WORLD_TEXT, textBytesFields, lazyConstants
+        );
+        else implementTextOutputMethod(classWriter, output, H_METHOD_NAME, HQ9PlusConst.HELLO_WORLD_TEXT);
+    }
+
     /**
      * Implements the {@link HQ9PlusAstNode#Q Q} method using the given class-writer.
      *
@@ -455,17 +1403,54 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      * @param sourceCode displayed source-code
      */
     protected static void implementQMethod(@NonNull final ClassWriter classWriter,
-                                    @NonNull final String sourceCode) {
+                                    @NonNull final CharSequence sourceCode) {
         implementTextOutputMethod(classWriter, Q_METHOD_NAME, sourceCode);
     }
 
+    /**
+     * Implements the {@link HQ9PlusAstNode#Q Q} method using the given class-writer.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param output output to which the source code should be printed
+     * @param internalClassName internal name of the class in which the method is implemented
+     * @param encodeText {@code true} if the source code should be encoded once and written as bytes
+     * and {@code false} if it should be printed as a string
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes should be dynamic constants rather than fields
+     * @param sourceCode displayed source-code
+     */
+    protected static void implementQMethod(@NonNull final ClassWriter classWriter,
+                                           @NonNull final OutputField output,
+                                           @NonNull final String internalClassName,
+                                           final boolean encodeText,
+                                           @NonNull final Map<String, CharSequence> textBytesFields,
+                                           final boolean lazyConstants,
+                                           @NonNull final CharSequence sourceCode) {
+        if (encodeText) implementEncodedTextOutputMethod(
+                classWriter, output, internalClassName, Q_METHOD_NAME, Q_BYTES_FIELD_NAME,
+                sourceCode, textBytesFields, lazyConstants
+        );
+        else implementTextOutputMethod(classWriter, output, Q_METHOD_NAME, sourceCode);
+    }
+
     /**
      * Implements the {@link HQ9PlusAstNode#NINE 9} method using the given class-writer.
      *
      * @param classWriter class-writer used to implement the method
+     * @param output output to which the song should be printed
+     * @param internalClassName internal name of the class in which the method is implemented
+     * @param textBytesFields texts by names of fields which should be initialized with their encoded bytes
+     * @param lazyConstants {@code true} if the encoded bytes should be dynamic constants rather than fields
      */
-    protected static void implementNineMethod(@NonNull final ClassWriter classWriter) {
-        implementNBottlesOfBeerMethod(classWriter, NINE_METHOD_NAME, HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT);
+    protected static void implementNineMethod(@NonNull final ClassWriter classWriter,
+                                              @NonNull final OutputField output,
+                                              @NonNull final String internalClassName,
+                                              @NonNull final Map<String, CharSequence> textBytesFields,
+                                              final boolean lazyConstants) {
+        implementBottlesOfBeerMethod(
+                classWriter, output, internalClassName, NINE_METHOD_NAME, NINE_BYTES_FIELD_NAME,
+                HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT, textBytesFields, lazyConstants
+        );
     }
 
     /**
@@ -473,32 +1458,42 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      *
      * @param classWriter class-writer used to implement the method
      * @param internalClassName internal name of the class containing the static field whose value gets incremented
+     * @param accumulatorMode strategy of the incremented field
      */
     protected static void implementPlusMethod(@NonNull final ClassWriter classWriter,
-                                       @NonNull final String internalClassName) {
-
+                                              @NonNull final String internalClassName,
+                                              @NonNull final HQ9PlusAccumulatorMode accumulatorMode) {
+        final String counterDescriptor;
+        switch (accumulatorMode) {
+            case PLAIN: {
+                counterDescriptor = LONG_DESCRIPTOR;
+                break;
+            }
+            case ATOMIC: {
+                counterDescriptor = ATOMIC_LONG_DESCRIPTOR;
+                break;
+            }
+            case STRIPED: {
+                counterDescriptor = LONG_ADDER_DESCRIPTOR;
+                break;
+            }
+            default: throw new IllegalArgumentException("Unknown accumulator mode: " + accumulatorMode);
+        }
         classWriter.visitField(
                 /* according to spec the field should be invisible */
-                ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC,
-                COUNTER_FIELD_NAME, LONG_DESCRIPTOR, null /* no generics */, 0L
+                ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC | (accumulatorMode == HQ9PlusAccumulatorMode.PLAIN
+                        ? 0 : ACC_FINAL),
+                COUNTER_FIELD_NAME, counterDescriptor, null /* no generics */,
+                accumulatorMode == HQ9PlusAccumulatorMode.PLAIN ? 0L : null /* initialized by static initializer */
         );
 
-        val method = classWriter.visitMethod(
+        final MethodVisitor method = classWriter.visitMethod(
                 ACC_PROTECTED | ACC_STATIC | ACC_SYNTHETIC, PLUS_METHOD_NAME,
                 VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
         );
         method.visitCode();
 
-        // -> counter_least, counter_most
-        method.visitFieldInsn(
-                GETSTATIC, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR
-        );
-        // counter_least, counter_most -> counter_least, counter_most, 1L
-        method.visitInsn(LCONST_1);
-        method.visitInsn(LADD);
-        method.visitFieldInsn(
-                PUTSTATIC, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR
-        );
+        incrementCounter(method, internalClassName, accumulatorMode, 1L);
 
         method.visitInsn(RETURN);
         method.visitMaxs(4 /* LONGS ARE FAT :( (that's why they are called longs) */, 0);
@@ -506,101 +1501,767 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
     }
 
     /**
-     * Generates the class of the given name reading source code using the given reader.
+     * Implements the {@link HQ9PlusAstNode#PLUS +} method incrementing the counter of {@link HQ9PlusExecution}.
      *
-     * @param className name of the class generated
-     * @param reader reader providing the source code
-     * @return bytecode of the generated class
-     * @throws IOException if an exception occurs while reading source code
+     * @param classWriter class-writer used to implement the method
+     * @param internalClassName internal name of the class extending {@link HQ9PlusExecution}
      */
-    protected byte[] generateClass(@NonNull final String className,
-                                   @NonNull final Reader reader) throws IOException {
-        val internalClassName = className.replace('.', '/');
-
-        val clazz = new ClassWriter(0);
-        clazz.visit(V1_8, ACC_PUBLIC | ACC_SUPER, internalClassName, null, OBJECT_INTERNAL_NAME, null);
+    protected static void implementExecutionPlusMethod(@NonNull final ClassWriter classWriter,
+                                                       @NonNull final String internalClassName) {
+        final MethodVisitor method = classWriter.visitMethod(
+                ACC_PROTECTED | ACC_SYNTHETIC, PLUS_METHOD_NAME,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+        method.visitCode();
 
-        boolean hasH = false, hasQ = false, hasNine = false, hasPlus = false;
+        incrementExecutionCounter(method, internalClassName, 1L);
 
-        // reused method local variable
-        MethodVisitor method;
-        {
-            // `void main(String[])` method
-            method = clazz.visitMethod(
-                    ACC_PUBLIC | ACC_STATIC, MAIN_METHOD_NAME,
-                    VOID_STRING_ARRAY_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
-            );
-            method.visitCode();
+        method.visitInsn(RETURN);
+        method.visitMaxs(5, 1 /* this */);
+        method.visitEnd();
+    }
 
-            val sourceCode = new StringBuilder();
-            int characterCode;
-            while ((characterCode = reader.read()) != -1) {
-                val character = (char) characterCode;
-                val currentNode = HQ9PlusAstNode.match(character, respectCase);
-
-                sourceCode.append(character);
-                switch (currentNode) {
-                    case H: {
-                        if (!hasH) {
-                            hasH = true;
-                            implementHMethod(clazz);
-                        }
-
-                        method.visitMethodInsn(
-                                INVOKESTATIC, internalClassName, H_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
-                        );
-
-                        break;
-                    }
-                    case Q: {
-                        // simply mark as using Q as the whole source code should be read before implementing it
-                        if (!hasQ) hasQ = true;
-
-                        method.visitMethodInsn(
-                                INVOKESTATIC, internalClassName, Q_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
-                        );
-
-                        break;
-                    }
-                    case NINE: {
-                        if (!hasNine) {
-                            hasNine = true;
-                            implementNineMethod(clazz);
-                        }
-
-                        method.visitMethodInsn(
-                                INVOKESTATIC, internalClassName, NINE_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
-                        );
-
-                        break;
-                    }
-                    case PLUS: {
-                        if (!hasPlus) {
-                            hasPlus = true;
-                            implementPlusMethod(clazz, internalClassName);
-                        }
-
-                        method.visitMethodInsn(
-                                INVOKESTATIC, internalClassName, PLUS_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
-                        );
-
-                        break;
-                    }
-                }
+    /**
+     * Initializes the counter field of the given accumulator mode.
+     * The {@link HQ9PlusAccumulatorMode#PLAIN plain} counter field is initialized by its constant value.
+     *
+     * @param method static initializer in which the field should be initialized
+     * @param internalClassName internal name of the class containing the field
+     * @param accumulatorMode strategy of the field
+     */
+    protected static void initializeCounterField(@NonNull final MethodVisitor method,
+                                                 @NonNull final String internalClassName,
+                                                 @NonNull final HQ9PlusAccumulatorMode accumulatorMode) {
+        final String counterInternalName;
+        final String counterDescriptor;
+        switch (accumulatorMode) {
+            case PLAIN: return;
+            case ATOMIC: {
+                counterInternalName = ATOMIC_LONG_INTERNAL_NAME;
+                counterDescriptor = ATOMIC_LONG_DESCRIPTOR;
+                break;
             }
-
-            // now implement the `Q` method (which required the full source code)
-            implementQMethod(clazz, sourceCode.toString());
-
-            method.visitInsn(RETURN);
-
-            method.visitMaxs(0 /* nothing pushed */, 1 /* CLI-arguments */);
-            method.visitEnd();
+            case STRIPED: {
+                counterInternalName = LONG_ADDER_INTERNAL_NAME;
+                counterDescriptor = LONG_ADDER_DESCRIPTOR;
+                break;
+            }
+            default: throw new IllegalArgumentException("Unknown accumulator mode: " + accumulatorMode);
         }
 
-        // add super-constructor
-        method = clazz.visitMethod(
-                ACC_PUBLIC, CONSTRUCTOR_METHOD_NAME, VOID_METHOD_DESCRIPTOR,
+        method.visitTypeInsn(NEW, counterInternalName);
+        method.visitInsn(DUP);
+        method.visitMethodInsn(
+                INVOKESPECIAL, counterInternalName, CONSTRUCTOR_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
+        );
+        method.visitFieldInsn(PUTSTATIC, internalClassName, COUNTER_FIELD_NAME, counterDescriptor);
+    }
+
+    /**
+     * Emits the invocation of the given method without parameters.
+     *
+     * @param method method into which the invocation should be emitted
+     * @param internalClassName internal name of the class containing the invoked method
+     * @param methodName name of the invoked method
+     * @param instance {@code true} if the invoked method is an instance method invoked on {@code this}
+     * and {@code false} if it is static
+     */
+    protected static void invoke(@NonNull final MethodVisitor method,
+                                 @NonNull final String internalClassName,
+                                 @NonNull final String methodName,
+                                 final boolean instance) {
+        if (instance) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitMethodInsn(INVOKEVIRTUAL, internalClassName, methodName, VOID_METHOD_DESCRIPTOR, false);
+        } else method.visitMethodInsn(INVOKESTATIC, internalClassName, methodName, VOID_METHOD_DESCRIPTOR, false);
+    }
+
+    /**
+     * Emits the invocation of the given method repeated the given amount of times.
+     * Long runs get folded into a counted loop
+     * so that the emitted bytecode does not depend on the amount of repetitions.
+     *
+     * @param method method into which the invocations should be emitted
+     * @param internalClassName internal name of the class containing the invoked method
+     * @param methodName name of the invoked method
+     * @param instance {@code true} if the invoked method is an instance method invoked on {@code this}
+     * and {@code false} if it is static
+     * @param times amount of times the method should be invoked
+     * @param loopVariableIndex index of the {@code int} local variable which may be used as the loop counter
+     * @param loopFrameLocals frame locals of the method including the loop counter as its last item
+     */
+    protected static void invokeRepeatedly(@NonNull final MethodVisitor method,
+                                           @NonNull final String internalClassName,
+                                           @NonNull final String methodName,
+                                           final boolean instance,
+                                           final int times, final int loopVariableIndex,
+                                           @NonNull final Object[] loopFrameLocals) {
+        if (times < MIN_LOOPED_INVOCATIONS) {
+            for (int i = 0; i < times; i++) invoke(method, internalClassName, methodName, instance);
+
+            return;
+        }
+
+        // store the amount of remaining invocations in the local variable
+        pushInt(method, times);
+        method.visitVarInsn(ISTORE, loopVariableIndex);
+
+        final Label loopBeginLabel = new Label();
+        method.visitLabel(loopBeginLabel);
+        method.visitFrame(F_FULL, loopFrameLocals.length, loopFrameLocals, 0, null);
+
+        invoke(method, internalClassName, methodName, instance);
+
+        // decrement the counter and repeat until it reaches `0`
+        method.visitIincInsn(loopVariableIndex, -1);
+        method.visitVarInsn(ILOAD, loopVariableIndex);
+        method.visitJumpInsn(IFNE, loopBeginLabel);
+    }
+
+    /**
+     * Emits the increment of the counter field by the given amount.
+     *
+     * @param method method into which the increment should be emitted
+     * @param internalClassName internal name of the class containing the counter field
+     * @param accumulatorMode strategy of the counter field
+     * @param delta amount by which the counter should be incremented
+     */
+    protected static void incrementCounter(@NonNull final MethodVisitor method,
+                                           @NonNull final String internalClassName,
+                                           @NonNull final HQ9PlusAccumulatorMode accumulatorMode,
+                                           final long delta) {
+        switch (accumulatorMode) {
+            case PLAIN: {
+                // -> counter_least, counter_most
+                method.visitFieldInsn(
+                        GETSTATIC, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR
+                );
+                // counter_least, counter_most -> counter_least, counter_most, delta_least, delta_most
+                pushLong(method, delta);
+                method.visitInsn(LADD);
+                method.visitFieldInsn(
+                        PUTSTATIC, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR
+                );
+                break;
+            }
+            case ATOMIC: {
+                // -> counter
+                method.visitFieldInsn(GETSTATIC, internalClassName, COUNTER_FIELD_NAME, ATOMIC_LONG_DESCRIPTOR);
+                // counter -> counter, delta_least, delta_most
+                pushLong(method, delta);
+                method.visitMethodInsn(
+                        INVOKEVIRTUAL, ATOMIC_LONG_INTERNAL_NAME,
+                        ADD_AND_GET_METHOD_NAME, LONG_LONG_METHOD_DESCRIPTOR, false
+                );
+                // the new value is not needed
+                method.visitInsn(POP2);
+                break;
+            }
+            case STRIPED: {
+                // -> counter
+                method.visitFieldInsn(GETSTATIC, internalClassName, COUNTER_FIELD_NAME, LONG_ADDER_DESCRIPTOR);
+                if (delta == 1L) method.visitMethodInsn(
+                        INVOKEVIRTUAL, LONG_ADDER_INTERNAL_NAME, INCREMENT_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
+                );
+                else {
+                    // counter -> counter, delta_least, delta_most
+                    pushLong(method, delta);
+                    method.visitMethodInsn(
+                            INVOKEVIRTUAL, LONG_ADDER_INTERNAL_NAME, ADD_METHOD_NAME, VOID_LONG_METHOD_DESCRIPTOR, false
+                    );
+                }
+                break;
+            }
+            default: throw new IllegalArgumentException("Unknown accumulator mode: " + accumulatorMode);
+        }
+    }
+
+    /**
+     * Emits the increment of the counter of {@link HQ9PlusExecution} by the given amount.
+     *
+     * @param method instance method into which the increment should be emitted
+     * @param internalClassName internal name of the class extending {@link HQ9PlusExecution}
+     * @param delta amount by which the counter should be incremented
+     */
+    protected static void incrementExecutionCounter(@NonNull final MethodVisitor method,
+                                                    @NonNull final String internalClassName,
+                                                    final long delta) {
+        // -> this, this
+        method.visitVarInsn(ALOAD, 0);
+        method.visitInsn(DUP);
+        // this, this -> this, counter_least, counter_most
+        method.visitFieldInsn(GETFIELD, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR);
+        // this, counter_least, counter_most -> this, counter_least, counter_most, delta_least, delta_most
+        pushLong(method, delta);
+        method.visitInsn(LADD);
+        method.visitFieldInsn(PUTFIELD, internalClassName, COUNTER_FIELD_NAME, LONG_DESCRIPTOR);
+    }
+
+    /**
+     * Emits the start of {@link HQ9PlusOperationEvent} storing it in the given local variable.
+     *
+     * @param method method into which the start of the event should be emitted
+     * @param eventVariableIndex index of the local variable in which the event should be stored
+     */
+    protected static void startOperationEvent(@NonNull final MethodVisitor method, final int eventVariableIndex) {
+        method.visitMethodInsn(
+                INVOKESTATIC, OPERATION_EVENT_INTERNAL_NAME, START_METHOD_NAME, OPERATION_EVENT_METHOD_DESCRIPTOR, false
+        );
+        method.visitVarInsn(ASTORE, eventVariableIndex);
+    }
+
+    /**
+     * Emits the completion of {@link HQ9PlusOperationEvent} stored in the given local variable.
+     *
+     * @param method method into which the completion of the event should be emitted
+     * @param eventVariableIndex index of the local variable in which the event is stored
+     * @param operation name of the method implementing the operation
+     * @param invocations amount of times the operation was invoked in the run
+     * @param textLength amount of the characters written by the run excluding line separators
+     * @param lineCount amount of line separators written by the run
+     */
+    protected static void completeOperationEvent(@NonNull final MethodVisitor method, final int eventVariableIndex,
+                                                 @NonNull final String operation, final int invocations,
+                                                 final long textLength, final long lineCount) {
+        // -> event, operation, invocations, text_length_least, text_length_most, line_count_least, line_count_most
+        method.visitVarInsn(ALOAD, eventVariableIndex);
+        method.visitLdcInsn(operation);
+        pushInt(method, invocations);
+        pushLong(method, textLength);
+        pushLong(method, lineCount);
+        method.visitMethodInsn(
+                INVOKEVIRTUAL, OPERATION_EVENT_INTERNAL_NAME, COMPLETE_METHOD_NAME,
+                VOID_STRING_INT_LONG_LONG_METHOD_DESCRIPTOR, false
+        );
+    }
+
+    /**
+     * Emits {@link HQ9PlusOperationEvent} of the run whose body is not emitted into the program body.
+     *
+     * @param emitter emitter of the program body which is {@link ChunkedMethodEmitter#instrumented instrumented}
+     * @param operation name of the method implementing the operation
+     * @param invocations amount of times the operation was invoked in the run
+     */
+    protected static void emitOperationEvent(@NonNull final ChunkedMethodEmitter emitter,
+                                             @NonNull final String operation, final int invocations) {
+        final MethodVisitor method = emitter.reserve(OPERATION_EVENT_CODE_SIZE, OPERATION_EVENT_STACK_SIZE);
+        final int eventVariableIndex = emitter.eventVariableIndex();
+        startOperationEvent(method, eventVariableIndex);
+        completeOperationEvent(method, eventVariableIndex, operation, invocations, 0, 0);
+    }
+
+    /**
+     * Emits the run of the program at the given index into the program body.
+     *
+     * @param emitter emitter of the program body
+     * @param accumulatorMode strategy of the counter field incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     * @param ast AST of the program
+     * @param run index of the emitted run
+     * @param emitPlus {@code true} if {@link HQ9PlusAstNode#PLUS +} nodes should be emitted
+     * and {@code false} if the increments are merged into the program's epilogue
+     */
+    protected static void emitProgramRun(@NonNull final ChunkedMethodEmitter emitter,
+                                         @NonNull final HQ9PlusAccumulatorMode accumulatorMode,
+                                         @NonNull final HQ9PlusPackedAst ast, final int run, final boolean emitPlus) {
+        final HQ9PlusAstNode runNode = ast.runNode(run);
+        if (runNode != HQ9PlusAstNode.PLUS || emitPlus) emitRun(
+                emitter, accumulatorMode, runNode, ast.runLength(run), ast.getSourceCode().length()
+        );
+        else if (emitter.instrumented) emitOperationEvent(emitter, PLUS_METHOD_NAME, ast.runLength(run));
+    }
+
+    /**
+     * Emits the given run of the same AST-nodes into the program body.
+     * <p>
+     * If the emitter is {@link ChunkedMethodEmitter#instrumented instrumented}
+     * then the run gets wrapped into {@link HQ9PlusOperationEvent}.
+     *
+     * @param emitter emitter of the program body
+     * @param accumulatorMode strategy of the counter field incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     * @param node AST-node repeated in the run
+     * @param length amount of repetitions of the node in the run
+     * @param sourceLength length of the source code printed by {@link HQ9PlusAstNode#Q Q} nodes
+     */
+    protected static void emitRun(@NonNull final ChunkedMethodEmitter emitter,
+                                  @NonNull final HQ9PlusAccumulatorMode accumulatorMode,
+                                  @NonNull final HQ9PlusAstNode node, final int length, final int sourceLength) {
+        final String internalClassName = emitter.internalClassName;
+        final boolean instrumented = emitter.instrumented;
+        final int eventCodeSize = instrumented ? OPERATION_EVENT_CODE_SIZE : 0;
+        final int eventStackSize = instrumented ? OPERATION_EVENT_STACK_SIZE : 0;
+        final String methodName;
+        // output of a single invocation
+        final int textLength;
+        final int lineCount;
+        switch (node) {
+            case H: {
+                methodName = H_METHOD_NAME;
+                textLength = HQ9PlusConst.HELLO_WORLD_TEXT.length();
+                lineCount = 1;
+                break;
+            }
+            case Q: {
+                methodName = Q_METHOD_NAME;
+                textLength = sourceLength;
+                lineCount = 1;
+                break;
+            }
+            case NINE: {
+                methodName = NINE_METHOD_NAME;
+                textLength = BOTTLES_OF_BEER_SONG_LENGTH - BOTTLES_OF_BEER_SONG_LINE_COUNT;
+                lineCount = BOTTLES_OF_BEER_SONG_LINE_COUNT;
+                break;
+            }
+            case PLUS: {
+                final MethodVisitor method;
+                if (length < MIN_FOLDED_INCREMENTS) {
+                    method = emitter.reserve(
+                            emitter.invocationCodeSize() * length + eventCodeSize,
+                            Math.max(emitter.instance ? 1 /* this */ : 0, eventStackSize)
+                    );
+                    if (instrumented) startOperationEvent(method, emitter.eventVariableIndex());
+                    for (int i = 0; i < length; i++) invoke(
+                            method, internalClassName, PLUS_METHOD_NAME, emitter.instance
+                    );
+                } else if (emitter.instance) {
+                    method = emitter.reserve(
+                            EXECUTION_INCREMENT_CODE_SIZE + eventCodeSize,
+                            Math.max(5 /* this, counter and delta */, eventStackSize)
+                    );
+                    if (instrumented) startOperationEvent(method, emitter.eventVariableIndex());
+                    incrementExecutionCounter(method, internalClassName, length);
+                } else {
+                    method = emitter.reserve(
+                            INCREMENT_CODE_SIZE + eventCodeSize, Math.max(4 /* counter and delta */, eventStackSize)
+                    );
+                    if (instrumented) startOperationEvent(method, emitter.eventVariableIndex());
+                    incrementCounter(method, internalClassName, accumulatorMode, length);
+                }
+                if (instrumented) completeOperationEvent(
+                        method, emitter.eventVariableIndex(), PLUS_METHOD_NAME, length, 0, 0
+                );
+
+                return;
+            }
+            default: throw new IllegalArgumentException("Unknown AST-node: " + node);
+        }
+
+        final MethodVisitor method = emitter.reserve(
+                (length < MIN_LOOPED_INVOCATIONS
+                        ? emitter.invocationCodeSize() * length : emitter.loopCodeSize()) + eventCodeSize,
+                Math.max(1 /* loop counter or this */, eventStackSize)
+        );
+        // the variable is only known once the method is reserved
+        final int eventVariableIndex = emitter.eventVariableIndex();
+        if (instrumented) startOperationEvent(method, eventVariableIndex);
+        invokeRepeatedly(
+                method, internalClassName, methodName, emitter.instance, length,
+                emitter.loopVariableIndex(), emitter.loopFrameLocals()
+        );
+        if (instrumented) completeOperationEvent(
+                method, eventVariableIndex, methodName, length, (long) textLength * length, (long) lineCount * length
+        );
+    }
+
+    /**
+     * Implements {@code main} method of the class extending {@link HQ9PlusExecution}
+     * which runs its new instance writing to {@link System#out}.
+     *
+     * @param classWriter class-writer used to implement the method
+     * @param internalClassName internal name of the class extending {@link HQ9PlusExecution}
+     */
+    protected static void implementExecutionMainMethod(@NonNull final ClassWriter classWriter,
+                                                       @NonNull final String internalClassName) {
+        final MethodVisitor method = classWriter.visitMethod(
+                ACC_PUBLIC | ACC_STATIC, MAIN_METHOD_NAME,
+                VOID_STRING_ARRAY_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+        method.visitCode();
+
+        // new Program(System.out).run()
+        method.visitTypeInsn(NEW, internalClassName);
+        method.visitInsn(DUP);
+        OutputField.SYSTEM_OUT.push(method);
+        method.visitMethodInsn(
+                INVOKESPECIAL, internalClassName, CONSTRUCTOR_METHOD_NAME, VOID_PRINT_STREAM_METHOD_DESCRIPTOR, false
+        );
+        method.visitMethodInsn(INVOKEVIRTUAL, internalClassName, RUN_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false);
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(3, 1 /* CLI-arguments */);
+        method.visitEnd();
+    }
+
+    /**
+     * Implements the constructor of the class extending {@link HQ9PlusExecution}
+     * which accepts the output of the run.
+     *
+     * @param classWriter class-writer used to implement the constructor
+     */
+    protected static void implementExecutionConstructor(@NonNull final ClassWriter classWriter) {
+        final MethodVisitor method = classWriter.visitMethod(
+                ACC_PUBLIC, CONSTRUCTOR_METHOD_NAME, VOID_PRINT_STREAM_METHOD_DESCRIPTOR,
+                null /* no generics */, null /* no exceptions declared */
+        );
+        method.visitCode();
+
+        // super(output)
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(
+                INVOKESPECIAL, EXECUTION_INTERNAL_NAME,
+                CONSTRUCTOR_METHOD_NAME, VOID_PRINT_STREAM_METHOD_DESCRIPTOR, false
+        );
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(2, 2 /* this and output */);
+        method.visitEnd();
+    }
+
+    /**
+     * Visits the header of the generated class.
+     *
+     * @param classWriter class-writer of the generated class
+     * @param internalClassName internal name of the generated class
+     */
+    protected static void visitClassHeader(@NonNull final ClassWriter classWriter,
+                                           @NonNull final String internalClassName) {
+        visitClassHeader(classWriter, internalClassName, OBJECT_INTERNAL_NAME);
+    }
+
+    /**
+     * Visits the header of the generated class.
+     *
+     * @param classWriter class-writer of the generated class
+     * @param internalClassName internal name of the generated class
+     * @param superInternalName internal name of the super-class of the generated class
+     */
+    protected static void visitClassHeader(@NonNull final ClassWriter classWriter,
+                                           @NonNull final String internalClassName,
+                                           @NonNull final String superInternalName) {
+        visitClassHeader(classWriter, HQ9PlusClassFileVersion.JAVA_8, internalClassName, superInternalName);
+    }
+
+    /**
+     * Visits the header of the generated class.
+     *
+     * @param classWriter class-writer of the generated class
+     * @param classFileVersion version of the generated class file
+     * @param internalClassName internal name of the generated class
+     * @param superInternalName internal name of the super-class of the generated class
+     */
+    protected static void visitClassHeader(@NonNull final ClassWriter classWriter,
+                                           @NonNull final HQ9PlusClassFileVersion classFileVersion,
+                                           @NonNull final String internalClassName,
+                                           @NonNull final String superInternalName) {
+        classWriter.visit(
+                classFileVersion.getVersion(), ACC_PUBLIC | ACC_SUPER, internalClassName, null, superInternalName, null
+        );
+    }
+
+    /**
+     * Replaces the given <i>UTF8</i> constant in the constant pool of the given class.
+     *
+     * @param bytecode bytecode of the class
+     * @param constant constant which should be replaced
+     * @param replacement replacement of the constant
+     * @return bytecode of the class with the constant replaced
+     *
+     * @throws IllegalArgumentException if the class does not contain the constant
+     * or the replacement is too long to be stored in a constant
+     */
+    protected static byte[] replaceUtf8Constant(@NonNull final byte[] bytecode,
+                                                @NonNull final String constant,
+                                                @NonNull final String replacement) {
+        final ClassReader classReader = new ClassReader(bytecode);
+        final int itemCount = classReader.getItemCount();
+        for (int item = 1; item < itemCount; item++) {
+            // offset of the entry's content which is preceded by its tag
+            final int offset = classReader.getItem(item);
+            if (offset == 0 || bytecode[offset - 1] != 1 /* CONSTANT_Utf8 */) continue;
+
+            // the constant is expected to be ASCII so that its length matches the length of its modified UTF-8
+            final int length = classReader.readUnsignedShort(offset);
+            if (length != constant.length() || !constant.equals(
+                    new String(bytecode, offset + 2, length, StandardCharsets.ISO_8859_1)
+            )) continue;
+
+            final byte[] encodedReplacement;
+            try {
+                final ByteArrayOutputStream encoded = new ByteArrayOutputStream(replacement.length() + 2);
+                new DataOutputStream(encoded).writeUTF(replacement); // length-prefixed modified UTF-8
+                encodedReplacement = encoded.toByteArray();
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("Replacement is too long: " + replacement, e);
+            }
+
+            final int end = offset + 2 + length;
+            final byte[] replaced = new byte[offset + encodedReplacement.length + bytecode.length - end];
+            System.arraycopy(bytecode, 0, replaced, 0, offset);
+            System.arraycopy(encodedReplacement, 0, replaced, offset, encodedReplacement.length);
+            System.arraycopy(bytecode, end, replaced, offset + encodedReplacement.length, bytecode.length - end);
+
+            return replaced;
+        }
+
+        throw new IllegalArgumentException("There is no constant " + constant + " in the class");
+    }
+
+    /**
+     * Gets the index of the template containing the given fixed methods.
+     *
+     * @param hasH {@code true} if the template contains {@link HQ9PlusAstNode#H H} method
+     * @param hasNine {@code true} if the template contains {@link HQ9PlusAstNode#NINE 9} method
+     * @return index of the template in {@link #classTemplates}
+     */
+    protected static int classTemplateIndex(final boolean hasH, final boolean hasNine) {
+        return (hasH ? 1 : 0) + (hasNine ? 2 : 0) - 1;
+    }
+
+    /**
+     * Gets the template containing the given fixed methods creating it if it was not created yet.
+     *
+     * @param hasH {@code true} if the template should contain {@link HQ9PlusAstNode#H H} method
+     * @param hasNine {@code true} if the template should contain {@link HQ9PlusAstNode#NINE 9} method
+     * @return template containing the given fixed methods
+     */
+    protected ClassTemplate classTemplate(final boolean hasH, final boolean hasNine) {
+        final int index = classTemplateIndex(hasH, hasNine);
+        ClassTemplate template = classTemplates.get(index);
+        if (template == null) {
+            // concurrently created templates are equivalent so any of them may be used
+            template = createClassTemplate(hasH, hasNine);
+            if (!classTemplates.compareAndSet(index, null, template)) template = classTemplates.get(index);
+        }
+
+        return template;
+    }
+
+    /**
+     * Creates the template containing the given fixed methods.
+     * <p>
+     * The bodies of the fixed methods only depend on the options of this compiler and the name of the class
+     * thus they get generated once per template and then get copied into the generated classes as is.
+     *
+     * @param hasH {@code true} if the template should contain {@link HQ9PlusAstNode#H H} method
+     * @param hasNine {@code true} if the template should contain {@link HQ9PlusAstNode#NINE 9} method
+     * @return created template
+     */
+    protected ClassTemplate createClassTemplate(final boolean hasH, final boolean hasNine) {
+        final ClassWriter clazz = new ClassWriter(0);
+        final HQ9PlusClassFileVersion classFileVersion = options.getClassFileVersion();
+        final String superInternalName = superInternalName();
+        visitClassHeader(clazz, classFileVersion, TEMPLATE_INTERNAL_CLASS_NAME, superInternalName);
+
+        final Map<String, CharSequence> textBytesFields = new LinkedHashMap<>();
+        final boolean bufferedOutput = options.isBufferedOutput();
+        final boolean lazyConstants = classFileVersion.isConstantDynamicSupported();
+        final OutputField output = outputField(TEMPLATE_INTERNAL_CLASS_NAME);
+        if (hasH) implementHMethod(
+                clazz, output, TEMPLATE_INTERNAL_CLASS_NAME, bufferedOutput, textBytesFields, lazyConstants
+        );
+        if (hasNine) implementNineMethod(clazz, output, TEMPLATE_INTERNAL_CLASS_NAME, textBytesFields, lazyConstants);
+        // the generated classes reuse the bootstrap method of the template
+        if (lazyConstants && !textBytesFields.isEmpty()) implementTextBytesBootstrapMethod(clazz);
+        clazz.visitEnd();
+
+        return new ClassTemplate(
+                clazz.toByteArray(), classFileVersion, superInternalName, Collections.unmodifiableMap(textBytesFields)
+        );
+    }
+
+    /**
+     * Gets the internal name of the super-class of the generated classes.
+     *
+     * @return internal name of {@link HQ9PlusExecution} if the generated classes are
+     * {@link HQ9PlusCompilerOptions#isReentrant() reentrant} and of {@link Object} otherwise
+     */
+    protected String superInternalName() {
+        return options.isReentrant() ? EXECUTION_INTERNAL_NAME : OBJECT_INTERNAL_NAME;
+    }
+
+    /**
+     * Gets the output used by the generated class.
+     *
+     * @param internalClassName internal name of the generated class
+     * @return output of the generated class
+     */
+    protected OutputField outputField(@NonNull final String internalClassName) {
+        if (options.isReentrant()) return new OutputField(internalClassName, OUTPUT_FIELD_NAME, true);
+
+        return options.isBufferedOutput()
+                ? new OutputField(internalClassName, OUTPUT_FIELD_NAME, false) : OutputField.SYSTEM_OUT;
+    }
+
+    /**
+     * Generates the class of the given name reading source code using the given reader.
+     *
+     * @param className name of the class generated
+     * @param reader reader providing the source code
+     * @return bytecode of the generated class
+     * @throws IOException if an exception occurs while reading source code
+     */
+    protected byte[] generateClass(@NonNull final String className,
+                                   @NonNull final Reader reader) throws IOException {
+        // the whole source code gets parsed first so that the used fixed methods can be spliced from the template
+        return generateClass(className, HQ9PlusPackedAst.parse(reader, respectCase));
+    }
+
+    /**
+     * Generates the class of the given name from the given AST.
+     *
+     * @param className name of the class generated
+     * @param ast AST of the program
+     * @return bytecode of the generated class
+     */
+    protected byte[] generateClass(@NonNull final String className, @NonNull final HQ9PlusPackedAst ast) {
+        final String internalClassName = className.replace('.', '/');
+        if (isOutputFoldable()) {
+            final String foldedOutput = foldOutput(ast);
+            if (foldedOutput != null) return generateFoldedClass(internalClassName, ast, foldedOutput);
+        }
+
+        return generateClass(internalClassName, ast, null);
+    }
+
+    /**
+     * Checks whether the output of the generated classes gets folded at compile-time if it fits the budget.
+     *
+     * @return {@code true} if the output may be {@link #foldOutput(HQ9PlusPackedAst) folded}
+     * and {@code false} otherwise
+     */
+    protected boolean isOutputFoldable() {
+        // the folded output has no operations to be recorded
+        return options.getOptimizationLevel().compareTo(HQ9PlusOptimizationLevel.FOLD_OUTPUT) >= 0
+                && !options.isFlightRecorderEvents();
+    }
+
+    /**
+     * Generates the class of the given name from the given AST without folding its output.
+     *
+     * @param internalClassName internal name of the class generated
+     * @param ast AST of the program
+     * @param body body of the program reusing the members of the previously generated class
+     * or {@code null} if the whole class should be generated from scratch
+     * @return bytecode of the generated class
+     */
+    protected byte[] generateClass(@NonNull final String internalClassName, @NonNull final HQ9PlusPackedAst ast,
+                                   @Nullable final ProgramBody body) {
+        final boolean instrumented = options.isFlightRecorderEvents();
+        final boolean hasH = ast.contains(HQ9PlusAstNode.H);
+        final boolean hasNine = ast.contains(HQ9PlusAstNode.NINE);
+        final boolean hasQ = ast.contains(HQ9PlusAstNode.Q);
+        final boolean reentrant = options.isReentrant();
+        final String superInternalName = superInternalName();
+        final boolean eliminateDeadCode = options.getOptimizationLevel()
+                .compareTo(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE) >= 0;
+        // the output may only be unused by the programs printing nothing
+        final boolean usesOutput = !eliminateDeadCode || hasH || hasQ || hasNine;
+
+        final HQ9PlusClassFileVersion classFileVersion = options.getClassFileVersion();
+        final boolean lazyConstants = classFileVersion.isConstantDynamicSupported();
+
+        final Map<String, CharSequence> textBytesFields = new LinkedHashMap<>();
+        final ClassWriter clazz;
+        // the bootstrap method of the dynamic constants is only needed if the template does not have it
+        final boolean hasTextBytesBootstrapMethod;
+        final ClassReader previousClass = body == null ? null : body.previousClass();
+        if (previousClass != null) {
+            // the members which do not depend on the source code are copied as is
+            clazz = newDerivedClassWriter(previousClass, body);
+            if (hasH || hasNine) textBytesFields.putAll(classTemplate(hasH, hasNine).getTextBytesFields());
+            hasTextBytesBootstrapMethod = false;
+        } else if (hasH || hasNine) {
+            final ClassTemplate template = classTemplate(hasH, hasNine);
+            clazz = template.newClassWriter(internalClassName);
+            textBytesFields.putAll(template.getTextBytesFields());
+            hasTextBytesBootstrapMethod = lazyConstants && !textBytesFields.isEmpty();
+        } else {
+            clazz = new ClassWriter(0);
+            visitClassHeader(clazz, classFileVersion, internalClassName, superInternalName);
+            hasTextBytesBootstrapMethod = false;
+        }
+        final HQ9PlusAccumulatorMode accumulatorMode = options.getAccumulatorMode();
+        final boolean hasPlus = ast.contains(HQ9PlusAstNode.PLUS);
+        // with dead code eliminated, the private accumulator is not emitted and the run's one is incremented once
+        final boolean emitPlus = hasPlus && !eliminateDeadCode;
+        if (emitPlus && previousClass == null) {
+            if (reentrant) implementExecutionPlusMethod(clazz, internalClassName);
+            else implementPlusMethod(clazz, internalClassName, accumulatorMode);
+        }
+
+        final boolean bufferedOutput = options.isBufferedOutput() && usesOutput;
+        final OutputField output = outputField(internalClassName);
+
+        // reused method local variable
+        MethodVisitor method;
+        {
+            // `void main(String[])` method or `void run()` method of the reentrant class
+            method = reentrant ? clazz.visitMethod(
+                    ACC_PUBLIC, RUN_METHOD_NAME,
+                    VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+            ) : clazz.visitMethod(
+                    ACC_PUBLIC | ACC_STATIC, MAIN_METHOD_NAME,
+                    VOID_STRING_ARRAY_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+            );
+            method.visitCode();
+            // the body gets split into chunk methods once it gets too big to be JIT-compiled
+            final ChunkedMethodEmitter emitter = body == null ? new ChunkedMethodEmitter(
+                    clazz, internalClassName, method, reentrant, instrumented
+            ) : new ChunkedMethodEmitter(
+                    clazz, internalClassName, method, reentrant, instrumented, false, body.firstChunkIndex()
+            );
+
+            // runs of the same node get folded so that their bytecode and run-time cost do not grow linearly
+            if (body == null) {
+                final int runCount = ast.getRunCount();
+                for (int run = 0; run < runCount; run++) emitProgramRun(emitter, accumulatorMode, ast, run, emitPlus);
+            } else body.emit(emitter, accumulatorMode, emitPlus);
+
+            // now implement the `Q` method (which required the full source code)
+            if (hasQ || !eliminateDeadCode) implementQMethod(
+                    clazz, output, internalClassName, bufferedOutput, textBytesFields, lazyConstants,
+                    ast.getSourceCode()
+            );
+
+            method = emitter.endChunks();
+            int epilogueMaxStack = 0;
+            if (hasPlus && !emitPlus && reentrant) {
+                // all the increments of the run's accumulator are merged into one
+                incrementExecutionCounter(method, internalClassName, ast.count(HQ9PlusAstNode.PLUS));
+                epilogueMaxStack = 5 /* this, counter and delta */;
+            }
+            if (bufferedOutput) {
+                // flush all the buffered output once the program completes
+                output.push(method);
+                method.visitMethodInsn(
+                        INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME, FLUSH_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
+                );
+                epilogueMaxStack = Math.max(epilogueMaxStack, 1 /* output */);
+            }
+            emitter.end(epilogueMaxStack);
+        }
+        if (lazyConstants && !hasTextBytesBootstrapMethod && !textBytesFields.isEmpty()) {
+            implementTextBytesBootstrapMethod(clazz);
+        }
+        implementStaticInitializer(
+                clazz, internalClassName, bufferedOutput && !reentrant ? options.getOutputBufferSize() : 0,
+                lazyConstants ? Collections.<String, CharSequence>emptyMap() : textBytesFields,
+                emitPlus && !reentrant ? accumulatorMode : null
+        );
+
+        if (reentrant) {
+            implementExecutionMainMethod(clazz, internalClassName);
+            implementExecutionConstructor(clazz);
+
+            return clazz.toByteArray();
+        }
+        // nothing ever instantiates the non-reentrant class
+        if (eliminateDeadCode) return clazz.toByteArray();
+
+        // add super-constructor
+        method = clazz.visitMethod(
+                ACC_PUBLIC, CONSTRUCTOR_METHOD_NAME, VOID_METHOD_DESCRIPTOR,
                 null /* no generics in signature as there are no parameters */, null /* no exceptions declared */
         );
         method.visitCode();
@@ -618,6 +2279,758 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
         return clazz.toByteArray();
     }
 
+    /**
+     * Creates the class-writer of the class derived from the previously generated one.
+     * <p>
+     * All the members depending on the source code get dropped
+     * except for the chunk methods {@link ProgramBody#isChunkReused(String) reused} by the body,
+     * the rest gets copied as is.
+     *
+     * @param previousClass reader of the previously generated class
+     * @param body body of the program reusing the members of the previously generated class
+     * @return class-writer whose class header and copied members are already visited
+     */
+    protected static ClassWriter newDerivedClassWriter(@NonNull final ClassReader previousClass,
+                                                       @NonNull final ProgramBody body) {
+        final ClassWriter clazz = new ClassWriter(previousClass, 0);
+        previousClass.accept(new ClassVisitor(ASM9, clazz) {
+            @Override
+            public FieldVisitor visitField(final int access, final String name, final String descriptor,
+                                           final String signature, final Object value) {
+                switch (name) {
+                    // the fields initialized by the static initializer get declared once it is regenerated
+                    case OUTPUT_FIELD_NAME: case H_BYTES_FIELD_NAME:
+                    case Q_BYTES_FIELD_NAME: case NINE_BYTES_FIELD_NAME: return null;
+                    default: return super.visitField(access, name, descriptor, signature, value);
+                }
+            }
+
+            @Override
+            public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                             final String signature, final String[] exceptions) {
+                switch (name) {
+                    case MAIN_METHOD_NAME: case RUN_METHOD_NAME: case Q_METHOD_NAME: case CONSTRUCTOR_METHOD_NAME:
+                    case STATIC_INITIALIZER_METHOD_NAME: case TEXT_BYTES_BOOTSTRAP_METHOD_NAME: return null;
+                    default: return name.startsWith(ChunkedMethodEmitter.CHUNK_METHOD_NAME_PREFIX)
+                            && !body.isChunkReused(name)
+                            ? null : super.visitMethod(access, name, descriptor, signature, exceptions);
+                }
+            }
+
+            @Override
+            public void visitEnd() {} // the class gets completed by its generator
+        }, 0);
+
+        return clazz;
+    }
+
+    /**
+     * Generates the class of the given name from the given AST notifying {@link #listener} about it.
+     *
+     * @param className name of the class generated
+     * @param ast AST of the program
+     * @param parseStartNanos value of {@link System#nanoTime()} before the program was parsed
+     * @return bytecode of the generated class
+     */
+    protected byte[] generateMeasuredClass(@NonNull final String className,
+                                           @NonNull final HQ9PlusPackedAst ast,
+                                           final long parseStartNanos) {
+        final HQ9PlusCompilationListener listener = this.listener;
+        if (listener == null) return generateClass(className, ast);
+
+        final long generationStartNanos = System.nanoTime();
+        final byte[] bytecode = generateClass(className, ast);
+        final long generationNanos = System.nanoTime() - generationStartNanos;
+        listener.onCompiled(HQ9PlusCompilationMetrics.of(
+                className, ast, generationStartNanos - parseStartNanos, generationNanos, bytecode
+        ));
+
+        return bytecode;
+    }
+
+    /**
+     * Computes the length of the output of the given program from the counts of its nodes without running it.
+     *
+     * @param ast AST of the program
+     * @param lineSeparatorLength length of the line separator written by the program
+     * @return length of the output of the program
+     */
+    static long outputLength(@NonNull final HQ9PlusPackedAst ast, final int lineSeparatorLength) {
+        return ast.count(HQ9PlusAstNode.H) * (HQ9PlusConst.HELLO_WORLD_TEXT.length() + (long) lineSeparatorLength)
+                + ast.count(HQ9PlusAstNode.Q) * (ast.getSourceCode().length() + (long) lineSeparatorLength)
+                + ast.count(HQ9PlusAstNode.NINE) * (BOTTLES_OF_BEER_SONG_LENGTH - BOTTLES_OF_BEER_SONG_LINE_COUNT
+                + (long) BOTTLES_OF_BEER_SONG_LINE_COUNT * lineSeparatorLength);
+    }
+
+    /**
+     * Evaluates the output of the given program at compile-time
+     * unless it is longer than {@link HQ9PlusCompilerOptions#getFoldedOutputBudget() the budget}.
+     *
+     * @param ast AST of the program
+     * @return output of the program whose lines are separated by {@code '\n'}
+     * or {@code null} if it exceeds the budget
+     */
+    @SneakyThrows(IOException.class) // appending to a string builder never throws IO-exceptions
+    protected @Nullable String foldOutput(@NonNull final HQ9PlusPackedAst ast) {
+        // the length is known from the node counts so the programs exceeding the budget are never evaluated
+        final long length = outputLength(ast, 1);
+        if (length > options.getFoldedOutputBudget()) return null;
+
+        final StringBuilder output = new StringBuilder((int) length);
+        OUTPUT_FOLDING_INTERPRETER.interpret(ast, output);
+
+        return output.toString();
+    }
+
+    /**
+     * Generates the class of the given name writing the given output of the program at once.
+     *
+     * @param internalClassName internal name of the generated class
+     * @param ast AST of the program
+     * @param output output of the program whose lines are separated by {@code '\n'}
+     * @return bytecode of the generated class
+     */
+    protected byte[] generateFoldedClass(@NonNull final String internalClassName,
+                                         @NonNull final HQ9PlusPackedAst ast,
+                                         @NonNull final String output) {
+        final boolean reentrant = options.isReentrant();
+        final HQ9PlusClassFileVersion classFileVersion = options.getClassFileVersion();
+        final boolean lazyConstants = classFileVersion.isConstantDynamicSupported();
+        final ClassWriter clazz = new ClassWriter(0);
+        visitClassHeader(clazz, classFileVersion, internalClassName, superInternalName());
+
+        final MethodVisitor method = reentrant ? clazz.visitMethod(
+                ACC_PUBLIC, RUN_METHOD_NAME,
+                VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        ) : clazz.visitMethod(
+                ACC_PUBLIC | ACC_STATIC, MAIN_METHOD_NAME,
+                VOID_STRING_ARRAY_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+        );
+        method.visitCode();
+        // the counter of a non-reentrant class is never observable
+        final long increment = reentrant ? ast.count(HQ9PlusAstNode.PLUS) : 0;
+        if (increment != 0) incrementExecutionCounter(method, internalClassName, increment);
+
+        final boolean hasOutput = !output.isEmpty();
+        final Map<String, CharSequence> textBytesFields = hasOutput
+                ? Collections.<String, CharSequence>singletonMap(OUTPUT_BYTES_FIELD_NAME, output)
+                : Collections.<String, CharSequence>emptyMap();
+        if (hasOutput) {
+            // the output gets written at once so there is nothing to buffer
+            final OutputField outputField = reentrant
+                    ? new OutputField(internalClassName, OUTPUT_FIELD_NAME, true) : OutputField.SYSTEM_OUT;
+            outputField.push(method);
+            if (options.isBufferedOutput()) method.visitInsn(DUP); // keep the output to flush it
+            // `out` -> `out`, bytes, 0, bytes.length
+            pushTextBytes(method, internalClassName, OUTPUT_BYTES_FIELD_NAME, textBytesFields, lazyConstants);
+            method.visitInsn(ICONST_0);
+            pushTextBytes(method, internalClassName, OUTPUT_BYTES_FIELD_NAME, textBytesFields, lazyConstants);
+            method.visitInsn(ARRAYLENGTH);
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME,
+                    WRITE_METHOD_NAME, VOID_BYTE_ARRAY_INT_INT_METHOD_DESCRIPTOR, false
+            );
+            if (options.isBufferedOutput()) method.visitMethodInsn(
+                    INVOKEVIRTUAL, PRINT_STREAM_INTERNAL_NAME, FLUSH_METHOD_NAME, VOID_METHOD_DESCRIPTOR, false
+            );
+        }
+        method.visitInsn(RETURN);
+
+        method.visitMaxs(5 /* this, counter and delta or output, bytes, offset and length */, 1);
+        method.visitEnd();
+
+        if (lazyConstants) {
+            if (hasOutput) implementTextBytesBootstrapMethod(clazz);
+        } else implementStaticInitializer(
+                clazz, internalClassName, 0 /* no buffered output */, textBytesFields, null /* no counter */
+        );
+        if (reentrant) {
+            implementExecutionMainMethod(clazz, internalClassName);
+            implementExecutionConstructor(clazz);
+        }
+        clazz.visitEnd();
+
+        return clazz.toByteArray();
+    }
+
+    /**
+     * {@link PrintStream} field used as the output of the generated program.
+     * <p>
+     * The methods using an instance field are instance methods of the generated class
+     * while the methods using a static field are static.
+     */
+    @Value
+    protected static class OutputField {
+
+        /**
+         * Standard output of the program
+         */
+        public static final OutputField SYSTEM_OUT = new OutputField(SYSTEM_INTERNAL_NAME, OUT_FIELD_NAME, false);
+
+        /**
+         * Internal name of the class containing the field
+         */
+        @NonNull String ownerInternalName;
+        /**
+         * Name of the field
+         */
+        @NonNull String name;
+        /**
+         * {@code true} if the field is an instance field of its owner and {@code false} if it is static
+         */
+        boolean instance;
+
+        /**
+         * Pushes the value of this field onto the stack.
+         *
+         * @param method method in whose frame the output should be pushed onto the stack
+         */
+        public void push(@NonNull final MethodVisitor method) {
+            if (instance) {
+                method.visitVarInsn(ALOAD, 0);
+                method.visitFieldInsn(GETFIELD, ownerInternalName, name, PRINT_STREAM_DESCRIPTOR);
+            } else method.visitFieldInsn(GETSTATIC, ownerInternalName, name, PRINT_STREAM_DESCRIPTOR);
+        }
+
+        /**
+         * Gets the access flags of a method using this output.
+         *
+         * @param staticAccess access flags of the method if it was static
+         * @return access flags of the method
+         */
+        public int methodAccess(final int staticAccess) {
+            return instance ? staticAccess & ~ACC_STATIC : staticAccess;
+        }
+
+        /**
+         * Gets the index of the first local variable available to a method using this output.
+         *
+         * @return index of the first local variable which is not {@code this}
+         */
+        public int firstLocalIndex() {
+            return instance ? 1 : 0;
+        }
+
+        /**
+         * Gets the frame locals of a method using this output.
+         *
+         * @param locals frame locals excluding {@code this}
+         * @return frame locals of the method
+         */
+        public Object[] frameLocals(@NonNull final Object... locals) {
+            if (!instance) return locals;
+
+            final Object[] frameLocals = new Object[locals.length + 1];
+            frameLocals[0] = ownerInternalName;
+            System.arraycopy(locals, 0, frameLocals, 1, locals.length);
+
+            return frameLocals;
+        }
+    }
+
+    /**
+     * Template of the generated classes containing the fixed methods.
+     */
+    @Value
+    protected static class ClassTemplate {
+
+        /**
+         * Bytecode of the template class named {@link #TEMPLATE_INTERNAL_CLASS_NAME}
+         */
+        @NonNull byte[] bytecode;
+
+        /**
+         * Version of the generated class files
+         */
+        @NonNull HQ9PlusClassFileVersion classFileVersion;
+
+        /**
+         * Internal name of the super-class of the generated classes
+         */
+        @NonNull String superInternalName;
+
+        /**
+         * Texts by names of fields which should be initialized with their encoded bytes for the fixed methods
+         */
+        @NonNull Map<String, CharSequence> textBytesFields;
+
+        /**
+         * Creates a class-writer of the class of the given name containing the fixed methods of this template.
+         * <p>
+         * The constant pool of the template gets reused by the class-writer so that the fixed methods
+         * get copied into the class as is without being visited instruction by instruction.
+         *
+         * @param internalClassName internal name of the generated class
+         * @return class-writer of the class whose header is already visited
+         */
+        public ClassWriter newClassWriter(@NonNull final String internalClassName) {
+            final ClassReader classReader = new ClassReader(
+                    replaceUtf8Constant(bytecode, TEMPLATE_INTERNAL_CLASS_NAME, internalClassName)
+            );
+            final ClassWriter clazz = new ClassWriter(classReader, 0);
+            visitClassHeader(clazz, classFileVersion, internalClassName, superInternalName);
+            classReader.accept(new ClassVisitor(ASM9, clazz) {
+                @Override
+                public void visit(final int version, final int access, final String name, final String signature,
+                                  final String superName, final String[] interfaces) {} // header is already visited
+
+                @Override
+                public void visitEnd() {} // the class gets completed by its generator
+            }, 0);
+
+            return clazz;
+        }
+    }
+
+    /**
+     * Parser of a program.
+     *
+     * @param <X> type of the exception thrown by the parser
+     */
+    @FunctionalInterface
+    private interface AstParser<X extends Throwable> {
+
+        /**
+         * Parses the program.
+         *
+         * @return AST of the program
+         *
+         * @throws X if an exception occurs while parsing the program
+         */
+        HQ9PlusPackedAst parse() throws X;
+    }
+
+    /**
+     * Body of the program emitted into chunk methods some of which are reused from the previously generated class.
+     *
+     * @see HQ9PlusIncrementalCompiler incremental compiler using it
+     */
+    protected interface ProgramBody {
+
+        /**
+         * Gets the previously generated class whose members get reused.
+         *
+         * @return reader of the previously generated class or {@code null} if the class is generated from scratch
+         */
+        @Nullable ClassReader previousClass();
+
+        /**
+         * Checks whether the given chunk method of the previously generated class is reused.
+         *
+         * @param chunkMethodName name of the chunk method
+         * @return {@code true} if the chunk method is reused and {@code false} if it should be dropped
+         */
+        boolean isChunkReused(@NotNull String chunkMethodName);
+
+        /**
+         * Gets the index of the first chunk method created by the body.
+         *
+         * @return index of the first created chunk method which is greater than the indices of the reused ones
+         */
+        int firstChunkIndex();
+
+        /**
+         * Emits the body of the program.
+         *
+         * @param emitter emitter of the program body emitting all of it into chunk methods
+         * @param accumulatorMode strategy of the counter field incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+         * @param emitPlus {@code true} if {@link HQ9PlusAstNode#PLUS +} nodes should be emitted
+         * and {@code false} if the increments are merged into the program's epilogue
+         */
+        void emit(@NotNull ChunkedMethodEmitter emitter, @NotNull HQ9PlusAccumulatorMode accumulatorMode,
+                  boolean emitPlus);
+    }
+
+    /**
+     * Emitter of the program body which keeps the emitted methods small enough to be JIT-compiled.
+     * <p>
+     * The body gets emitted directly into the {@code main} method until it reaches half of
+     * {@link #MAX_JIT_COMPILED_METHOD_CODE_SIZE}, after which all the following code gets emitted
+     * into private chunk methods. Once the whole body is emitted, the chunk methods get grouped into a tree
+     * whose root level gets invoked from {@code main} so that neither of the methods exceeds the limit.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    protected static final class ChunkedMethodEmitter {
+
+        /**
+         * Maximal size of code which may be emitted directly into {@code main} method
+         */
+        private static final int MAX_MAIN_INLINE_CODE_SIZE = MAX_JIT_COMPILED_METHOD_CODE_SIZE / 2;
+
+        /**
+         * Maximal size of code which may be emitted into a chunk method (excluding the return instruction)
+         */
+        private static final int MAX_CHUNK_CODE_SIZE = MAX_JIT_COMPILED_METHOD_CODE_SIZE - 1;
+
+        /**
+         * Maximal size of code of chunk method invocations in {@code main} method
+         */
+        private static final int MAX_MAIN_INVOCATIONS_CODE_SIZE
+                = MAX_JIT_COMPILED_METHOD_CODE_SIZE - MAX_MAIN_INLINE_CODE_SIZE - 1;
+
+        /**
+         * Prefix of names of the chunk methods
+         */
+        protected static final String CHUNK_METHOD_NAME_PREFIX = "chunk$";
+
+        /**
+         * Frame locals of a chunk method at the beginning of a folded loop
+         */
+        private static final Object[] CHUNK_LOOP_FRAME_LOCALS = {INTEGER},
+        /**
+         * Frame locals of an instrumented chunk method at the beginning of a folded loop
+         */
+        INSTRUMENTED_CHUNK_LOOP_FRAME_LOCALS = {INTEGER, OPERATION_EVENT_INTERNAL_NAME},
+        /**
+         * Frame locals of instrumented {@code main} method at the beginning of a folded loop
+         */
+        INSTRUMENTED_MAIN_LOOP_FRAME_LOCALS = {
+                STRING_ARRAY_TYPE.getInternalName(), INTEGER, OPERATION_EVENT_INTERNAL_NAME
+        };
+
+        /**
+         * Class-writer of the generated class
+         */
+        final @NonNull ClassWriter clazz;
+        /**
+         * Internal name of the generated class
+         */
+        final @NonNull String internalClassName;
+        /**
+         * Visitor of {@code main} method
+         */
+        final @NonNull MethodVisitor mainMethod;
+        /**
+         * {@code true} if the program body is emitted into {@link HQ9PlusExecution#run()} method
+         * so that the invoked methods are instance methods and {@code false} if it is emitted into static methods
+         */
+        final boolean instance;
+        /**
+         * {@code true} if each run is wrapped into {@link HQ9PlusOperationEvent}
+         * stored in the local variable following the loop counter and {@code false} otherwise
+         */
+        final boolean instrumented;
+        /**
+         * Maximal size of code which may be emitted directly into {@code main} method
+         */
+        final int mainInlineCodeSize;
+        /**
+         * Frame locals of an instance method at the beginning of a folded loop
+         */
+        final Object[] instanceLoopFrameLocals;
+        /**
+         * Names of the chunk methods which should get invoked from {@code main} method in order
+         */
+        final List<String> chunkMethodNames = new ArrayList<>();
+        /**
+         * Index of the next created chunk method used in its name
+         */
+        int nextChunkIndex;
+
+        /**
+         * Visitor of the method into which the code is currently emitted
+         */
+        MethodVisitor method;
+        /**
+         * Size of the code emitted into the current method
+         */
+        int codeSize;
+        /**
+         * Maximal stack size of the current method
+         */
+        int maxStack;
+        /**
+         * Maximal stack size of {@code main} method
+         */
+        int mainMaxStack;
+
+        /**
+         * Creates a new emitter of the program body into static methods.
+         *
+         * @param clazz class-writer of the generated class
+         * @param internalClassName internal name of the generated class
+         * @param mainMethod visitor of {@code main} method whose code has already been started
+         */
+        public ChunkedMethodEmitter(@NonNull final ClassWriter clazz, @NonNull final String internalClassName,
+                                    @NonNull final MethodVisitor mainMethod) {
+            this(clazz, internalClassName, mainMethod, false);
+        }
+
+        /**
+         * Creates a new emitter of the program body.
+         *
+         * @param clazz class-writer of the generated class
+         * @param internalClassName internal name of the generated class
+         * @param mainMethod visitor of {@code main} method (or {@link HQ9PlusExecution#run()} method
+         * if the body is emitted into instance methods) whose code has already been started
+         * @param instance {@code true} if the body should be emitted into instance methods
+         * and {@code false} if it should be emitted into static methods
+         */
+        public ChunkedMethodEmitter(@NonNull final ClassWriter clazz, @NonNull final String internalClassName,
+                                    @NonNull final MethodVisitor mainMethod, final boolean instance) {
+            this(clazz, internalClassName, mainMethod, instance, false);
+        }
+
+        /**
+         * Creates a new emitter of the program body.
+         *
+         * @param clazz class-writer of the generated class
+         * @param internalClassName internal name of the generated class
+         * @param mainMethod visitor of {@code main} method (or {@link HQ9PlusExecution#run()} method
+         * if the body is emitted into instance methods) whose code has already been started
+         * @param instance {@code true} if the body should be emitted into instance methods
+         * and {@code false} if it should be emitted into static methods
+         * @param instrumented {@code true} if each run should be wrapped into {@link HQ9PlusOperationEvent}
+         * and {@code false} otherwise
+         */
+        public ChunkedMethodEmitter(@NonNull final ClassWriter clazz, @NonNull final String internalClassName,
+                                    @NonNull final MethodVisitor mainMethod, final boolean instance,
+                                    final boolean instrumented) {
+            this(clazz, internalClassName, mainMethod, instance, instrumented, true, 0);
+        }
+
+        /**
+         * Creates a new emitter of the program body.
+         *
+         * @param clazz class-writer of the generated class
+         * @param internalClassName internal name of the generated class
+         * @param mainMethod visitor of {@code main} method (or {@link HQ9PlusExecution#run()} method
+         * if the body is emitted into instance methods) whose code has already been started
+         * @param instance {@code true} if the body should be emitted into instance methods
+         * and {@code false} if it should be emitted into static methods
+         * @param instrumented {@code true} if each run should be wrapped into {@link HQ9PlusOperationEvent}
+         * and {@code false} otherwise
+         * @param inlineMain {@code true} if the beginning of the body should be emitted directly into {@code main}
+         * and {@code false} if all of it should be emitted into chunk methods
+         * @param firstChunkIndex index of the first created chunk method used in its name
+         */
+        public ChunkedMethodEmitter(@NonNull final ClassWriter clazz, @NonNull final String internalClassName,
+                                    @NonNull final MethodVisitor mainMethod, final boolean instance,
+                                    final boolean instrumented, final boolean inlineMain, final int firstChunkIndex) {
+            this.clazz = clazz;
+            this.internalClassName = internalClassName;
+            this.mainMethod = method = mainMethod;
+            this.instance = instance;
+            this.instrumented = instrumented;
+            mainInlineCodeSize = inlineMain ? MAX_MAIN_INLINE_CODE_SIZE : 0;
+            nextChunkIndex = firstChunkIndex;
+            instanceLoopFrameLocals = instance ? instrumented
+                    ? new Object[]{internalClassName, INTEGER, OPERATION_EVENT_INTERNAL_NAME}
+                    : new Object[]{internalClassName, INTEGER}
+                    : null;
+        }
+
+        /**
+         * Gets the maximal size of bytecode of a single invocation of a method of the program.
+         *
+         * @return maximal size of an invocation
+         */
+        public int invocationCodeSize() {
+            return instance ? INSTANCE_INVOCATION_CODE_SIZE : INVOCATION_CODE_SIZE;
+        }
+
+        /**
+         * Gets the maximal size of bytecode of a counted loop of invocations of a method of the program.
+         *
+         * @return maximal size of a loop
+         */
+        public int loopCodeSize() {
+            return instance ? INSTANCE_LOOP_CODE_SIZE : LOOP_CODE_SIZE;
+        }
+
+        /**
+         * Checks whether the code is currently being emitted into {@code main} method.
+         *
+         * @return {@code true} if the code is emitted into {@code main} method and {@code false} otherwise
+         */
+        private boolean inMain() {
+            return method == mainMethod;
+        }
+
+        /**
+         * Gets the method into which the code of the given size can be emitted.
+         *
+         * @param size maximal size of the code which will be emitted
+         * @param stackSize maximal stack size required by the code which will be emitted
+         * @return method visitor into which the code should be emitted
+         */
+        public MethodVisitor reserve(final int size, final int stackSize) {
+            if (codeSize + size > (inMain() ? mainInlineCodeSize : MAX_CHUNK_CODE_SIZE)) {
+                endChunk();
+
+                final String chunkMethodName = CHUNK_METHOD_NAME_PREFIX + nextChunkIndex++;
+                chunkMethodNames.add(chunkMethodName);
+                method = beginChunk(chunkMethodName);
+                codeSize = 0;
+                maxStack = 0;
+            }
+
+            codeSize += size;
+            if (stackSize > maxStack) maxStack = stackSize;
+
+            return method;
+        }
+
+        /**
+         * Appends the invocation of the already implemented chunk method to the body.
+         * The following code gets emitted into a new chunk method.
+         *
+         * @param chunkMethodName name of the reused chunk method
+         */
+        public void reuseChunk(@NonNull final String chunkMethodName) {
+            endChunk();
+            chunkMethodNames.add(chunkMethodName);
+            method = mainMethod;
+            codeSize = 0;
+            maxStack = 0;
+        }
+
+        /**
+         * Gets the name of the chunk method into which the code is currently emitted.
+         *
+         * @return name of the current chunk method or {@code null} if the code is emitted into {@code main} method
+         */
+        public @Nullable String currentChunkMethodName() {
+            return inMain() ? null : chunkMethodNames.get(chunkMethodNames.size() - 1);
+        }
+
+        /**
+         * Gets the index of the {@code int} local variable which may be used as a loop counter.
+         *
+         * @return index of the local variable available in the current method
+         */
+        public int loopVariableIndex() {
+            return instance || inMain() ? 1 : 0;
+        }
+
+        /**
+         * Gets the frame locals of the current method with the loop counter as the last one.
+         *
+         * @return frame locals of the current method
+         * @see #loopVariableIndex()
+         */
+        public Object[] loopFrameLocals() {
+            if (instance) return instanceLoopFrameLocals;
+            if (instrumented) return inMain()
+                    ? INSTRUMENTED_MAIN_LOOP_FRAME_LOCALS : INSTRUMENTED_CHUNK_LOOP_FRAME_LOCALS;
+
+            return inMain() ? MAIN_LOOP_FRAME_LOCALS : CHUNK_LOOP_FRAME_LOCALS;
+        }
+
+        /**
+         * Gets the index of the local variable in which {@link HQ9PlusOperationEvent} of the run may be stored.
+         *
+         * @return index of the local variable available in the current method
+         */
+        public int eventVariableIndex() {
+            return loopVariableIndex() + 1;
+        }
+
+        /**
+         * Starts the chunk method.
+         *
+         * @param chunkMethodName name of the chunk method
+         * @return visitor of the started chunk method
+         */
+        private MethodVisitor beginChunk(@NonNull final String chunkMethodName) {
+            final MethodVisitor chunkMethod = clazz.visitMethod(
+                    instance ? ACC_PRIVATE | ACC_SYNTHETIC : ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, chunkMethodName,
+                    VOID_METHOD_DESCRIPTOR, null /* no generics */, null /* no exceptions */
+            );
+            chunkMethod.visitCode();
+
+            return chunkMethod;
+        }
+
+        /**
+         * Emits the invocation of the given chunk method.
+         *
+         * @param method method into which the invocation should be emitted
+         * @param chunkMethodName name of the invoked chunk method
+         */
+        private void invokeChunk(@NonNull final MethodVisitor method, @NonNull final String chunkMethodName) {
+            if (instance) {
+                method.visitVarInsn(ALOAD, 0);
+                method.visitMethodInsn(
+                        INVOKESPECIAL, internalClassName, chunkMethodName, VOID_METHOD_DESCRIPTOR, false
+                );
+            } else method.visitMethodInsn(
+                    INVOKESTATIC, internalClassName, chunkMethodName, VOID_METHOD_DESCRIPTOR, false
+            );
+        }
+
+        /**
+         * Ends the method into which the code is currently emitted unless it is {@code main} method.
+         */
+        private void endChunk() {
+            if (inMain()) mainMaxStack = maxStack;
+            else {
+                method.visitInsn(RETURN);
+                method.visitMaxs(
+                        maxStack,
+                        (instance ? 2 /* this and loop counter */ : 1 /* loop counter */) + (instrumented ? 1 : 0)
+                );
+                method.visitEnd();
+            }
+        }
+
+        /**
+         * Ends the emission of the program body into chunk methods invoking them from {@code main} method.
+         *
+         * @return visitor of {@code main} method into which the program's epilogue may be emitted
+         * @see #end(int) method which should be called to complete {@code main} method
+         */
+        public MethodVisitor endChunks() {
+            endChunk();
+
+            // group the chunks into a tree so that `main` does not grow too big
+            final int maxMainInvocations = MAX_MAIN_INVOCATIONS_CODE_SIZE / invocationCodeSize();
+            final int maxChunkInvocations = MAX_CHUNK_CODE_SIZE / invocationCodeSize();
+            final int groupMaxSize = instance ? 1 /* this */ : 0;
+            List<String> invokedMethodNames = chunkMethodNames;
+            while (invokedMethodNames.size() > maxMainInvocations) {
+                final int invokedMethodCount = invokedMethodNames.size();
+                final List<String> groupMethodNames = new ArrayList<>(
+                        (invokedMethodCount + maxChunkInvocations - 1) / maxChunkInvocations
+                );
+                for (int groupStart = 0; groupStart < invokedMethodCount; groupStart += maxChunkInvocations) {
+                    final String groupMethodName = CHUNK_METHOD_NAME_PREFIX + nextChunkIndex++;
+                    groupMethodNames.add(groupMethodName);
+
+                    final MethodVisitor groupMethod = beginChunk(groupMethodName);
+                    final int groupEnd = Math.min(groupStart + maxChunkInvocations, invokedMethodCount);
+                    for (int i = groupStart; i < groupEnd; i++) invokeChunk(groupMethod, invokedMethodNames.get(i));
+                    groupMethod.visitInsn(RETURN);
+                    groupMethod.visitMaxs(groupMaxSize, groupMaxSize);
+                    groupMethod.visitEnd();
+                }
+                invokedMethodNames = groupMethodNames;
+            }
+
+            for (final String invokedMethodName : invokedMethodNames) invokeChunk(mainMethod, invokedMethodName);
+            // nothing may have been emitted directly into `main` method
+            if (instance && !invokedMethodNames.isEmpty() && mainMaxStack < 1) mainMaxStack = 1 /* this */;
+
+            return mainMethod;
+        }
+
+        /**
+         * Completes {@code main} method.
+         * This should be called after {@link #endChunks()} once the program's epilogue is emitted.
+         *
+         * @param epilogueMaxStack maximal stack size required by the program's epilogue
+         */
+        public void end(final int epilogueMaxStack) {
+            mainMethod.visitInsn(RETURN);
+
+            mainMethod.visitMaxs(
+                    Math.max(mainMaxStack, epilogueMaxStack),
+                    2 /* CLI-arguments (or this) and loop counter */ + (instrumented ? 1 /* event */ : 0)
+            );
+            mainMethod.visitEnd();
+        }
+    }
+
     /**
      * Writes the bytes to the given output.
      *
@@ -635,9 +3048,101 @@ public abstract class AbstractAsmHQ9PlusCompiler<I, O> implements HQ9PlusCompile
      */
     protected abstract Reader toReader(@NotNull I input);
 
+    /**
+     * Compiles the source from the input into the bytecode of the class.
+     *
+     * @param className name of the compiled class
+     * @param input input source providing compilation source (normally, source code)
+     * @return bytecode of the compiled class
+     *
+     * @throws IOException if an exception occurs while reading data
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] compileToBytes(@NonNull final String className, @NonNull final I input) throws IOException {
+        return parseAndGenerateClass(className, () -> HQ9PlusPackedAst.parse(toReader(input), respectCase));
+    }
+
+    /**
+     * Compiles the given source code into the bytecode of the class.
+     *
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] compileSourceToBytes(@NonNull final String className, @NonNull final CharSequence sourceCode) {
+        return parseAndGenerateClass(className, () -> HQ9PlusPackedAst.parse(sourceCode, respectCase));
+    }
+
+    /**
+     * Compiles the source code stored as ASCII bytes in the given buffer into the bytecode of the class.
+     * The bytes get scanned without being decoded to characters.
+     *
+     * @param className name of the compiled class
+     * @param sourceCode buffer whose remaining bytes are the source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] compileAsciiToBytes(@NonNull final String className, @NonNull final ByteBuffer sourceCode) {
+        return parseAndGenerateClass(
+                className, () -> HQ9PlusPackedAst.parse(HQ9PlusAsciiSourceCode.scan(sourceCode, respectCase))
+        );
+    }
+
+    /**
+     * Compiles the source code stored as ASCII bytes in the file of the given channel into the bytecode of the class.
+     * The file gets memory-mapped from the channel's current position to its end
+     * and its bytes get scanned without being decoded to characters. The channel's position does not get modified.
+     *
+     * @param className name of the compiled class
+     * @param sourceCode file channel providing the source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws IOException if an exception occurs while mapping the file
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] compileAsciiToBytes(@NonNull final String className,
+                                      @NonNull final FileChannel sourceCode) throws IOException {
+        return parseAndGenerateClass(
+                className, () -> HQ9PlusPackedAst.parse(HQ9PlusAsciiSourceCode.scan(sourceCode, respectCase))
+        );
+    }
+
+    /**
+     * Compiles the given already parsed program into the bytecode of the class.
+     *
+     * @param className name of the compiled class
+     * @param ast AST of the program
+     * @return bytecode of the compiled class
+     */
+    public byte[] compileAstToBytes(@NonNull final String className, @NonNull final HQ9PlusPackedAst ast) {
+        // the program is already parsed so no time is spent on it
+        return parseAndGenerateClass(className, () -> ast);
+    }
+
+    /**
+     * Parses the program and generates its class measuring both if there is a {@link #listener}.
+     *
+     * @param className name of the compiled class
+     * @param parser parser of the program
+     * @param <X> type of the exception thrown by the parser
+     * @return bytecode of the compiled class
+     *
+     * @throws X if an exception occurs while parsing the program
+     */
+    private <X extends Throwable> byte[] parseAndGenerateClass(@NotNull final String className,
+                                                               @NotNull final AstParser<X> parser) throws X {
+        if (listener == null) return generateClass(className, parser.parse());
+
+        final long parseStartNanos = System.nanoTime();
+        return generateMeasuredClass(className, parser.parse(), parseStartNanos);
+    }
+
     @Override
     public void compile(@NonNull final String className,
                         @NonNull final I input, @NotNull final O output) throws IOException {
-        write(generateClass(className, toReader(input)), output);
+        write(compileToBytes(className, input), output);
     }
 }
@@ -1,10 +1,24 @@
 package ru.progrm_jarvis.lang.hq9plus;
 
+import lombok.NonNull;
+import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Factory of standard {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} for specific IO-types.
@@ -19,12 +33,26 @@ public class AsmHQ9PlusCompilers {
      * @param respectCase flag marking whether case of source code should be respected
      * @return specific compiler
      */
-    public HQ9PlusCompiler<InputStream, OutputStream> streamBased(final boolean respectCase) {
-        return new AbstractAsmHQ9PlusCompiler<InputStream, OutputStream>(respectCase) {
+    public AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> streamBased(final boolean respectCase) {
+        return streamBased(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link InputStream} and {@link OutputStream} as its input and output respectively.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @param options options of the generated classes
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> streamBased(final boolean respectCase,
+                                                                  @NonNull final HQ9PlusCompilerOptions options) {
+        return new AbstractAsmHQ9PlusCompiler<InputStream, OutputStream>(respectCase, options) {
             @Override
             protected void write(@NotNull final byte[] bytes,
                                  @NotNull final OutputStream output) throws IOException {
-                try (val outputStream = new BufferedOutputStream(output)) {
+                // the class is written at once so that buffering would only copy it
+                try (val outputStream = output) {
                     outputStream.write(bytes);
                 }
             }
@@ -43,8 +71,24 @@ public class AsmHQ9PlusCompilers {
      * @param respectCase flag marking whether case of source code should be respected
      * @return specific compiler
      */
-    public HQ9PlusCompiler<BufferedInputStream, BufferedOutputStream> bufferedStreamBased(final boolean respectCase) {
-        return new AbstractAsmHQ9PlusCompiler<BufferedInputStream, BufferedOutputStream>(respectCase) {
+    public AbstractAsmHQ9PlusCompiler<BufferedInputStream, BufferedOutputStream> bufferedStreamBased(
+            final boolean respectCase
+    ) {
+        return bufferedStreamBased(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link BufferedInputStream} and {@link BufferedOutputStream} as its input and output respectively.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @param options options of the generated classes
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<BufferedInputStream, BufferedOutputStream> bufferedStreamBased(
+            final boolean respectCase, @NonNull final HQ9PlusCompilerOptions options
+    ) {
+        return new AbstractAsmHQ9PlusCompiler<BufferedInputStream, BufferedOutputStream>(respectCase, options) {
             @Override
             protected void write(@NotNull final byte[] bytes,
                                  @NotNull final BufferedOutputStream output) throws IOException {
@@ -62,4 +106,201 @@ public class AsmHQ9PlusCompilers {
             }
         };
     }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link Path} of the source file and {@link Path} of the class file as its input and output respectively.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<Path, Path> pathBased(final boolean respectCase) {
+        return pathBased(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link Path} of the source file and {@link Path} of the class file as its input and output respectively.
+     * <p>
+     * The source file gets memory-mapped and scanned as ASCII while the class file gets written by its channel.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @param options options of the generated classes
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<Path, Path> pathBased(final boolean respectCase,
+                                                            @NonNull final HQ9PlusCompilerOptions options) {
+        return new AbstractAsmHQ9PlusCompiler<Path, Path>(respectCase, options) {
+            @Override
+            public byte[] compileToBytes(@NonNull final String className,
+                                         @NonNull final Path input) throws IOException {
+                try (val channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    return compileAsciiToBytes(className, channel);
+                }
+            }
+
+            @Override
+            protected void write(@NotNull final byte[] bytes, @NotNull final Path output) throws IOException {
+                try (val channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    writeFully(bytes, channel);
+                }
+            }
+
+            @Override
+            @SneakyThrows(IOException.class) // the compilers of other IO-types cannot fail to create readers
+            protected Reader toReader(@NotNull final Path input) {
+                return Files.newBufferedReader(input, StandardCharsets.ISO_8859_1);
+            }
+        };
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link ReadableByteChannel} and {@link WritableByteChannel} as its input and output respectively.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<ReadableByteChannel, WritableByteChannel> channelBased(
+            final boolean respectCase
+    ) {
+        return channelBased(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link ReadableByteChannel} and {@link WritableByteChannel} as its input and output respectively.
+     * <p>
+     * The source code gets read from the channel's current position until its end and scanned as ASCII,
+     * {@link FileChannel file channels} get memory-mapped instead and their position is moved to their end.
+     * The output channel gets closed once the class is written to it.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @param options options of the generated classes
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<ReadableByteChannel, WritableByteChannel> channelBased(
+            final boolean respectCase, @NonNull final HQ9PlusCompilerOptions options
+    ) {
+        return new AbstractAsmHQ9PlusCompiler<ReadableByteChannel, WritableByteChannel>(respectCase, options) {
+            @Override
+            public byte[] compileToBytes(@NonNull final String className,
+                                         @NonNull final ReadableByteChannel input) throws IOException {
+                if (!(input instanceof FileChannel)) return compileAsciiToBytes(className, readFully(input));
+
+                final FileChannel fileChannel = (FileChannel) input;
+                final byte[] bytecode = compileAsciiToBytes(className, fileChannel);
+                // the mapped bytes are consumed just as the read ones
+                fileChannel.position(Math.max(fileChannel.size(), fileChannel.position()));
+
+                return bytecode;
+            }
+
+            @Override
+            protected void write(@NotNull final byte[] bytes,
+                                 @NotNull final WritableByteChannel output) throws IOException {
+                try (val channel = output) {
+                    writeFully(bytes, channel);
+                }
+            }
+
+            @Override
+            protected Reader toReader(@NotNull final ReadableByteChannel input) {
+                return Channels.newReader(input, StandardCharsets.ISO_8859_1.newDecoder(), -1);
+            }
+        };
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link ByteBuffer} as both its input and output.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<ByteBuffer, ByteBuffer> byteBufferBased(final boolean respectCase) {
+        return byteBufferBased(respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new {@link HQ9PlusCompiler} based on {@link AbstractAsmHQ9PlusCompiler} using
+     * {@link ByteBuffer} as both its input and output.
+     * <p>
+     * The remaining bytes of the input buffer get scanned as ASCII source code and consumed.
+     * The class gets put into the output buffer which should have enough space remaining for it,
+     * otherwise {@link java.nio.BufferOverflowException} is thrown and the output buffer is left unmodified.
+     *
+     * @param respectCase flag marking whether case of source code should be respected
+     * @param options options of the generated classes
+     * @return specific compiler
+     */
+    public AbstractAsmHQ9PlusCompiler<ByteBuffer, ByteBuffer> byteBufferBased(
+            final boolean respectCase, @NonNull final HQ9PlusCompilerOptions options
+    ) {
+        return new AbstractAsmHQ9PlusCompiler<ByteBuffer, ByteBuffer>(respectCase, options) {
+            @Override
+            public byte[] compileToBytes(@NonNull final String className, @NonNull final ByteBuffer input) {
+                final byte[] bytecode = compileAsciiToBytes(className, input);
+                ((Buffer) input).position(input.limit());
+
+                return bytecode;
+            }
+
+            @Override
+            protected void write(@NotNull final byte[] bytes, @NotNull final ByteBuffer output) {
+                output.put(bytes);
+            }
+
+            @Override
+            protected Reader toReader(@NotNull final ByteBuffer input) {
+                final CharBuffer sourceCode = StandardCharsets.ISO_8859_1.decode(input);
+
+                return new CharArrayReader(sourceCode.array(), sourceCode.arrayOffset(), sourceCode.remaining());
+            }
+        };
+    }
+
+    /**
+     * Writes all the given bytes to the channel.
+     *
+     * @param bytes bytes which should be written
+     * @param channel channel to which the bytes should be written
+     *
+     * @throws IOException if an exception occurs while writing the bytes
+     */
+    private void writeFully(@NotNull final byte[] bytes, @NotNull final WritableByteChannel channel)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * Reads all the remaining bytes of the channel.
+     * The buffer is allocated once if the size of the channel is known.
+     *
+     * @param channel channel whose bytes should be read
+     * @return buffer whose remaining bytes are the read ones
+     *
+     * @throws IOException if an exception occurs while reading the bytes
+     */
+    private ByteBuffer readFully(@NotNull final ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer;
+        if (channel instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekableChannel = (SeekableByteChannel) channel;
+            // one more byte lets the end of the channel be detected without growing the buffer
+            buffer = ByteBuffer.allocate((int) Math.min(
+                    Math.max(seekableChannel.size() - seekableChannel.position(), 0) + 1, Integer.MAX_VALUE - 8
+            ));
+        } else buffer = ByteBuffer.allocate(8192);
+
+        while (channel.read(buffer) != -1) if (!buffer.hasRemaining()) {
+            final ByteBuffer grownBuffer = ByteBuffer.allocate(buffer.capacity() << 1);
+            ((Buffer) buffer).flip();
+            buffer = grownBuffer.put(buffer);
+        }
+        ((Buffer) buffer).flip();
+
+        return buffer;
+    }
 }
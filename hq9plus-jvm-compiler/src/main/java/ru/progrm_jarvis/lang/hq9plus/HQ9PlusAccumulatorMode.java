@@ -0,0 +1,35 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Strategy of the accumulator incremented by {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#PLUS +} nodes
+ * of the programs generated by {@link AbstractAsmHQ9PlusCompiler}.
+ * <p>
+ * The accumulator is stored in the private static {@code counter} field of the generated class.
+ * It is of type {@code long} with {@link #PLAIN plain} accumulator and a {@link Number} otherwise.
+ */
+public enum HQ9PlusAccumulatorMode {
+    /**
+     * The accumulator is a plain {@code long} field incremented by read-add-write sequence.
+     * <p>
+     * This is the fastest mode when the program runs in a single thread as the field may stay in a register,
+     * but concurrent runs of the program lose increments and make the field's cache line bounce between cores.
+     */
+    PLAIN,
+    /**
+     * The accumulator is an {@link AtomicLong} incremented by a single atomic read-modify-write instruction.
+     * <p>
+     * No increments are lost and the value is always exact, yet all the threads contend on a single cache line
+     * so that the throughput of increments does not grow with the amount of concurrent runs.
+     */
+    ATOMIC,
+    /**
+     * The accumulator is a {@link LongAdder} whose increments get spread over per-thread cells on contention.
+     * <p>
+     * No increments are lost and the throughput of increments grows with the amount of concurrent runs
+     * at the cost of extra memory for the cells and of reading the value which has to sum all the cells.
+     */
+    STRIPED
+}
@@ -0,0 +1,274 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Compiler of batches of <b>HQ9+ programming language</b> programs compiling them in parallel.
+ * <p>
+ * Failures are reported per {@link Unit compilation unit} so that a single invalid program
+ * does not prevent the rest of the batch from being compiled.
+ *
+ * @param <I> type of input source providing compilation source (normally, source code)
+ */
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusBatchCompiler<I> {
+
+    /**
+     * Compiler used to compile the programs
+     */
+    @NonNull AbstractAsmHQ9PlusCompiler<I, ?> compiler;
+
+    /**
+     * Executor on which the programs get compiled
+     */
+    @NonNull Executor executor;
+
+    /**
+     * Creates a new batch compiler.
+     *
+     * @param compiler compiler used to compile the programs
+     * @param executor executor on which the programs should get compiled
+     * @param <I> type of input source providing compilation source (normally, source code)
+     * @return created batch compiler
+     */
+    public static <I> HQ9PlusBatchCompiler<I> create(@NonNull final AbstractAsmHQ9PlusCompiler<I, ?> compiler,
+                                                     @NonNull final Executor executor) {
+        return new HQ9PlusBatchCompiler<>(compiler, executor);
+    }
+
+    /**
+     * Creates a new batch compiler compiling the programs in {@link ForkJoinPool#commonPool() the common pool}.
+     *
+     * @param compiler compiler used to compile the programs
+     * @param <I> type of input source providing compilation source (normally, source code)
+     * @return created batch compiler
+     */
+    public static <I> HQ9PlusBatchCompiler<I> create(@NonNull final AbstractAsmHQ9PlusCompiler<I, ?> compiler) {
+        return create(compiler, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Submits the given compilation units for compilation.
+     *
+     * @param units compilation units which should be compiled
+     * @return futures of the compilation results in the order of the units,
+     * those never complete exceptionally as the failures are reported by the {@link Result results}
+     */
+    public List<CompletableFuture<Result<I>>> submit(@NonNull final Collection<? extends Unit<I>> units) {
+        final List<CompletableFuture<Result<I>>> results = new ArrayList<>(units.size());
+        int index = 0;
+        for (final Unit<I> unit : units) {
+            final int unitIndex = index++;
+            results.add(CompletableFuture.supplyAsync(() -> compile(unitIndex, unit), executor));
+        }
+
+        return results;
+    }
+
+    /**
+     * Compiles the given compilation units awaiting all of them.
+     *
+     * @param units compilation units which should be compiled
+     * @return compilation results in the order of the units
+     *
+     * @throws InterruptedException if the current thread gets interrupted while awaiting the results
+     */
+    public List<Result<I>> compile(@NonNull final Collection<? extends Unit<I>> units) throws InterruptedException {
+        final List<CompletableFuture<Result<I>>> futures = submit(units);
+        final List<Result<I>> results = new ArrayList<>(futures.size());
+        for (final CompletableFuture<Result<I>> future : futures) results.add(await(future));
+
+        return results;
+    }
+
+    /**
+     * Compiles the given compilation units passing the results to the given consumer in the order of their completion.
+     * The consumer is called in the current thread.
+     *
+     * @param units compilation units which should be compiled
+     * @param resultConsumer consumer accepting the compilation results
+     *
+     * @throws InterruptedException if the current thread gets interrupted while awaiting the results
+     */
+    public void compile(@NonNull final Collection<? extends Unit<I>> units,
+                        @NonNull final Consumer<? super Result<I>> resultConsumer) throws InterruptedException {
+        final BlockingQueue<Result<I>> completedResults = new LinkedBlockingQueue<>();
+        final List<CompletableFuture<Result<I>>> futures = submit(units);
+        for (final CompletableFuture<Result<I>> future : futures) future.thenAccept(completedResults::add);
+
+        for (int remaining = futures.size(); remaining > 0; remaining--) resultConsumer.accept(completedResults.take());
+    }
+
+    /**
+     * Compiles the given compilation unit.
+     *
+     * @param index index of the unit in its batch
+     * @param unit compilation unit which should be compiled
+     * @return result of the compilation
+     */
+    private Result<I> compile(final int index, @NotNull final Unit<I> unit) {
+        final byte[] bytecode;
+        try {
+            bytecode = compiler.compileToBytes(unit.className, unit.input);
+        } catch (final HQ9PlusAstParseException e) {
+            return Result.failure(index, unit, new HQ9PlusAstParseException(
+                    "Failed to parse " + unit.sourceName + ": " + e.getMessage(), e
+            ));
+        } catch (final IOException | RuntimeException e) {
+            return Result.failure(index, unit, e);
+        }
+
+        return Result.success(index, unit, bytecode);
+    }
+
+    /**
+     * Awaits the given result future.
+     *
+     * @param future future of the result
+     * @param <I> type of input source providing compilation source (normally, source code)
+     * @return awaited result
+     *
+     * @throws InterruptedException if the current thread gets interrupted while awaiting the result
+     */
+    private static <I> Result<I> await(@NotNull final Future<Result<I>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Compilation result futures should never complete exceptionally", e);
+        }
+    }
+
+    /**
+     * Compilation unit of a batch.
+     *
+     * @param <I> type of input source providing compilation source (normally, source code)
+     */
+    @Value
+    @AllArgsConstructor(staticName = "of")
+    public static class Unit<I> {
+
+        /**
+         * Name of the compiled class
+         */
+        @NonNull String className;
+
+        /**
+         * Input source providing compilation source (normally, source code)
+         */
+        @NonNull I input;
+
+        /**
+         * Name identifying the source in the failure reports
+         */
+        @NonNull String sourceName;
+
+        /**
+         * Creates a compilation unit identified by the name of its class.
+         *
+         * @param className name of the compiled class
+         * @param input input source providing compilation source (normally, source code)
+         * @param <I> type of input source providing compilation source (normally, source code)
+         * @return created compilation unit
+         */
+        public static <I> Unit<I> of(@NonNull final String className, @NonNull final I input) {
+            return of(className, input, className);
+        }
+    }
+
+    /**
+     * Result of the compilation of a {@link Unit compilation unit}.
+     *
+     * @param <I> type of input source providing compilation source (normally, source code)
+     */
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Result<I> {
+
+        /**
+         * Index of the unit in its batch
+         */
+        int index;
+
+        /**
+         * Compiled unit
+         */
+        @NonNull Unit<I> unit;
+
+        /**
+         * Bytecode of the compiled class or {@code null} if the compilation failed
+         */
+        @Nullable byte[] bytecode;
+
+        /**
+         * Exception because of which the compilation failed or {@code null} if it succeeded,
+         * {@link HQ9PlusAstParseException parse exceptions} mention {@link Unit#getSourceName() the source name}
+         */
+        @Nullable Exception failure;
+
+        /**
+         * Creates a successful compilation result.
+         *
+         * @param index index of the unit in its batch
+         * @param unit compiled unit
+         * @param bytecode bytecode of the compiled class
+         * @param <I> type of input source providing compilation source (normally, source code)
+         * @return created compilation result
+         */
+        private static <I> Result<I> success(final int index, @NotNull final Unit<I> unit,
+                                             @NotNull final byte[] bytecode) {
+            return new Result<>(index, unit, bytecode, null);
+        }
+
+        /**
+         * Creates a failed compilation result.
+         *
+         * @param index index of the unit in its batch
+         * @param unit compiled unit
+         * @param failure exception because of which the compilation failed
+         * @param <I> type of input source providing compilation source (normally, source code)
+         * @return created compilation result
+         */
+        private static <I> Result<I> failure(final int index, @NotNull final Unit<I> unit,
+                                             @NotNull final Exception failure) {
+            return new Result<>(index, unit, null, failure);
+        }
+
+        /**
+         * Checks if the compilation succeeded.
+         *
+         * @return {@code true} if the compilation succeeded and {@code false} otherwise
+         */
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+
+        /**
+         * Gets the bytecode of the compiled class rethrowing the failure if the compilation failed.
+         *
+         * @return bytecode of the compiled class
+         *
+         * @throws IOException if an exception occurred while reading data
+         * @throws HQ9PlusAstParseException if an exception occurred while parsing AST
+         */
+        public byte[] getBytecodeOrThrow() throws IOException {
+            final Exception failure = this.failure;
+            if (failure == null) return bytecode;
+            if (failure instanceof IOException) throw (IOException) failure;
+
+            throw (RuntimeException) failure;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Definer of classes generated by {@link HQ9PlusCompiler} in memory.
+ *
+ * @see HQ9PlusClassDefiners factory of standard implementations
+ */
+@FunctionalInterface
+public interface HQ9PlusClassDefiner {
+
+    /**
+     * Defines the class from the given bytecode.
+     *
+     * @param bytecode bytecode of the class
+     * @return defined class
+     *
+     * @throws IllegalArgumentException if the class cannot be defined by this definer
+     * @throws LinkageError if the bytecode is invalid
+     */
+    @NotNull Class<?> define(@NonNull byte[] bytecode);
+}
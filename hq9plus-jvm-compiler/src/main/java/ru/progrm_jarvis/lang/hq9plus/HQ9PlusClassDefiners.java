@@ -0,0 +1,216 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+
+/**
+ * Factory of standard {@link HQ9PlusClassDefiner class definers}.
+ */
+@UtilityClass
+public class HQ9PlusClassDefiners {
+
+    /**
+     * Method handle of {@code Lookup#defineHiddenClass(byte[], boolean, Lookup.ClassOption...)}
+     * bound to no options or {@code null} if hidden classes are not supported by the current JVM
+     */
+    private final @Nullable MethodHandle DEFINE_HIDDEN_CLASS = lookupDefineHiddenClass();
+
+    /**
+     * Lookup of this class used to define hidden classes in its package by default
+     */
+    private final Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Finds the method handle of {@code Lookup#defineHiddenClass(byte[], boolean, Lookup.ClassOption...)}.
+     *
+     * @return method handle bound to no options or {@code null} if it is unavailable
+     */
+    private @Nullable MethodHandle lookupDefineHiddenClass() {
+        final Class<?> classOptionClass;
+        try {
+            classOptionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+        } catch (final ClassNotFoundException e) {
+            return null; // hidden classes are only available since Java 15
+        }
+
+        val classOptionArray = Array.newInstance(classOptionClass, 0);
+        final MethodHandle defineHiddenClass;
+        try {
+            defineHiddenClass = MethodHandles.publicLookup().findVirtual(
+                    Lookup.class, "defineHiddenClass",
+                    MethodType.methodType(Lookup.class, byte[].class, boolean.class, classOptionArray.getClass())
+            );
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+
+        return MethodHandles.insertArguments(defineHiddenClass, 3, classOptionArray);
+    }
+
+    /**
+     * Checks whether hidden classes are supported by the current JVM.
+     *
+     * @return {@code true} if hidden classes are supported and {@code false} otherwise
+     */
+    public boolean hiddenClassesSupported() {
+        return DEFINE_HIDDEN_CLASS != null;
+    }
+
+    /**
+     * Gets the name of the package of the given class.
+     *
+     * @param className binary name of the class
+     * @return name of the package of the class (empty for the default package)
+     */
+    private String packageName(@NonNull final String className) {
+        val lastDotIndex = className.lastIndexOf('.');
+
+        return lastDotIndex == -1 ? "" : className.substring(0, lastDotIndex);
+    }
+
+    /**
+     * Gets the name of the package in which {@link #standard()} definer defines hidden classes.
+     * Classes of other packages get defined by it using {@link #classLoaderBased(ClassLoader)} definer.
+     *
+     * @return name of the package in which the standard definer defines hidden classes
+     */
+    public String standardHiddenClassPackage() {
+        return packageName(LOOKUP.lookupClass().getName());
+    }
+
+    /**
+     * Creates a class definer defining each class in its own class loader
+     * so that the class can get unloaded once it and its instances are no longer used.
+     *
+     * @param parent parent class loader of the created class loaders
+     * @return class definer using isolated class loaders
+     */
+    public HQ9PlusClassDefiner classLoaderBased(@Nullable final ClassLoader parent) {
+        return bytecode -> new IsolatedClassLoader(parent).define(bytecode);
+    }
+
+    /**
+     * Creates a class definer defining the classes as hidden classes of the given lookup's class
+     * which can get unloaded once they are no longer used.
+     * <p>
+     * Hidden classes are only available since Java 15 and can only be defined in the package of the lookup's class.
+     *
+     * @param lookup lookup with full privilege access in whose class's nest the classes get defined
+     * @return class definer using hidden classes
+     *
+     * @throws UnsupportedOperationException if hidden classes are not supported by the current JVM
+     */
+    public HQ9PlusClassDefiner hiddenClassBased(@NonNull final Lookup lookup) {
+        val defineHiddenClass = DEFINE_HIDDEN_CLASS;
+        if (defineHiddenClass == null) throw new UnsupportedOperationException(
+                "Hidden classes are not supported by the current JVM"
+        );
+
+        return new HiddenClassDefiner(defineHiddenClass, lookup);
+    }
+
+    /**
+     * Creates a class definer defining the classes as hidden classes of the given lookup's class if possible
+     * and using {@link #classLoaderBased(ClassLoader) isolated class loaders} otherwise.
+     *
+     * @param lookup lookup with full privilege access in whose class's nest the classes get defined
+     * @return class definer preferring hidden classes
+     */
+    public HQ9PlusClassDefiner hiddenClassBasedOrClassLoaderBased(@NonNull final Lookup lookup) {
+        val classLoaderBased = classLoaderBased(lookup.lookupClass().getClassLoader());
+        val defineHiddenClass = DEFINE_HIDDEN_CLASS;
+        if (defineHiddenClass == null) return classLoaderBased;
+
+        val hiddenClassBased = new HiddenClassDefiner(defineHiddenClass, lookup);
+        val hiddenClassPackage = packageName(lookup.lookupClass().getName());
+
+        return bytecode -> packageName(new ClassReader(bytecode).getClassName().replace('/', '.'))
+                .equals(hiddenClassPackage) ? hiddenClassBased.define(bytecode) : classLoaderBased.define(bytecode);
+    }
+
+    /**
+     * Gets the standard class definer which defines classes of {@link #standardHiddenClassPackage() its package}
+     * as hidden classes if those are supported by the current JVM and uses isolated class loaders otherwise.
+     *
+     * @return standard class definer
+     */
+    public HQ9PlusClassDefiner standard() {
+        return hiddenClassBasedOrClassLoaderBased(LOOKUP);
+    }
+
+    /**
+     * Class loader used to define a single class.
+     */
+    private static final class IsolatedClassLoader extends ClassLoader {
+
+        /**
+         * Creates a new isolated class loader.
+         *
+         * @param parent parent class loader
+         */
+        private IsolatedClassLoader(@Nullable final ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * Defines the class from the given bytecode.
+         *
+         * @param bytecode bytecode of the class
+         * @return defined class
+         */
+        private Class<?> define(@NotNull final byte[] bytecode) {
+            return defineClass(null, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * Class definer using hidden classes.
+     */
+    private static final class HiddenClassDefiner implements HQ9PlusClassDefiner {
+
+        /**
+         * Method handle of {@code Lookup#defineHiddenClass(byte[], boolean, Lookup.ClassOption...)}
+         */
+        private final @NonNull MethodHandle defineHiddenClass;
+
+        /**
+         * Lookup used to define the hidden classes
+         */
+        private final @NonNull Lookup lookup;
+
+        /**
+         * Creates a new class definer using hidden classes.
+         *
+         * @param defineHiddenClass method handle used to define hidden classes
+         * @param lookup lookup used to define the hidden classes
+         */
+        private HiddenClassDefiner(@NonNull final MethodHandle defineHiddenClass, @NonNull final Lookup lookup) {
+            this.defineHiddenClass = defineHiddenClass;
+            this.lookup = lookup;
+        }
+
+        @Override
+        @SneakyThrows
+        public @NotNull Class<?> define(@NonNull final byte[] bytecode) {
+            final Lookup hiddenClassLookup;
+            try {
+                hiddenClassLookup = (Lookup) defineHiddenClass.invoke(lookup, bytecode, true);
+            } catch (final IllegalAccessException e) {
+                throw new IllegalArgumentException("Unable to define hidden class using " + lookup, e);
+            }
+
+            return hiddenClassLookup.lookupClass();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Version of the class files generated by {@link AbstractAsmHQ9PlusCompiler}.
+ * <p>
+ * The generated classes can only be loaded by the JVM supporting their version.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public enum HQ9PlusClassFileVersion {
+    /**
+     * Class files of Java 8 whose encoded texts are stored in static fields initialized with the class
+     */
+    JAVA_8(Opcodes.V1_8, false),
+    /**
+     * Class files of Java 11 whose encoded texts are dynamic constants encoded once they are first used
+     */
+    JAVA_11(Opcodes.V11, true),
+    /**
+     * Class files of Java 17 whose encoded texts are dynamic constants encoded once they are first used
+     */
+    JAVA_17(Opcodes.V17, true);
+
+    /**
+     * Version of the class file as stored in its header
+     */
+    @Getter int version;
+
+    /**
+     * {@code true} if the class files of this version support dynamic constants and {@code false} otherwise
+     */
+    @Getter boolean constantDynamicSupported;
+}
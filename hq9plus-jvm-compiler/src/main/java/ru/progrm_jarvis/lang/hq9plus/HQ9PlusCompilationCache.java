@@ -0,0 +1,419 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of classes compiled by {@link AbstractAsmHQ9PlusCompiler}.
+ * <p>
+ * Entries are keyed by the hash of the source code, the name of the class and the configuration of the compiler
+ * and get evicted in least-recently-used order once either the maximal amount of entries
+ * or the maximal total size of the cached bytecode is exceeded.
+ * Concurrent requests for the same uncached class share a single compilation.
+ * <p>
+ * Besides the bytecode, the cache may hold {@link HQ9PlusProgram programs} loaded from it,
+ * those are only weakly referenced so that their classes can still get unloaded.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusCompilationCache {
+
+    /**
+     * Algorithm of the hash of the source code
+     */
+    private static final String SOURCE_CODE_HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Maximal amount of cached entries
+     */
+    @ToString.Include long maximumSize;
+    /**
+     * Maximal total size of the cached bytecode in bytes
+     */
+    @ToString.Include long maximumWeight;
+    /**
+     * Definer used to define the classes of the cached programs
+     */
+    @NonNull HQ9PlusClassDefiner definer;
+
+    /**
+     * Cached entries in least-recently-used order
+     */
+    LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Lock guarding {@link #entries} and {@link #weight}
+     */
+    Object lock = new Object[0];
+    /**
+     * Total size of the cached bytecode in bytes
+     */
+    @NonFinal long weight;
+
+    /**
+     * Statistics counters
+     */
+    LongAdder hitCount = new LongAdder(), missCount = new LongAdder(), loadSuccessCount = new LongAdder(),
+            loadFailureCount = new LongAdder(), evictionCount = new LongAdder();
+
+    /**
+     * Creates a new compilation cache.
+     *
+     * @param maximumSize maximal amount of cached entries
+     * @param maximumWeight maximal total size of the cached bytecode in bytes
+     * @param definer definer used to define the classes of the cached programs
+     *
+     * @throws IllegalArgumentException if {@code maximumSize} or {@code maximumWeight} is negative
+     */
+    private HQ9PlusCompilationCache(final long maximumSize, final long maximumWeight,
+                                    @NonNull final HQ9PlusClassDefiner definer) {
+        if (maximumSize < 0) throw new IllegalArgumentException(
+                "Maximum size should be non-negative (" + maximumSize + ')'
+        );
+        if (maximumWeight < 0) throw new IllegalArgumentException(
+                "Maximum weight should be non-negative (" + maximumWeight + ')'
+        );
+
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.definer = definer;
+    }
+
+    /**
+     * Creates a new compilation cache.
+     *
+     * @param maximumSize maximal amount of cached entries
+     * @param maximumWeight maximal total size of the cached bytecode in bytes
+     * @param definer definer used to define the classes of the cached programs
+     * @return created compilation cache
+     *
+     * @throws IllegalArgumentException if {@code maximumSize} or {@code maximumWeight} is negative
+     */
+    public static HQ9PlusCompilationCache create(final long maximumSize, final long maximumWeight,
+                                                 @NonNull final HQ9PlusClassDefiner definer) {
+        return new HQ9PlusCompilationCache(maximumSize, maximumWeight, definer);
+    }
+
+    /**
+     * Creates a new compilation cache using {@link HQ9PlusClassDefiners#standard() the standard class definer}.
+     *
+     * @param maximumSize maximal amount of cached entries
+     * @param maximumWeight maximal total size of the cached bytecode in bytes
+     * @return created compilation cache
+     *
+     * @throws IllegalArgumentException if {@code maximumSize} or {@code maximumWeight} is negative
+     */
+    public static HQ9PlusCompilationCache create(final long maximumSize, final long maximumWeight) {
+        return create(maximumSize, maximumWeight, HQ9PlusClassDefiners.standard());
+    }
+
+    /**
+     * Computes the hash of the given source code.
+     *
+     * @param sourceCode source code whose hash should be computed
+     * @return hash of the source code
+     */
+    @SneakyThrows(NoSuchAlgorithmException.class) // every Java platform supports SHA-256
+    static byte[] hash(@NonNull final CharSequence sourceCode) {
+        return MessageDigest.getInstance(SOURCE_CODE_HASH_ALGORITHM)
+                .digest(sourceCode.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the whole content of the given reader.
+     *
+     * @param reader reader whose content should be read
+     * @return content of the reader
+     *
+     * @throws IOException if an exception occurs while reading
+     */
+    static String readFully(@NonNull final Reader reader) throws IOException {
+        final StringBuilder content = new StringBuilder();
+        final char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) content.append(buffer, 0, read);
+
+        return content.toString();
+    }
+
+    /**
+     * Gets the bytecode of the class compiled from the given source code
+     * compiling it if it is not cached yet.
+     *
+     * @param compiler compiler used to compile the class
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return bytecode of the compiled class, the returned array must not be modified
+     *
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] getBytecode(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                              @NonNull final String className, @NonNull final CharSequence sourceCode) {
+        return entry(compiler, className, sourceCode).bytecode();
+    }
+
+    /**
+     * Gets the program compiled from the given source code
+     * compiling and defining it if it is not cached yet.
+     *
+     * @param compiler compiler used to compile the class
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return compiled program
+     *
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public HQ9PlusProgram getProgram(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                     @NonNull final String className, @NonNull final CharSequence sourceCode) {
+        return entry(compiler, className, sourceCode).program(definer);
+    }
+
+    /**
+     * Creates a compiler delegating to the given one and caching the compiled classes in this cache.
+     *
+     * @param compiler compiler to which the compilation should be delegated
+     * @param <I> type of input source providing compilation source (normally, source code)
+     * @param <O> type of output target receiving compilation result
+     * @return caching compiler
+     */
+    public <I, O> HQ9PlusCompiler<I, O> wrap(@NonNull final AbstractAsmHQ9PlusCompiler<I, O> compiler) {
+        return (className, input, output) -> compiler.write(
+                getBytecode(compiler, className, readFully(compiler.toReader(input))), output
+        );
+    }
+
+    /**
+     * Gets the entry of the class compiled from the given source code compiling it if it is not cached yet.
+     *
+     * @param compiler compiler used to compile the class
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return entry of the compiled class
+     */
+    private Entry entry(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                        @NonNull final String className, @NonNull final CharSequence sourceCode) {
+        final Key key = new Key(className, compiler.respectCase, compiler.options, hash(sourceCode));
+
+        Entry entry;
+        final boolean compiling;
+        synchronized (lock) {
+            entry = entries.get(key);
+            if (compiling = entry == null) entries.put(key, entry = new Entry());
+        }
+
+        if (!compiling) {
+            hitCount.increment();
+            return entry;
+        }
+
+        missCount.increment();
+        final byte[] bytecode;
+        try {
+            bytecode = compiler.compileSourceToBytes(className, sourceCode);
+        } catch (final Throwable e) {
+            loadFailureCount.increment();
+            synchronized (lock) {
+                entries.remove(key, entry);
+            }
+            entry.bytecode.completeExceptionally(e);
+
+            throw e;
+        }
+        loadSuccessCount.increment();
+        entry.bytecode.complete(bytecode);
+
+        synchronized (lock) {
+            if (entries.get(key) == entry) {
+                weight += entry.weight = bytecode.length;
+                evict();
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Evicts the least recently used compiled entries until the cache fits into its bounds.
+     */
+    @SuppressWarnings("FieldAccessNotGuarded") // called only with the lock held
+    private void evict() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maximumSize || weight > maximumWeight) && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.bytecode.isDone()) {
+                iterator.remove();
+                weight -= entry.weight;
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all entries of this cache.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.values().removeIf(entry -> entry.bytecode.isDone());
+            weight = 0;
+        }
+    }
+
+    /**
+     * Gets the statistics of this cache.
+     *
+     * @return snapshot of the statistics of this cache
+     */
+    public Stats stats() {
+        final long size;
+        final long weight;
+        synchronized (lock) {
+            size = entries.size();
+            weight = this.weight;
+        }
+
+        return new Stats(
+                hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                evictionCount.sum(), size, weight
+        );
+    }
+
+    /**
+     * Key of the cached entry.
+     */
+    @Value
+    private static class Key {
+
+        /**
+         * Name of the compiled class
+         */
+        @NonNull String className;
+        /**
+         * {@code true} if the case of source code was respected by the compiler and {@code false} otherwise
+         */
+        boolean respectCase;
+        /**
+         * Options of the generated class
+         */
+        @NonNull HQ9PlusCompilerOptions options;
+        /**
+         * Hash of the source code
+         */
+        @NonNull byte[] sourceCodeHash;
+    }
+
+    /**
+     * Entry of the cache.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Entry {
+
+        /**
+         * Future of the bytecode of the compiled class
+         */
+        final CompletableFuture<byte[]> bytecode = new CompletableFuture<>();
+        /**
+         * Size of the cached bytecode counted in the weight of the cache
+         */
+        long weight;
+        /**
+         * Weak reference to the program loaded from this entry's bytecode
+         */
+        @Nullable WeakReference<HQ9PlusProgram> program;
+
+        /**
+         * Awaits the bytecode of the compiled class.
+         *
+         * @return bytecode of the compiled class
+         */
+        @SneakyThrows(InterruptedException.class)
+        private byte[] bytecode() {
+            try {
+                return bytecode.get();
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+
+                throw new IllegalStateException("Compilation failed", cause);
+            }
+        }
+
+        /**
+         * Gets the program loaded from this entry's bytecode defining it if it is not loaded yet.
+         *
+         * @param definer definer used to define the program's class
+         * @return loaded program
+         */
+        private synchronized HQ9PlusProgram program(@NotNull final HQ9PlusClassDefiner definer) {
+            final WeakReference<HQ9PlusProgram> programReference = program;
+            HQ9PlusProgram loadedProgram;
+            if (programReference == null || (loadedProgram = programReference.get()) == null) {
+                loadedProgram = HQ9PlusProgram.of(definer.define(bytecode()));
+                program = new WeakReference<>(loadedProgram);
+            }
+
+            return loadedProgram;
+        }
+    }
+
+    /**
+     * Statistics of {@link HQ9PlusCompilationCache}.
+     */
+    @Value
+    public static class Stats {
+
+        /**
+         * Amount of requests which were served by the cached entries
+         */
+        long hitCount;
+        /**
+         * Amount of requests which required compilation
+         */
+        long missCount;
+        /**
+         * Amount of successful compilations
+         */
+        long loadSuccessCount;
+        /**
+         * Amount of failed compilations
+         */
+        long loadFailureCount;
+        /**
+         * Amount of evicted entries
+         */
+        long evictionCount;
+        /**
+         * Amount of entries in the cache
+         */
+        long size;
+        /**
+         * Total size of the cached bytecode in bytes
+         */
+        long weight;
+
+        /**
+         * Gets the ratio of requests which were served by the cached entries.
+         *
+         * @return ratio of requests which were served by the cached entries or {@code 1} if there were no requests
+         */
+        public double hitRate() {
+            final long requestCount = hitCount + missCount;
+
+            return requestCount == 0 ? 1 : (double) hitCount / requestCount;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.NonNull;
+
+/**
+ * Listener notified about each class compiled by {@link AbstractAsmHQ9PlusCompiler}.
+ * <p>
+ * The listener is called in the thread compiling the class so it should be thread-safe
+ * if the compiler is used concurrently.
+ *
+ * @see HQ9PlusCompilerOptions#getListener() listener of the compiler
+ */
+@FunctionalInterface
+public interface HQ9PlusCompilationListener {
+
+    /**
+     * Listener doing nothing.
+     * <p>
+     * The compiler using this listener does not even measure the compilation so that it costs nothing.
+     */
+    HQ9PlusCompilationListener NONE = metrics -> {};
+
+    /**
+     * Handles the compilation of the class.
+     *
+     * @param metrics metrics of the compilation
+     */
+    void onCompiled(@NonNull HQ9PlusCompilationMetrics metrics);
+}
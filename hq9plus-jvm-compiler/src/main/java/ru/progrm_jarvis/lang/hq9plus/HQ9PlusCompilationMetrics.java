@@ -0,0 +1,145 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassReader;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics of the compilation of a single class by {@link AbstractAsmHQ9PlusCompiler}.
+ *
+ * @see HQ9PlusCompilationListener listener receiving the metrics
+ */
+@Value
+public class HQ9PlusCompilationMetrics {
+
+    /**
+     * Name of the compiled class
+     */
+    @NonNull String className;
+
+    /**
+     * Amount of characters of the parsed source code
+     * which is also the amount of bytes read from the sources encoded in ASCII
+     */
+    int sourceCharacterCount;
+
+    /**
+     * Unmodifiable histogram of AST-nodes of the program
+     */
+    @NonNull Map<HQ9PlusAstNode, Integer> nodeCounts;
+
+    /**
+     * Time spent parsing the source code in nanoseconds
+     */
+    long parseNanos;
+
+    /**
+     * Time spent generating the class in nanoseconds
+     */
+    long generationNanos;
+
+    /**
+     * Amount of bytes of the generated class file
+     */
+    int bytecodeLength;
+
+    /**
+     * Amount of entries of the constant pool of the generated class
+     */
+    int constantPoolSize;
+
+    /**
+     * Unmodifiable sizes of bytecode of the generated methods by their names in the order of their declaration
+     */
+    @NonNull Map<String, Integer> methodCodeSizes;
+
+    /**
+     * Creates the metrics of the compilation of the given class.
+     *
+     * @param className name of the compiled class
+     * @param ast AST of the program
+     * @param parseNanos time spent parsing the source code in nanoseconds
+     * @param generationNanos time spent generating the class in nanoseconds
+     * @param bytecode bytecode of the generated class
+     * @return created metrics
+     */
+    public static @NotNull HQ9PlusCompilationMetrics of(@NonNull final String className,
+                                                        @NonNull final HQ9PlusPackedAst ast,
+                                                        final long parseNanos,
+                                                        final long generationNanos,
+                                                        @NonNull final byte[] bytecode) {
+        final ClassReader classReader = new ClassReader(bytecode);
+
+        return new HQ9PlusCompilationMetrics(
+                className, ast.getSourceCode().length(), ast.histogram(), parseNanos, generationNanos,
+                bytecode.length, classReader.getItemCount(), methodCodeSizes(classReader)
+        );
+    }
+
+    /**
+     * Reads the sizes of bytecode of the methods of the class.
+     *
+     * @param classReader reader of the class
+     * @return unmodifiable sizes of bytecode of the methods by their names
+     */
+    private static Map<String, Integer> methodCodeSizes(@NonNull final ClassReader classReader) {
+        final char[] buffer = new char[classReader.getMaxStringLength()];
+        // skip access flags, this-class, super-class and interfaces
+        int offset = classReader.header + 6;
+        offset += 2 + 2 * classReader.readUnsignedShort(offset);
+        // skip fields
+        int count = classReader.readUnsignedShort(offset);
+        offset += 2;
+        for (int field = 0; field < count; field++) offset = skipAttributes(classReader, offset + 6);
+
+        final Map<String, Integer> methodCodeSizes = new LinkedHashMap<>();
+        count = classReader.readUnsignedShort(offset);
+        offset += 2;
+        for (int method = 0; method < count; method++) {
+            final String name = classReader.readUTF8(offset + 2, buffer);
+            final int attributeCount = classReader.readUnsignedShort(offset + 6);
+            offset += 8;
+            for (int attribute = 0; attribute < attributeCount; attribute++) {
+                // the attribute's content follows its name and length, code length follows max stack and locals
+                if ("Code".equals(classReader.readUTF8(offset, buffer))) methodCodeSizes.put(
+                        name, classReader.readInt(offset + 10)
+                );
+                offset += 6 + classReader.readInt(offset + 2);
+            }
+        }
+
+        return Collections.unmodifiableMap(methodCodeSizes);
+    }
+
+    /**
+     * Skips the attributes of a class member.
+     *
+     * @param classReader reader of the class
+     * @param offset offset of the amount of the attributes
+     * @return offset following the attributes
+     */
+    private static int skipAttributes(@NonNull final ClassReader classReader, int offset) {
+        final int attributeCount = classReader.readUnsignedShort(offset);
+        offset += 2;
+        for (int attribute = 0; attribute < attributeCount; attribute++) offset += 6 + classReader.readInt(offset + 2);
+
+        return offset;
+    }
+
+    /**
+     * Checks whether the method of the given name was generated.
+     *
+     * @param methodName name of the method
+     * @return {@code true} if the method was generated and {@code false} otherwise
+     */
+    public boolean isMethodGenerated(@NonNull final String methodName) {
+        return methodCodeSizes.containsKey(methodName);
+    }
+}
@@ -0,0 +1,433 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAsciiSourceCode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived daemon keeping a warmed up {@link AbstractAsmHQ9PlusCompiler compiler} resident
+ * and serving compilation requests of {@link HQ9PlusCompileDaemonClient clients} over a loopback socket.
+ * <p>
+ * Each connection is served by its own thread and carries a sequence of requests each answered by a response.
+ * Both are frames of the following format:
+ * <ul>
+ *     <li>request: kind ({@code byte}), class name (modified UTF-8 as written by
+ *     {@link DataOutput#writeUTF(String)}), length of the source code ({@code int}), ASCII source code;</li>
+ *     <li>response: status ({@code byte}), length of the payload ({@code int}), payload.</li>
+ * </ul>
+ * {@link #COMPILE_REQUEST Compile requests} are answered with the bytecode of the class
+ * while {@link #RUN_REQUEST run requests} are answered with the output of the program
+ * which are rejected without being run if the output is longer than {@link #MAX_PAYLOAD_LENGTH}.
+ * At most {@link #MAX_CONNECTIONS} connections are served at once, the other ones get closed immediately.
+ * Failed requests are answered with the UTF-8 message of the failure and do not close the connection.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusCompileDaemon implements Closeable {
+
+    /**
+     * Kind of the requests to compile the program into the bytecode of the class
+     */
+    static final byte COMPILE_REQUEST = 1,
+    /**
+     * Kind of the requests to compile and run the program returning its output
+     */
+    RUN_REQUEST = 2;
+
+    /**
+     * Status of the responses to the successful requests
+     */
+    static final byte SUCCESS_RESPONSE = 0,
+    /**
+     * Status of the responses to the requests whose source code could not be parsed
+     */
+    PARSE_FAILURE_RESPONSE = 1,
+    /**
+     * Status of the responses to the requests which failed for any other reason
+     */
+    FAILURE_RESPONSE = 2;
+
+    /**
+     * Maximal length of the payload of a frame
+     */
+    static final int MAX_PAYLOAD_LENGTH = 1 << 26;
+
+    /**
+     * Maximal amount of the connections served at once
+     */
+    static final int MAX_CONNECTIONS = 64;
+
+    /**
+     * Length of the line separator written by the programs
+     */
+    private static final int LINE_SEPARATOR_LENGTH = System.lineSeparator().length();
+
+    /**
+     * Delay in milliseconds after a failure to accept a connection
+     */
+    private static final long ACCEPT_FAILURE_DELAY_MILLIS = 100;
+
+    /**
+     * Counter of the daemons used to name their threads
+     */
+    private static final AtomicInteger DAEMON_COUNTER = new AtomicInteger();
+
+    /**
+     * Compiler serving the compile requests
+     */
+    @ToString.Include @NonNull AbstractAsmHQ9PlusCompiler<?, ?> compiler;
+
+    /**
+     * Compiler of the reentrant programs serving the run requests
+     */
+    @NonNull AbstractAsmHQ9PlusCompiler<?, ?> runCompiler;
+
+    /**
+     * Definer of the classes of the run programs
+     */
+    @NonNull HQ9PlusClassDefiner definer;
+
+    /**
+     * Socket accepting the connections
+     */
+    @ToString.Include @NonNull ServerSocket serverSocket;
+
+    /**
+     * Executor accepting and serving the connections
+     */
+    @NonNull ExecutorService executor;
+
+    /**
+     * Currently open connections
+     */
+    Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Latch released once the connections are no longer accepted
+     */
+    CountDownLatch acceptorStopped = new CountDownLatch(1);
+
+    /**
+     * Creates a new compile daemon.
+     *
+     * @param compiler compiler serving the compile requests
+     * @param serverSocket socket accepting the connections
+     */
+    private HQ9PlusCompileDaemon(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                 @NonNull final ServerSocket serverSocket) {
+        this.compiler = compiler;
+        runCompiler = compiler.options.isReentrant() ? compiler : AsmHQ9PlusCompilers.streamBased(
+                compiler.respectCase, compiler.options.toBuilder().reentrant(true).build()
+        );
+        definer = HQ9PlusClassDefiners.standard();
+        this.serverSocket = serverSocket;
+
+        final String threadNamePrefix = "HQ9+ compile daemon #" + DAEMON_COUNTER.getAndIncrement() + " thread #";
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, threadNamePrefix + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a new compile daemon listening on the loopback address.
+     *
+     * @param compiler compiler serving the compile requests, its options with reentrant execution
+     * are used to compile the programs of the run requests
+     * @param port port on which the daemon should listen or {@code 0} to pick any free port
+     * @return started compile daemon
+     *
+     * @throws IOException if the socket cannot be bound
+     */
+    public static HQ9PlusCompileDaemon start(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                             final int port) throws IOException {
+        final HQ9PlusCompileDaemon daemon = new HQ9PlusCompileDaemon(
+                compiler, new ServerSocket(port, 0, InetAddress.getLoopbackAddress())
+        );
+        daemon.executor.execute(daemon::acceptConnections);
+
+        return daemon;
+    }
+
+    /**
+     * Gets the port on which this daemon listens.
+     *
+     * @return port on which this daemon listens
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts the connections until this daemon gets closed.
+     */
+    private void acceptConnections() {
+        try {
+            acceptConnectionsUntilClosed();
+        } finally {
+            acceptorStopped.countDown();
+        }
+    }
+
+    /**
+     * Accepts the connections until the socket accepting them gets closed.
+     */
+    private void acceptConnectionsUntilClosed() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (final IOException e) {
+                if (serverSocket.isClosed()) return;
+
+                // the failure may be persistent (i.e. too many open files) so it should not be retried immediately
+                try {
+                    Thread.sleep(ACCEPT_FAILURE_DELAY_MILLIS);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    try {
+                        serverSocket.close();
+                    } catch (final IOException ignored) {
+                        // the daemon cannot accept the connections anyway
+                    }
+                    return;
+                }
+                continue;
+            }
+
+            // each connection occupies its own thread so their amount is limited
+            if (connections.size() >= MAX_CONNECTIONS) {
+                closeConnection(socket);
+                continue;
+            }
+
+            connections.add(socket);
+            try {
+                executor.execute(() -> serve(socket));
+            } catch (final RejectedExecutionException e) {
+                closeConnection(socket); // the daemon is being closed
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of the given connection until it gets closed.
+     *
+     * @param socket socket of the connection
+     */
+    private void serve(@NotNull final Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            int kind;
+            while ((kind = input.read()) != -1) {
+                final String className = input.readUTF();
+                final byte[] sourceCode = readPayload(input);
+                respond(output, (byte) kind, className, sourceCode);
+                output.flush();
+            }
+        } catch (final IOException ignored) {
+            // the connection is broken or the daemon is closed
+        } finally {
+            closeConnection(socket);
+        }
+    }
+
+    /**
+     * Responds to the request.
+     *
+     * @param output output to which the response should be written
+     * @param kind kind of the request
+     * @param className name of the compiled class
+     * @param sourceCode ASCII source code of the program
+     *
+     * @throws IOException if an exception occurs while writing the response
+     */
+    private void respond(@NotNull final DataOutputStream output, final byte kind,
+                         @NotNull final String className, @NotNull final byte[] sourceCode) throws IOException {
+        final byte[] payload;
+        try {
+            switch (kind) {
+                case COMPILE_REQUEST: {
+                    payload = compiler.compileAsciiToBytes(className, ByteBuffer.wrap(sourceCode));
+                    break;
+                }
+                case RUN_REQUEST: {
+                    final HQ9PlusPackedAst ast = HQ9PlusPackedAst.parse(
+                            HQ9PlusAsciiSourceCode.scan(ByteBuffer.wrap(sourceCode), runCompiler.respectCase)
+                    );
+                    // the programs whose output cannot be sent are rejected without being run
+                    final long outputLength = AbstractAsmHQ9PlusCompiler.outputLength(ast, LINE_SEPARATOR_LENGTH);
+                    if (outputLength > MAX_PAYLOAD_LENGTH) {
+                        writeFrame(output, FAILURE_RESPONSE, "Program output is longer than " + MAX_PAYLOAD_LENGTH
+                                + " (" + outputLength + ')');
+                        return;
+                    }
+
+                    final PayloadOutputStream programOutput = new PayloadOutputStream((int) outputLength);
+                    HQ9PlusProgram.of(definer.define(runCompiler.compileAstToBytes(className, ast)))
+                            .execute(programOutput);
+                    payload = programOutput.toByteArray();
+                    break;
+                }
+                default: {
+                    writeFrame(output, FAILURE_RESPONSE, "Unknown request kind: " + kind);
+                    return;
+                }
+            }
+        } catch (final HQ9PlusAstParseException e) {
+            writeFrame(output, PARSE_FAILURE_RESPONSE, String.valueOf(e.getMessage()));
+            return;
+        } catch (final RuntimeException | LinkageError e) {
+            writeFrame(output, FAILURE_RESPONSE, e.toString());
+            return;
+        }
+
+        writeFrame(output, SUCCESS_RESPONSE, payload);
+    }
+
+    /**
+     * Closes the given connection.
+     *
+     * @param socket socket of the connection
+     */
+    private void closeConnection(@NotNull final Socket socket) {
+        connections.remove(socket);
+        try {
+            socket.close();
+        } catch (final IOException ignored) {
+            // the connection is closed anyway
+        }
+    }
+
+    /**
+     * Stops accepting the connections and closes the open ones.
+     * The port is released once this method returns.
+     *
+     * @throws IOException if an exception occurs while closing the socket accepting the connections
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            serverSocket.close();
+            // the socket may only be released once the thread blocked on accepting the connections leaves it
+            acceptorStopped.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            for (final Socket socket : connections) closeConnection(socket);
+        }
+    }
+
+    /**
+     * Reads the payload of the frame.
+     *
+     * @param input input from which the payload should be read
+     * @return read payload
+     *
+     * @throws IOException if an exception occurs while reading the payload or its length is invalid
+     */
+    static byte[] readPayload(@NonNull final DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0 || length > MAX_PAYLOAD_LENGTH) throw new IOException(
+                "Frame payload length should be between 0 and " + MAX_PAYLOAD_LENGTH + " (" + length + ')'
+        );
+
+        final byte[] payload = new byte[length];
+        input.readFully(payload);
+
+        return payload;
+    }
+
+    /**
+     * Writes the response frame.
+     *
+     * @param output output to which the frame should be written
+     * @param status status of the response
+     * @param payload payload of the frame
+     *
+     * @throws IOException if an exception occurs while writing the frame
+     */
+    private static void writeFrame(@NotNull final DataOutputStream output, final byte status,
+                                   @NotNull final byte[] payload) throws IOException {
+        output.writeByte(status);
+        output.writeInt(payload.length);
+        output.write(payload);
+    }
+
+    /**
+     * Writes the response frame whose payload is the message.
+     *
+     * @param output output to which the frame should be written
+     * @param status status of the response
+     * @param message message of the failure
+     *
+     * @throws IOException if an exception occurs while writing the frame
+     */
+    private static void writeFrame(@NotNull final DataOutputStream output, final byte status,
+                                   @NotNull final String message) throws IOException {
+        writeFrame(output, status, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Output stream collecting at most {@link #MAX_PAYLOAD_LENGTH} bytes.
+     * Writing more bytes throws an unchecked exception so that it is not swallowed by {@link PrintStream}
+     * and stops the program.
+     */
+    private static final class PayloadOutputStream extends ByteArrayOutputStream {
+
+        /**
+         * Creates a new payload output stream.
+         *
+         * @param size initial capacity of the stream
+         */
+        private PayloadOutputStream(final int size) {
+            super(size);
+        }
+
+        @Override
+        public synchronized void write(final int b) {
+            if (count >= MAX_PAYLOAD_LENGTH) throw overflow();
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(final @NotNull byte[] b, final int off, final int len) {
+            if (len > MAX_PAYLOAD_LENGTH - count) throw overflow();
+            super.write(b, off, len);
+        }
+
+        /**
+         * Creates an exception describing the overflow of the payload.
+         *
+         * @return created exception
+         */
+        private static UncheckedIOException overflow() {
+            return new UncheckedIOException(new IOException("Program output is longer than " + MAX_PAYLOAD_LENGTH));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client of {@link HQ9PlusCompileDaemon} sending its requests over a single connection.
+ * <p>
+ * The requests of concurrent threads get sent one by one.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusCompileDaemonClient implements Closeable {
+
+    /**
+     * Socket of the connection
+     */
+    @ToString.Include @NonNull Socket socket;
+
+    /**
+     * Input of the responses
+     */
+    @NonNull DataInputStream input;
+
+    /**
+     * Output of the requests
+     */
+    @NonNull DataOutputStream output;
+
+    /**
+     * Creates a new compile daemon client.
+     *
+     * @param socket socket of the connection
+     *
+     * @throws IOException if the streams of the socket cannot be opened
+     */
+    private HQ9PlusCompileDaemonClient(@NonNull final Socket socket) throws IOException {
+        this.socket = socket;
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Connects to the compile daemon listening on the loopback address.
+     *
+     * @param port port on which the daemon listens
+     * @return connected client
+     *
+     * @throws IOException if the connection cannot be established
+     */
+    public static HQ9PlusCompileDaemonClient connect(final int port) throws IOException {
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        try {
+            socket.setTcpNoDelay(true);
+
+            return new HQ9PlusCompileDaemonClient(socket);
+        } catch (final IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Compiles the given source code into the bytecode of the class.
+     *
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws IOException if an exception occurs while communicating with the daemon or the daemon fails
+     * @throws HQ9PlusAstParseException if the daemon fails to parse the source code
+     */
+    public byte[] compile(@NonNull final String className, @NonNull final CharSequence sourceCode) throws IOException {
+        return request(HQ9PlusCompileDaemon.COMPILE_REQUEST, className, sourceCode);
+    }
+
+    /**
+     * Compiles and runs the given source code.
+     *
+     * @param sourceCode source code of the program
+     * @return output of the program
+     *
+     * @throws IOException if an exception occurs while communicating with the daemon or the daemon fails
+     * @throws HQ9PlusAstParseException if the daemon fails to parse the source code
+     */
+    public byte[] run(@NonNull final CharSequence sourceCode) throws IOException {
+        return request(HQ9PlusCompileDaemon.RUN_REQUEST, HQ9PlusProgram.defaultClassName(), sourceCode);
+    }
+
+    /**
+     * Sends the request awaiting its response.
+     *
+     * @param kind kind of the request
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return payload of the successful response
+     *
+     * @throws IOException if an exception occurs while communicating with the daemon or the daemon fails
+     * @throws HQ9PlusAstParseException if the daemon fails to parse the source code
+     */
+    private synchronized byte[] request(final byte kind, @NotNull final String className,
+                                        @NotNull final CharSequence sourceCode) throws IOException {
+        // characters beyond ASCII are invalid anyway so that they only have to be reported by the daemon
+        final byte[] sourceCodeBytes = sourceCode.toString().getBytes(StandardCharsets.UTF_8);
+        output.writeByte(kind);
+        output.writeUTF(className);
+        output.writeInt(sourceCodeBytes.length);
+        output.write(sourceCodeBytes);
+        output.flush();
+
+        final int status = input.readUnsignedByte();
+        final byte[] payload = HQ9PlusCompileDaemon.readPayload(input);
+        switch (status) {
+            case HQ9PlusCompileDaemon.SUCCESS_RESPONSE: return payload;
+            case HQ9PlusCompileDaemon.PARSE_FAILURE_RESPONSE: {
+                throw new HQ9PlusAstParseException(new String(payload, StandardCharsets.UTF_8));
+            }
+            case HQ9PlusCompileDaemon.FAILURE_RESPONSE: {
+                throw new IOException("Compile daemon failed: " + new String(payload, StandardCharsets.UTF_8));
+            }
+            default: throw new IOException("Unknown response status: " + status);
+        }
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException if an exception occurs while closing the connection
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
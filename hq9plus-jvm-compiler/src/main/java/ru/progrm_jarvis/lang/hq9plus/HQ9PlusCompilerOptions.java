@@ -0,0 +1,91 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * Options of classes generated by {@link AbstractAsmHQ9PlusCompiler}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class HQ9PlusCompilerOptions {
+
+    /**
+     * Default options
+     */
+    public static final HQ9PlusCompilerOptions DEFAULT = builder().build();
+
+    /**
+     * {@code true} if the generated program should write its output through a single buffer
+     * flushed once the program completes or once the buffer gets full,
+     * and {@code false} if it should print directly to {@link System#out}
+     * <p>
+     * With buffered output the printed texts get encoded once per class rather than on each print.
+     * With {@link #isReentrant() reentrant execution} the output of each run gets flushed once it completes
+     * and its buffering is up to the run's output.
+     */
+    @Builder.Default boolean bufferedOutput = false;
+
+    /**
+     * Size of the buffer used for buffered output, i.e. the amount of bytes after which the output gets flushed
+     *
+     * @see #isBufferedOutput()
+     */
+    @Builder.Default int outputBufferSize = 8192;
+
+    /**
+     * Strategy of the accumulator incremented by {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#PLUS +} nodes
+     */
+    @Builder.Default @NonNull HQ9PlusAccumulatorMode accumulatorMode = HQ9PlusAccumulatorMode.PLAIN;
+
+    /**
+     * {@code true} if the generated class should extend {@link HQ9PlusExecution} so that each of its instances
+     * is a single run of the program with its own accumulator and output,
+     * and {@code false} if the program should only use static state and {@link System#out}
+     * <p>
+     * The {@code main} method of the reentrant class runs a new instance writing to {@link System#out}.
+     * The {@link #getAccumulatorMode() accumulator mode} is ignored as the accumulator of a run is never shared.
+     */
+    @Builder.Default boolean reentrant = false;
+
+    /**
+     * Level of optimizations applied to the generated class
+     */
+    @Builder.Default @NonNull HQ9PlusOptimizationLevel optimizationLevel = HQ9PlusOptimizationLevel.NONE;
+
+    /**
+     * Maximal amount of characters of the output of the program which gets evaluated at compile-time
+     *
+     * @see HQ9PlusOptimizationLevel#FOLD_OUTPUT
+     */
+    @Builder.Default int foldedOutputBudget = 65536;
+
+    /**
+     * Version of the generated class files
+     * <p>
+     * Since {@link HQ9PlusClassFileVersion#JAVA_11 Java 11} the encoded texts are dynamic constants
+     * so that they do not slow down the initialization of the class and only get encoded once they are first used.
+     */
+    @Builder.Default @NonNull HQ9PlusClassFileVersion classFileVersion = HQ9PlusClassFileVersion.JAVA_8;
+
+    /**
+     * {@code true} if the generated program should emit {@link HQ9PlusOperationEvent} around each run
+     * of the same operations and {@code false} otherwise
+     * <p>
+     * Such programs require <i>JDK Flight Recorder</i> and this library at run-time,
+     * their output is never {@link HQ9PlusOptimizationLevel#FOLD_OUTPUT folded}.
+     * Disabled events do not change the generated classes.
+     */
+    @Builder.Default boolean flightRecorderEvents = false;
+
+    /**
+     * Listener notified about each class compiled
+     * <p>
+     * The listener does not affect the generated classes so it is not considered by {@link #equals(Object)}.
+     */
+    @EqualsAndHashCode.Exclude @ToString.Exclude
+    @Builder.Default @NonNull HQ9PlusCompilationListener listener = HQ9PlusCompilationListener.NONE;
+}
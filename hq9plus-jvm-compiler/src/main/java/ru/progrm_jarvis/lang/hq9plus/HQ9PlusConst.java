@@ -1,5 +1,6 @@
 package ru.progrm_jarvis.lang.hq9plus;
 
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
 /**
@@ -17,4 +18,34 @@ public class HQ9PlusConst {
      * Default amount of bottles of beer meant by {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#NINE}
      */
     public final int DEFAULT_BEER_BOTTLE_COUNT = 99;
+
+    /**
+     * Renders the lyrics of <i><b>N</b>-bottles of beer</i> song.
+     *
+     * @param initialBottles initial amount of bottles of beer
+     * @param lineSeparator separator of lines of the song
+     * @return lyrics of the song
+     */
+    public String bottlesOfBeerSong(final int initialBottles, @NonNull final String lineSeparator) {
+        if (initialBottles < 1) throw new IllegalArgumentException(
+                "There is no need to sing about bottles of beer if there isn't enough of those (" + initialBottles + ')'
+        );
+
+        final StringBuilder song = new StringBuilder();
+        for (int bottles = initialBottles; bottles > 1; bottles--) song
+                .append(bottles).append(" bottles of beer on the wall, ")
+                .append(bottles).append(" bottles of beer.").append(lineSeparator)
+                .append("Take one down and pass it around, ")
+                .append(bottles - 1).append(" bottles of beer on the wall.").append(lineSeparator)
+                .append(lineSeparator);
+
+        return song
+                .append("1 bottle of beer on the wall, 1 bottle of beer.").append(lineSeparator)
+                .append("Take one down and pass it around, no more bottles of beer on the wall.").append(lineSeparator)
+                .append(lineSeparator)
+                .append("No more bottles of beer on the wall, no more bottles of beer.").append(lineSeparator)
+                .append("Go to the store and buy some more, ").append(initialBottles)
+                .append(" bottles of beer on the wall.").append(lineSeparator)
+                .toString();
+    }
 }
@@ -0,0 +1,51 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.NonNull;
+
+import java.io.PrintStream;
+
+/**
+ * Single run of a <b>HQ9+ programming language</b> program compiled
+ * with {@link HQ9PlusCompilerOptions#isReentrant() reentrant execution}.
+ * <p>
+ * Each instance has its own output and accumulator so that multiple runs of the same program
+ * may happen concurrently without sharing any state.
+ * An instance should be {@link #run() run} at most once.
+ */
+public abstract class HQ9PlusExecution implements Runnable {
+
+    /**
+     * Output of this run
+     */
+    protected final @NonNull PrintStream output;
+
+    /**
+     * Accumulator of this run incremented by {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#PLUS +} nodes
+     */
+    protected long counter;
+
+    /**
+     * Creates a new run of the program.
+     *
+     * @param output output of the run
+     */
+    protected HQ9PlusExecution(@NonNull final PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Gets the value of this run's accumulator.
+     *
+     * @return value of the accumulator incremented by {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#PLUS +}
+     * nodes executed by this run
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    /**
+     * Executes the program writing its output to {@link #output} and incrementing {@link #counter}.
+     */
+    @Override
+    public abstract void run();
+}
@@ -0,0 +1,377 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import ru.progrm_jarvis.lang.hq9plus.AbstractAsmHQ9PlusCompiler.ChunkedMethodEmitter;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiler of the successive versions of a single <b>HQ9+ programming language</b> program
+ * which reuses the bytecode of the previous version.
+ * <p>
+ * The body of the program is emitted into chunk methods each of which covers a range of runs of equal AST-nodes.
+ * Once the program is edited, only the chunk methods covering the changed runs get regenerated
+ * while the rest of them (as well as the fixed methods) get copied from the previous class as is.
+ * The {@link HQ9PlusAstNode#Q Q} method and the static initializer always get regenerated
+ * as they depend on the whole source code.
+ * <p>
+ * The class gets generated from scratch whenever the set of the used AST-nodes changes
+ * or once the copied constant pool holds too many constants of the dropped methods.
+ * <p>
+ * Only the generation of the unchanged chunk methods is saved so the cost of each version
+ * is still proportional to the size of the whole program rather than to the size of the edit:
+ * the whole source code gets parsed again, the whole previous class gets copied through {@link ClassReader}
+ * and the {@link HQ9PlusAstNode#Q Q} method and the static initializer embed the whole source code.
+ * Thus a small edit of a big program compiles only a constant factor faster than the program compiled from scratch.
+ * <p>
+ * This compiler is not thread-safe.
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class HQ9PlusIncrementalCompiler {
+
+    /**
+     * Maximal ratio of the size of the incrementally generated class to the size of the class
+     * generated from scratch after which the class gets generated from scratch again
+     */
+    private static final int MAX_CLASS_GROWTH = 2;
+
+    /**
+     * Compiler whose options are used for the generated classes
+     */
+    final @NonNull AbstractAsmHQ9PlusCompiler<?, ?> compiler;
+
+    /**
+     * Internal name of the generated class
+     */
+    final @NonNull String internalClassName;
+
+    /**
+     * AST of the previous version of the program or {@code null} if nothing has been compiled yet
+     */
+    @ToString.Exclude @Nullable HQ9PlusPackedAst previousAst;
+
+    /**
+     * Bytecode of the previously generated class or {@code null} if it has no chunk methods to reuse
+     */
+    @ToString.Exclude @Nullable byte[] previousBytecode;
+
+    /**
+     * Chunk methods of the previously generated class in the order of their runs
+     */
+    @ToString.Exclude @NonNull List<Chunk> previousChunks = Collections.emptyList();
+
+    /**
+     * Size of the last class generated from scratch
+     */
+    int initialBytecodeLength;
+
+    /**
+     * Amount of chunk methods reused by the last compilation
+     */
+    @Getter int reusedChunkCount;
+
+    /**
+     * Creates a new incremental compiler.
+     *
+     * @param compiler compiler whose options are used for the generated classes
+     * @param internalClassName internal name of the generated class
+     */
+    private HQ9PlusIncrementalCompiler(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                       @NonNull final String internalClassName) {
+        this.compiler = compiler;
+        this.internalClassName = internalClassName;
+    }
+
+    /**
+     * Creates a new incremental compiler of the class of the given name.
+     *
+     * @param compiler compiler whose options are used for the generated classes
+     * @param className name of the generated class
+     * @return created incremental compiler
+     */
+    public static HQ9PlusIncrementalCompiler create(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                                    @NonNull final String className) {
+        return new HQ9PlusIncrementalCompiler(compiler, className.replace('.', '/'));
+    }
+
+    /**
+     * Compiles the next version of the program into the bytecode of the class.
+     *
+     * @param sourceCode source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] compile(@NonNull final CharSequence sourceCode) {
+        final HQ9PlusPackedAst ast = HQ9PlusPackedAst.parse(sourceCode, compiler.respectCase);
+        if (compiler.isOutputFoldable()) {
+            final String foldedOutput = compiler.foldOutput(ast);
+            if (foldedOutput != null) {
+                // the folded class has no chunk methods so the next version is generated from scratch
+                previousAst = null;
+                previousBytecode = null;
+                previousChunks = Collections.emptyList();
+                reusedChunkCount = 0;
+
+                return compiler.generateFoldedClass(internalClassName, ast, foldedOutput);
+            }
+        }
+
+        final HQ9PlusPackedAst previousAst = this.previousAst;
+        final byte[] previousBytecode = this.previousBytecode;
+        Body body = previousAst != null && previousBytecode != null
+                && previousBytecode.length <= MAX_CLASS_GROWTH * initialBytecodeLength
+                && usesSameNodes(previousAst, ast)
+                ? new Body(ast, previousAst, new ClassReader(previousBytecode))
+                : new Body(ast);
+        // the class is smaller if nothing gets copied from the previous one
+        if (body.previousClass != null && body.reusedChunkNames.isEmpty()) body = new Body(ast);
+
+        final byte[] bytecode = compiler.generateClass(internalClassName, ast, body);
+        if (body.previousClass == null) initialBytecodeLength = bytecode.length;
+        this.previousAst = ast;
+        this.previousBytecode = bytecode;
+        previousChunks = body.chunks;
+        reusedChunkCount = body.reusedChunkNames.size();
+
+        return bytecode;
+    }
+
+    /**
+     * Checks whether both programs use the same AST-nodes.
+     *
+     * @param ast AST of the first program
+     * @param otherAst AST of the second program
+     * @return {@code true} if the programs use the same AST-nodes and {@code false} otherwise
+     */
+    private static boolean usesSameNodes(@NonNull final HQ9PlusPackedAst ast,
+                                         @NonNull final HQ9PlusPackedAst otherAst) {
+        for (final HQ9PlusAstNode node : HQ9PlusAstNode.values()) if (ast.contains(node) != otherAst.contains(node)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Chunk method of the generated class.
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Chunk {
+
+        /**
+         * Index of the first run emitted into the chunk method
+         * which covers all the runs preceding the first run of the next chunk method
+         */
+        final int firstRun;
+
+        /**
+         * Name of the chunk method
+         */
+        final @NonNull String methodName;
+
+        /**
+         * {@code true} if the chunk method contains {@link HQ9PlusAstNode#Q Q} runs and {@code false} otherwise
+         */
+        boolean printsSourceCode;
+    }
+
+    /**
+     * Body of the program reusing the chunk methods of the previous class which cover unchanged runs.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private final class Body implements AbstractAsmHQ9PlusCompiler.ProgramBody {
+
+        /**
+         * AST of the program
+         */
+        @NonNull HQ9PlusPackedAst ast;
+
+        /**
+         * Reader of the previously generated class or {@code null} if the class is generated from scratch
+         */
+        @Nullable ClassReader previousClass;
+
+        /**
+         * Amount of the leading chunk methods of the previous class which are reused
+         */
+        int prefixChunkCount;
+
+        /**
+         * Index of the first of the trailing chunk methods of the previous class which are reused
+         */
+        int suffixChunkIndex;
+
+        /**
+         * Difference between the amounts of runs of the program and of its previous version
+         */
+        int runCountDelta;
+
+        /**
+         * Index of the first chunk method created by this body
+         */
+        int firstChunkIndex;
+
+        /**
+         * Names of the reused chunk methods
+         */
+        Set<String> reusedChunkNames = new HashSet<>();
+
+        /**
+         * Chunk methods of the generated class in the order of their runs
+         */
+        List<Chunk> chunks = new ArrayList<>();
+
+        /**
+         * Creates a body of the program generated from scratch.
+         *
+         * @param ast AST of the program
+         */
+        private Body(@NonNull final HQ9PlusPackedAst ast) {
+            this.ast = ast;
+            previousClass = null;
+            prefixChunkCount = 0;
+            suffixChunkIndex = 0;
+            runCountDelta = 0;
+            firstChunkIndex = 0;
+        }
+
+        /**
+         * Creates a body of the program reusing the chunk methods of the previous class.
+         *
+         * @param ast AST of the program
+         * @param previousAst AST of the previous version of the program
+         * @param previousClass reader of the previously generated class
+         */
+        private Body(@NonNull final HQ9PlusPackedAst ast, @NonNull final HQ9PlusPackedAst previousAst,
+                     @NonNull final ClassReader previousClass) {
+            this.ast = ast;
+            this.previousClass = previousClass;
+
+            final int runCount = ast.getRunCount();
+            final int previousRunCount = previousAst.getRunCount();
+            runCountDelta = runCount - previousRunCount;
+            // find the unchanged leading runs
+            final int minRunCount = Math.min(runCount, previousRunCount);
+            int prefixLength = 0;
+            while (prefixLength < minRunCount && ast.runEquals(prefixLength, previousAst, prefixLength)) prefixLength++;
+
+            // the instrumented chunk methods record the length of the printed source code
+            final boolean sourceLengthChanged = compiler.options.isFlightRecorderEvents()
+                    && ast.getSourceCode().length() != previousAst.getSourceCode().length();
+            final List<Chunk> previousChunks = HQ9PlusIncrementalCompiler.this.previousChunks;
+            final int previousChunkCount = previousChunks.size();
+            int prefixChunkCount = 0;
+            while (prefixChunkCount < previousChunkCount && (
+                    prefixChunkCount + 1 < previousChunkCount
+                            ? previousChunks.get(prefixChunkCount + 1).firstRun : previousRunCount
+            ) <= prefixLength && !(sourceLengthChanged && previousChunks.get(prefixChunkCount).printsSourceCode)) {
+                prefixChunkCount++;
+            }
+
+            // find the unchanged trailing runs which are not covered by the reused leading chunk methods
+            final int reusedPrefixLength;
+            if (prefixChunkCount == 0) reusedPrefixLength = 0;
+            else reusedPrefixLength = prefixChunkCount == previousChunkCount
+                    ? previousRunCount : previousChunks.get(prefixChunkCount).firstRun;
+            int suffixLength = 0;
+            while (suffixLength < minRunCount - reusedPrefixLength && ast.runEquals(
+                    runCount - 1 - suffixLength, previousAst, previousRunCount - 1 - suffixLength
+            )) suffixLength++;
+            int suffixChunkIndex = previousChunkCount;
+            while (suffixChunkIndex > prefixChunkCount
+                    && previousChunks.get(suffixChunkIndex - 1).firstRun >= previousRunCount - suffixLength
+                    && !(sourceLengthChanged && previousChunks.get(suffixChunkIndex - 1).printsSourceCode)) {
+                suffixChunkIndex--;
+            }
+            this.prefixChunkCount = prefixChunkCount;
+            this.suffixChunkIndex = suffixChunkIndex;
+            // the reused chunk methods have to be known before the previous class gets copied
+            for (int index = 0; index < prefixChunkCount; index++) reusedChunkNames.add(
+                    previousChunks.get(index).methodName
+            );
+            for (int index = suffixChunkIndex; index < previousChunkCount; index++) reusedChunkNames.add(
+                    previousChunks.get(index).methodName
+            );
+
+            // the created chunk methods should not clash with the reused ones
+            int maxChunkIndex = -1;
+            for (final Chunk chunk : previousChunks) maxChunkIndex = Math.max(maxChunkIndex, Integer.parseInt(
+                    chunk.methodName.substring(ChunkedMethodEmitter.CHUNK_METHOD_NAME_PREFIX.length())
+            ));
+            firstChunkIndex = maxChunkIndex + 1;
+        }
+
+        @Override
+        public @Nullable ClassReader previousClass() {
+            return previousClass;
+        }
+
+        @Override
+        public boolean isChunkReused(@NotNull final String chunkMethodName) {
+            return reusedChunkNames.contains(chunkMethodName);
+        }
+
+        @Override
+        public int firstChunkIndex() {
+            return firstChunkIndex;
+        }
+
+        @Override
+        public void emit(@NotNull final ChunkedMethodEmitter emitter,
+                         @NotNull final HQ9PlusAccumulatorMode accumulatorMode, final boolean emitPlus) {
+            final List<Chunk> previousChunks = previousClass == null
+                    ? Collections.emptyList() : HQ9PlusIncrementalCompiler.this.previousChunks;
+            for (int index = 0; index < prefixChunkCount; index++) reuse(emitter, previousChunks.get(index), 0);
+
+            // the changed runs get emitted into new chunk methods
+            final int previousChunkCount = previousChunks.size();
+            final int firstRun;
+            if (prefixChunkCount == 0) firstRun = 0;
+            else firstRun = prefixChunkCount == previousChunkCount
+                    ? ast.getRunCount() - runCountDelta : previousChunks.get(prefixChunkCount).firstRun;
+            final int endRun = suffixChunkIndex == previousChunkCount
+                    ? ast.getRunCount() : previousChunks.get(suffixChunkIndex).firstRun + runCountDelta;
+            Chunk chunk = null;
+            for (int run = firstRun; run < endRun; run++) {
+                AbstractAsmHQ9PlusCompiler.emitProgramRun(emitter, accumulatorMode, ast, run, emitPlus);
+                final String chunkMethodName = emitter.currentChunkMethodName();
+                if (chunkMethodName != null && (chunk == null || !chunk.methodName.equals(chunkMethodName))) {
+                    chunks.add(chunk = new Chunk(run, chunkMethodName, false));
+                }
+                if (chunk != null && ast.runNode(run) == HQ9PlusAstNode.Q) chunk.printsSourceCode = true;
+            }
+
+            for (int index = suffixChunkIndex; index < previousChunkCount; index++) reuse(
+                    emitter, previousChunks.get(index), runCountDelta
+            );
+        }
+
+        /**
+         * Reuses the given chunk method of the previous class.
+         *
+         * @param emitter emitter of the program body
+         * @param chunk reused chunk method
+         * @param runDelta amount by which the indices of the runs of the chunk method are shifted
+         */
+        private void reuse(@NonNull final ChunkedMethodEmitter emitter, @NonNull final Chunk chunk,
+                           final int runDelta) {
+            emitter.reuseChunk(chunk.methodName);
+            chunks.add(runDelta == 0 ? chunk : new Chunk(
+                    chunk.firstRun + runDelta, chunk.methodName, chunk.printsSourceCode
+            ));
+        }
+    }
+}
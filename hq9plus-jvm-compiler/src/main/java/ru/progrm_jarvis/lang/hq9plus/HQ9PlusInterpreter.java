@@ -0,0 +1,205 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.io.*;
+
+/**
+ * Interpreter of <b>HQ9+ programming language</b> programs.
+ * <p>
+ * The program gets executed while its source code is being read so that no class has to be generated and loaded,
+ * its output is the same as the output of the program compiled by {@link AbstractAsmHQ9PlusCompiler}.
+ * Unlike the compiled program, the interpreted one may produce some output before an invalid token is reached.
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusInterpreter {
+
+    /**
+     * Maximal amount of characters of source code read at once
+     */
+    private static final int SOURCE_CODE_CHUNK_SIZE = 8192;
+
+    /**
+     * {@code true} if the case of source code should be respected and {@code false} otherwise
+     */
+    @Getter boolean respectCase;
+
+    /**
+     * Separator of the lines of the output
+     */
+    @Getter @NonNull String lineSeparator;
+
+    /**
+     * Output of {@link HQ9PlusAstNode#H H} node
+     */
+    @ToString.Exclude @NonNull String helloWorldOutput;
+
+    /**
+     * Output of {@link HQ9PlusAstNode#NINE 9} node
+     */
+    @ToString.Exclude @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    String bottlesOfBeerOutput = HQ9PlusConst.bottlesOfBeerSong(HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT, lineSeparator);
+
+    /**
+     * Creates a new interpreter.
+     *
+     * @param respectCase {@code true} if the case of source code should be respected and {@code false} otherwise
+     * @param lineSeparator separator of the lines of the output
+     */
+    private HQ9PlusInterpreter(final boolean respectCase, @NonNull final String lineSeparator) {
+        this.respectCase = respectCase;
+        this.lineSeparator = lineSeparator;
+        helloWorldOutput = HQ9PlusConst.HELLO_WORLD_TEXT + lineSeparator;
+    }
+
+    /**
+     * Creates a new interpreter separating the lines of the output with the given separator.
+     *
+     * @param respectCase {@code true} if the case of source code should be respected and {@code false} otherwise
+     * @param lineSeparator separator of the lines of the output
+     * @return created interpreter
+     */
+    public static HQ9PlusInterpreter create(final boolean respectCase, @NonNull final String lineSeparator) {
+        return new HQ9PlusInterpreter(respectCase, lineSeparator);
+    }
+
+    /**
+     * Creates a new interpreter separating the lines of the output with {@link System#lineSeparator() the system one}.
+     *
+     * @param respectCase {@code true} if the case of source code should be respected and {@code false} otherwise
+     * @return created interpreter
+     */
+    public static HQ9PlusInterpreter create(final boolean respectCase) {
+        return create(respectCase, System.lineSeparator());
+    }
+
+    /**
+     * Interprets the program reading its source code from the given reader.
+     * <p>
+     * Source code is read lazily and only kept in memory for {@link HQ9PlusAstNode#Q Q} nodes,
+     * the first of which reads the rest of it.
+     *
+     * @param source reader providing the source code
+     * @param output sink to which the program's output should be written
+     * @return final value of the program's counter incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     *
+     * @throws IOException if an exception occurs while reading source code or writing the output
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an invalid token is reached
+     */
+    public long interpret(@NonNull final Reader source, @NonNull final Appendable output) throws IOException {
+        final StringBuilder sourceCode = new StringBuilder();
+        final char[] buffer = new char[SOURCE_CODE_CHUNK_SIZE];
+        boolean fullyRead = false;
+        long counter = 0;
+        int position = 0;
+        while (true) {
+            if (position == sourceCode.length()) {
+                if (fullyRead) break;
+
+                final int read = source.read(buffer);
+                if (read == -1) break;
+                sourceCode.append(buffer, 0, read);
+            }
+
+            switch (HQ9PlusAstNode.match(sourceCode.charAt(position++), respectCase)) {
+                case H: {
+                    output.append(helloWorldOutput);
+                    break;
+                }
+                case Q: {
+                    if (!fullyRead) {
+                        // the whole source code gets printed so it has to be read
+                        int read;
+                        while ((read = source.read(buffer)) != -1) sourceCode.append(buffer, 0, read);
+                        fullyRead = true;
+                    }
+                    output.append(sourceCode).append(lineSeparator);
+                    break;
+                }
+                case NINE: {
+                    output.append(getBottlesOfBeerOutput());
+                    break;
+                }
+                case PLUS: {
+                    counter++;
+                    break;
+                }
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Interprets the given already parsed program.
+     * <p>
+     * Unlike the other methods, this one executes each run of equal AST-nodes at once.
+     *
+     * @param ast AST of the program
+     * @param output sink to which the program's output should be written
+     * @return final value of the program's counter incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     *
+     * @throws IOException if an exception occurs while writing the output
+     */
+    public long interpret(@NonNull final HQ9PlusPackedAst ast, @NonNull final Appendable output) throws IOException {
+        final CharSequence sourceCode = ast.getSourceCode();
+        long counter = 0;
+        final int runCount = ast.getRunCount();
+        for (int run = 0; run < runCount; run++) {
+            final int runLength = ast.runLength(run);
+            switch (ast.runNode(run)) {
+                case H: {
+                    for (int index = 0; index < runLength; index++) output.append(helloWorldOutput);
+                    break;
+                }
+                case Q: {
+                    for (int index = 0; index < runLength; index++) output.append(sourceCode).append(lineSeparator);
+                    break;
+                }
+                case NINE: {
+                    final String bottlesOfBeerOutput = getBottlesOfBeerOutput();
+                    for (int index = 0; index < runLength; index++) output.append(bottlesOfBeerOutput);
+                    break;
+                }
+                case PLUS: {
+                    counter += runLength;
+                    break;
+                }
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Interprets the program reading its source code from the given input stream using the default charset.
+     *
+     * @param source input stream providing the source code
+     * @param output sink to which the program's output should be written
+     * @return final value of the program's counter incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     *
+     * @throws IOException if an exception occurs while reading source code or writing the output
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an invalid token is reached
+     */
+    public long interpret(@NonNull final InputStream source, @NonNull final Appendable output) throws IOException {
+        return interpret(new InputStreamReader(source), output);
+    }
+
+    /**
+     * Interprets the program of the given source code.
+     *
+     * @param sourceCode source code of the program
+     * @param output sink to which the program's output should be written
+     * @return final value of the program's counter incremented by {@link HQ9PlusAstNode#PLUS +} nodes
+     *
+     * @throws IOException if an exception occurs while writing the output
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an invalid token is reached
+     */
+    public long interpret(@NonNull final CharSequence sourceCode, @NonNull final Appendable output) throws IOException {
+        return interpret(new StringReader(sourceCode.toString()), output);
+    }
+}
@@ -0,0 +1,531 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writer of classes compiled by {@link AbstractAsmHQ9PlusCompiler} into a single JAR-archive streamed to the output.
+ * <p>
+ * The programs get compiled and their classes get compressed in parallel by the executor
+ * while the entries get written in the order in which they were added, following the manifest.
+ * All the entries have the same fixed modification time so that the same programs produce the same archive.
+ * <p>
+ * This writer is not thread-safe.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusJarWriter implements Closeable {
+
+    /**
+     * Maximal amount of entries compressed but not written yet
+     */
+    private static final int MAX_PENDING_ENTRIES = 256;
+
+    /**
+     * Maximal amount of entries of an archive without ZIP64-extensions
+     */
+    private static final int MAX_ENTRY_COUNT = 0xFFFF;
+
+    /**
+     * Maximal size of an archive without ZIP64-extensions
+     */
+    private static final long MAX_ARCHIVE_SIZE = 0xFFFF_FFFFL;
+
+    /**
+     * Signature of the local file headers
+     */
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034B50,
+    /**
+     * Signature of the central directory file headers
+     */
+    CENTRAL_DIRECTORY_FILE_HEADER_SIGNATURE = 0x02014B50,
+    /**
+     * Signature of the end of central directory record
+     */
+    END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054B50;
+
+    /**
+     * Size of the local file headers excluding the entry name
+     */
+    private static final int LOCAL_FILE_HEADER_SIZE = 30,
+    /**
+     * Size of the central directory file headers excluding the entry name
+     */
+    CENTRAL_DIRECTORY_FILE_HEADER_SIZE = 46,
+    /**
+     * Size of the end of central directory record
+     */
+    END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+    /**
+     * ZIP-specification version needed to extract the deflated entries
+     */
+    private static final short VERSION = 20;
+
+    /**
+     * General purpose flag marking the entry names as UTF-8
+     */
+    private static final short UTF8_NAME_FLAG = 0x0800;
+
+    /**
+     * Compression method of the deflated entries
+     */
+    private static final short DEFLATED_METHOD = 8;
+
+    /**
+     * MS-DOS time of the entries which is midnight
+     */
+    private static final short ENTRY_TIME = 0,
+    /**
+     * MS-DOS date of the entries which is January 1, 1980
+     */
+    ENTRY_DATE = (1 << 5) | 1;
+
+    /**
+     * Compiler used to compile the programs
+     */
+    @ToString.Include @NonNull AbstractAsmHQ9PlusCompiler<?, ?> compiler;
+
+    /**
+     * Output to which the archive is written
+     */
+    @NonNull OutputStream output;
+
+    /**
+     * Executor on which the programs get compiled and compressed
+     */
+    @NonNull Executor executor;
+
+    /**
+     * Compression level of the entries
+     */
+    int compressionLevel;
+
+    /**
+     * Entries compressed or being compressed in the order in which they should be written
+     */
+    Queue<Future<Entry>> pendingEntries = new ArrayDeque<>();
+
+    /**
+     * Names of the added entries
+     */
+    Set<String> entryNames = new HashSet<>();
+
+    /**
+     * Central directory file headers of the written entries
+     */
+    ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+
+    /**
+     * Amount of the written entries
+     */
+    @ToString.Include @NonFinal int entryCount;
+
+    /**
+     * Amount of the written bytes
+     */
+    @NonFinal long offset;
+
+    /**
+     * Creates a new JAR-writer.
+     *
+     * @param compiler compiler used to compile the programs
+     * @param output output to which the archive should be written
+     * @param executor executor on which the programs should get compiled and compressed
+     * @param compressionLevel compression level of the entries
+     */
+    private HQ9PlusJarWriter(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                             @NonNull final OutputStream output, @NonNull final Executor executor,
+                             final int compressionLevel) {
+        this.compiler = compiler;
+        this.output = output;
+        this.executor = executor;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Creates a new JAR-writer writing the manifest.
+     *
+     * @param compiler compiler used to compile the programs
+     * @param output output to which the archive should be written, it gets closed once the writer gets closed
+     * @param executor executor on which the programs should get compiled and compressed
+     * @param manifest manifest of the archive
+     * @param compressionLevel compression level of the entries from {@code 0} to {@code 9}
+     * or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return created JAR-writer
+     *
+     * @throws IOException if an exception occurs while writing the manifest
+     * @throws IllegalArgumentException if the compression level is invalid
+     */
+    public static HQ9PlusJarWriter create(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                          @NonNull final OutputStream output, @NonNull final Executor executor,
+                                          @NonNull final Manifest manifest,
+                                          final int compressionLevel) throws IOException {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+        ) throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+
+        final ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+        manifest.write(manifestBytes);
+
+        final HQ9PlusJarWriter writer = new HQ9PlusJarWriter(compiler, output, executor, compressionLevel);
+        writer.entryNames.add(JarFile.MANIFEST_NAME);
+        writer.writeEntry(Entry.create(JarFile.MANIFEST_NAME, manifestBytes.toByteArray(), compressionLevel));
+
+        return writer;
+    }
+
+    /**
+     * Creates a new JAR-writer compiling and compressing in {@link ForkJoinPool#commonPool() the common pool}.
+     *
+     * @param compiler compiler used to compile the programs
+     * @param output output to which the archive should be written, it gets closed once the writer gets closed
+     * @param mainClassName name of the class which should be the main class of the archive
+     * or {@code null} if there should be none
+     * @return created JAR-writer
+     *
+     * @throws IOException if an exception occurs while writing the manifest
+     */
+    public static HQ9PlusJarWriter create(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                                          @NonNull final OutputStream output,
+                                          @Nullable final String mainClassName) throws IOException {
+        final Manifest manifest = new Manifest();
+        final Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (mainClassName != null) attributes.put(Attributes.Name.MAIN_CLASS, mainClassName);
+
+        return create(compiler, output, ForkJoinPool.commonPool(), manifest, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Adds the class compiled from the given source code to the archive.
+     * Unless the entry of the class is a duplicate, the class gets added even if an exception is thrown.
+     *
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     *
+     * @throws java.util.zip.ZipException if the archive already has the entry of the class
+     * @throws IOException if an exception occurs while writing the previously added entries
+     * @throws HQ9PlusAstParseException if an exception occurs while parsing AST of a previously added program
+     */
+    public void add(@NonNull final String className, @NonNull final CharSequence sourceCode) throws IOException {
+        final String entryName = addEntryName(className);
+        submit(() -> {
+            final byte[] bytecode;
+            try {
+                bytecode = compiler.compileSourceToBytes(className, sourceCode);
+            } catch (final HQ9PlusAstParseException e) {
+                throw new HQ9PlusAstParseException("Failed to parse " + className + ": " + e.getMessage(), e);
+            }
+
+            return Entry.create(entryName, bytecode, compressionLevel);
+        });
+    }
+
+    /**
+     * Adds the already compiled class to the archive.
+     * Unless the entry of the class is a duplicate, the class gets added even if an exception is thrown.
+     *
+     * @param className name of the class
+     * @param bytecode bytecode of the class, it gets copied so it may be modified once this method returns
+     *
+     * @throws java.util.zip.ZipException if the archive already has the entry of the class
+     * @throws IOException if an exception occurs while writing the previously added entries
+     * @throws HQ9PlusAstParseException if an exception occurs while parsing AST of a previously added program
+     */
+    public void add(@NonNull final String className, @NonNull final byte[] bytecode) throws IOException {
+        final String entryName = addEntryName(className);
+        // the bytecode gets compressed asynchronously so it should not be modified meanwhile
+        final byte[] entryBytecode = bytecode.clone();
+        submit(() -> Entry.create(entryName, entryBytecode, compressionLevel));
+    }
+
+    /**
+     * Remembers the name of the entry of the given class checking that it is not a duplicate.
+     *
+     * @param className name of the class
+     * @return name of the entry of the class
+     *
+     * @throws ZipException if the archive already has the entry of the class
+     */
+    private String addEntryName(@NotNull final String className) throws ZipException {
+        final String entryName = classEntryName(className);
+        if (!entryNames.add(entryName)) throw new ZipException("duplicate entry: " + entryName);
+
+        return entryName;
+    }
+
+    /**
+     * Submits the creation of the entry writing the already created ones.
+     * The entry gets submitted before any of the previously added entries get written
+     * so that it is not lost if one of them fails.
+     *
+     * @param entryFactory factory creating the entry
+     *
+     * @throws IOException if an exception occurs while writing the previously added entries
+     * @throws HQ9PlusAstParseException if an exception occurs while parsing AST of a previously added program
+     */
+    private void submit(@NotNull final Supplier<Entry> entryFactory) throws IOException {
+        final Queue<Future<Entry>> pendingEntries = this.pendingEntries;
+        if (entryCount + pendingEntries.size() >= MAX_ENTRY_COUNT) throw new IOException(
+                "Archive cannot have more than " + MAX_ENTRY_COUNT + " entries"
+        );
+        pendingEntries.add(CompletableFuture.supplyAsync(entryFactory, executor));
+
+        // the entries get written in order so that only the leading completed ones can be written
+        Future<Entry> pendingEntry;
+        while ((pendingEntry = pendingEntries.peek()) != null
+                && (pendingEntry.isDone() || pendingEntries.size() > MAX_PENDING_ENTRIES)) {
+            writeEntry(await(pendingEntries.remove()));
+        }
+    }
+
+    /**
+     * Writes all the added entries and the central directory closing the output.
+     *
+     * @throws IOException if an exception occurs while writing the archive
+     * @throws HQ9PlusAstParseException if an exception occurs while parsing AST of an added program
+     */
+    @Override
+    public void close() throws IOException {
+        try (final OutputStream output = this.output) {
+            final Queue<Future<Entry>> pendingEntries = this.pendingEntries;
+            while (!pendingEntries.isEmpty()) writeEntry(await(pendingEntries.remove()));
+
+            final long centralDirectoryOffset = offset;
+            final int centralDirectorySize = centralDirectory.size();
+            checkArchiveSize(centralDirectoryOffset + centralDirectorySize);
+            centralDirectory.writeTo(output);
+
+            final ByteBuffer end = newRecord(END_OF_CENTRAL_DIRECTORY_SIZE)
+                    .putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                    .putShort((short) 0) // number of this disk
+                    .putShort((short) 0) // disk where the central directory starts
+                    .putShort((short) entryCount)
+                    .putShort((short) entryCount)
+                    .putInt(centralDirectorySize)
+                    .putInt((int) centralDirectoryOffset)
+                    .putShort((short) 0); // comment length
+            output.write(end.array());
+        } finally {
+            // the entries which cannot be written anymore should not waste the executor
+            for (final Future<Entry> pendingEntry : pendingEntries) pendingEntry.cancel(false);
+            pendingEntries.clear();
+        }
+    }
+
+    /**
+     * Writes the local file header and the data of the entry remembering its central directory file header.
+     *
+     * @param entry written entry
+     *
+     * @throws IOException if an exception occurs while writing the entry
+     */
+    private void writeEntry(@NotNull final Entry entry) throws IOException {
+        final long localFileHeaderOffset = offset;
+        final byte[] name = entry.name;
+        final int compressedSize = entry.compressedSize;
+        final long entrySize = LOCAL_FILE_HEADER_SIZE + name.length + compressedSize;
+        checkArchiveSize(localFileHeaderOffset + entrySize);
+
+        final ByteBuffer localFileHeader = newRecord(LOCAL_FILE_HEADER_SIZE + name.length)
+                .putInt(LOCAL_FILE_HEADER_SIGNATURE)
+                .putShort(VERSION)
+                .putShort(UTF8_NAME_FLAG)
+                .putShort(DEFLATED_METHOD)
+                .putShort(ENTRY_TIME)
+                .putShort(ENTRY_DATE)
+                .putInt(entry.crc)
+                .putInt(compressedSize)
+                .putInt(entry.size)
+                .putShort((short) name.length)
+                .putShort((short) 0) // extra field length
+                .put(name);
+        output.write(localFileHeader.array());
+        output.write(entry.compressedData, 0, compressedSize);
+        offset = localFileHeaderOffset + entrySize;
+
+        final ByteBuffer centralDirectoryFileHeader = newRecord(CENTRAL_DIRECTORY_FILE_HEADER_SIZE + name.length)
+                .putInt(CENTRAL_DIRECTORY_FILE_HEADER_SIGNATURE)
+                .putShort(VERSION) // version made by
+                .putShort(VERSION) // version needed to extract
+                .putShort(UTF8_NAME_FLAG)
+                .putShort(DEFLATED_METHOD)
+                .putShort(ENTRY_TIME)
+                .putShort(ENTRY_DATE)
+                .putInt(entry.crc)
+                .putInt(compressedSize)
+                .putInt(entry.size)
+                .putShort((short) name.length)
+                .putShort((short) 0) // extra field length
+                .putShort((short) 0) // comment length
+                .putShort((short) 0) // disk where the file starts
+                .putShort((short) 0) // internal attributes
+                .putInt(0) // external attributes
+                .putInt((int) localFileHeaderOffset)
+                .put(name);
+        centralDirectory.write(centralDirectoryFileHeader.array());
+        entryCount++;
+    }
+
+    /**
+     * Checks that the archive of the given size does not require ZIP64-extensions.
+     *
+     * @param size size of the archive
+     *
+     * @throws IOException if the archive is too big
+     */
+    private static void checkArchiveSize(final long size) throws IOException {
+        if (size > MAX_ARCHIVE_SIZE) throw new IOException(
+                "Archive cannot be bigger than " + MAX_ARCHIVE_SIZE + " bytes"
+        );
+    }
+
+    /**
+     * Creates a buffer of the little-endian record of the archive.
+     *
+     * @param size size of the record
+     * @return created buffer
+     */
+    private static ByteBuffer newRecord(final int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the name of the entry of the class.
+     *
+     * @param className name of the class
+     * @return name of the entry
+     */
+    private static String classEntryName(@NotNull final String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    /**
+     * Awaits the given entry future.
+     *
+     * @param future future of the entry
+     * @return awaited entry
+     *
+     * @throws IOException if the current thread gets interrupted while awaiting the entry
+     * @throws HQ9PlusAstParseException if an exception occurred while parsing AST of the entry's program
+     */
+    private static Entry await(@NotNull final Future<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while awaiting the entry");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+
+            throw new IOException("Failed to create the entry", cause);
+        }
+    }
+
+    /**
+     * Compressed entry of the archive.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Entry {
+
+        /**
+         * UTF-8 name of the entry
+         */
+        @NonNull byte[] name;
+
+        /**
+         * CRC-32 of the uncompressed data
+         */
+        int crc;
+
+        /**
+         * Size of the uncompressed data
+         */
+        int size;
+
+        /**
+         * Buffer whose leading {@link #compressedSize} bytes are the compressed data
+         */
+        @NonNull byte[] compressedData;
+
+        /**
+         * Size of the compressed data
+         */
+        int compressedSize;
+
+        /**
+         * Creates an entry compressing the data.
+         *
+         * @param name name of the entry
+         * @param data uncompressed data of the entry
+         * @param compressionLevel compression level of the entry
+         * @return created entry
+         */
+        private static Entry create(@NotNull final String name, @NotNull final byte[] data,
+                                    final int compressionLevel) {
+            final CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length);
+
+            final Deflater deflater = new Deflater(compressionLevel, true);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                // the compressed data is normally smaller than the uncompressed one
+                byte[] compressedData = new byte[data.length + (data.length >> 4) + 64];
+                int compressedSize = 0;
+                while (!deflater.finished()) {
+                    if (compressedSize == compressedData.length) compressedData = Arrays.copyOf(
+                            compressedData, compressedData.length << 1
+                    );
+                    compressedSize += deflater.deflate(
+                            compressedData, compressedSize, compressedData.length - compressedSize
+                    );
+                }
+
+                return new Entry(
+                        name.getBytes(StandardCharsets.UTF_8), (int) crc.getValue(), data.length,
+                        compressedData, compressedSize
+                );
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
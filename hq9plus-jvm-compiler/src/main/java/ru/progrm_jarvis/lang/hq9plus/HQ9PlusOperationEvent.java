@@ -0,0 +1,88 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <i>JDK Flight Recorder</i> event of a run of the same operations
+ * executed by a program compiled with {@link HQ9PlusCompilerOptions#isFlightRecorderEvents() events enabled}.
+ * <p>
+ * The event is only committed while a recording enables it, otherwise it costs (almost) nothing.
+ * This class requires the JVM to support <i>JDK Flight Recorder</i> so it only gets loaded by the programs using it.
+ */
+@Name(HQ9PlusOperationEvent.NAME)
+@Label("HQ9+ Operation")
+@Description("Run of the same operations of an HQ9+ program")
+@Category("HQ9+")
+@StackTrace(false)
+public final class HQ9PlusOperationEvent extends Event {
+
+    /**
+     * Name of the event type
+     */
+    public static final String NAME = "ru.progrm_jarvis.lang.hq9plus.Operation";
+
+    /**
+     * Length of the line separator written by the programs
+     */
+    private static final int LINE_SEPARATOR_LENGTH = System.lineSeparator().length();
+
+    /**
+     * Name of the method implementing the operation
+     */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * Amount of times the operation was invoked in the run
+     */
+    @Label("Invocations")
+    int invocations;
+
+    /**
+     * Amount of bytes written by the run
+     */
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    /**
+     * Creates a new event and starts its timing.
+     *
+     * @return started event
+     */
+    public static @NotNull HQ9PlusOperationEvent start() {
+        final HQ9PlusOperationEvent event = new HQ9PlusOperationEvent();
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Ends the timing of this event and commits it if it should be recorded.
+     * <p>
+     * All the output of the programs is ASCII so that the amount of bytes written
+     * is computed from the amount of the characters.
+     *
+     * @param operation name of the method implementing the operation
+     * @param invocations amount of times the operation was invoked in the run
+     * @param textLength amount of the characters written by the run excluding line separators
+     * @param lineCount amount of line separators written by the run
+     */
+    public void complete(@NotNull final String operation, final int invocations,
+                         final long textLength, final long lineCount) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.invocations = invocations;
+            bytesWritten = textLength + lineCount * LINE_SEPARATOR_LENGTH;
+            commit();
+        }
+    }
+}
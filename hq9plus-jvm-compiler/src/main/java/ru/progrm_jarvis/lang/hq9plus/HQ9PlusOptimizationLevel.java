@@ -0,0 +1,31 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+/**
+ * Level of optimizations applied to the classes generated by {@link AbstractAsmHQ9PlusCompiler}.
+ * <p>
+ * Each level also applies the optimizations of the previous levels.
+ */
+public enum HQ9PlusOptimizationLevel {
+    /**
+     * Only the optimizations which keep all the members of the generated class are applied.
+     */
+    NONE,
+    /**
+     * Operations whose effect is not observable and members which are not used are not emitted.
+     * <p>
+     * This means that {@code q} method is only emitted if the program contains
+     * {@link ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode#Q Q}, the output is not buffered
+     * if the program prints nothing and the constructor of a non-reentrant class is omitted.
+     * The accumulator of a non-reentrant class is private so all the increments of it get removed
+     * while the increments of the accumulator of a {@link HQ9PlusExecution reentrant} run get merged into one.
+     */
+    ELIMINATE_DEAD_CODE,
+    /**
+     * The output of the whole program gets evaluated at compile-time so that the program writes it at once.
+     * <p>
+     * As the output only depends on the source code, the generated program writes the pre-encoded output
+     * using a single write unless it is longer than {@link HQ9PlusCompilerOptions#getFoldedOutputBudget()
+     * the budget}, in which case the program gets generated as with {@link #ELIMINATE_DEAD_CODE}.
+     */
+    FOLD_OUTPUT
+}
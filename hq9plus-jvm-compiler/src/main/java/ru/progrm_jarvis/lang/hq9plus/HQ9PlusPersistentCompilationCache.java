@@ -0,0 +1,221 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Persistent cache of classes compiled by {@link AbstractAsmHQ9PlusCompiler} shared across JVM restarts.
+ * <p>
+ * Each compiled class is stored in its own file of the cache directory named after the hash of the source code,
+ * the name of the class, the configuration of the compiler and {@link #FORMAT_VERSION the format version}.
+ * Files are written atomically so that concurrent processes never observe partially written entries
+ * and get memory-mapped when read.
+ * Files which cannot be read as valid entries are treated as missing and get overwritten.
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusPersistentCompilationCache {
+
+    /**
+     * Version of the format of the cached entries which should be incremented
+     * whenever the bytecode generated by the compilers changes
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Magic number heading the cache entry files, {@code "HQ9C"} in ASCII
+     */
+    private static final int MAGIC = 0x48_51_39_43;
+
+    /**
+     * Size of the header of the cache entry files
+     */
+    private static final int HEADER_SIZE = Integer.BYTES * 3;
+
+    /**
+     * Extension of the cache entry files
+     */
+    private static final String ENTRY_FILE_EXTENSION = ".hq9c";
+
+    /**
+     * Algorithm of the hash naming the cache entry files
+     */
+    private static final String ENTRY_HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Hexadecimal digits used to name the cache entry files
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Directory in which the cache entries are stored
+     */
+    @NonNull Path directory;
+
+    /**
+     * Creates a new persistent compilation cache.
+     *
+     * @param directory directory in which the cache entries are stored
+     */
+    private HQ9PlusPersistentCompilationCache(@NonNull final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a new persistent compilation cache creating its directory if it does not exist.
+     *
+     * @param directory directory in which the cache entries should be stored
+     * @return created persistent compilation cache
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public static HQ9PlusPersistentCompilationCache create(@NonNull final Path directory) throws IOException {
+        return new HQ9PlusPersistentCompilationCache(Files.createDirectories(directory));
+    }
+
+    /**
+     * Gets the path of the file storing the entry of the class compiled from the given source code.
+     *
+     * @param compiler compiler used to compile the class
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return path of the entry file
+     */
+    @SneakyThrows(NoSuchAlgorithmException.class) // every Java platform supports SHA-256
+    Path entryFile(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                   @NonNull final String className, @NonNull final CharSequence sourceCode) {
+        final MessageDigest digest = MessageDigest.getInstance(ENTRY_HASH_ALGORITHM);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, FORMAT_VERSION));
+        digest.update(className.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((byte) (compiler.respectCase ? 1 : 0));
+        digest.update(compiler.options.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(HQ9PlusCompilationCache.hash(sourceCode));
+
+        final byte[] hash = digest.digest();
+        final StringBuilder name = new StringBuilder(hash.length * 2 + ENTRY_FILE_EXTENSION.length());
+        for (final byte hashByte : hash) name
+                .append(HEX_DIGITS[(hashByte >> 4) & 0xF])
+                .append(HEX_DIGITS[hashByte & 0xF]);
+
+        return directory.resolve(name.append(ENTRY_FILE_EXTENSION).toString());
+    }
+
+    /**
+     * Gets the bytecode of the class compiled from the given source code
+     * compiling and storing it if it is not cached yet.
+     *
+     * @param compiler compiler used to compile the class
+     * @param className name of the compiled class
+     * @param sourceCode source code of the program
+     * @return bytecode of the compiled class
+     *
+     * @throws IOException if an exception occurs while accessing the cache directory
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public byte[] getBytecode(@NonNull final AbstractAsmHQ9PlusCompiler<?, ?> compiler,
+                              @NonNull final String className,
+                              @NonNull final CharSequence sourceCode) throws IOException {
+        final Path entryFile = entryFile(compiler, className, sourceCode);
+
+        final byte[] cachedBytecode = read(entryFile);
+        if (cachedBytecode != null) return cachedBytecode;
+
+        final byte[] bytecode = compiler.compileSourceToBytes(className, sourceCode);
+        write(entryFile, bytecode);
+
+        return bytecode;
+    }
+
+    /**
+     * Creates a compiler delegating to the given one and caching the compiled classes in this cache.
+     *
+     * @param compiler compiler to which the compilation should be delegated
+     * @param <I> type of input source providing compilation source (normally, source code)
+     * @param <O> type of output target receiving compilation result
+     * @return caching compiler
+     */
+    public <I, O> HQ9PlusCompiler<I, O> wrap(@NonNull final AbstractAsmHQ9PlusCompiler<I, O> compiler) {
+        return (className, input, output) -> compiler.write(
+                getBytecode(compiler, className, HQ9PlusCompilationCache.readFully(compiler.toReader(input))),
+                output
+        );
+    }
+
+    /**
+     * Reads the bytecode stored in the given entry file.
+     *
+     * @param entryFile file from which the bytecode should be read
+     * @return bytecode stored in the file or {@code null} if there is no valid entry
+     *
+     * @throws IOException if an exception occurs while reading the file
+     */
+    @Nullable private static byte[] read(@NotNull final Path entryFile) throws IOException {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(entryFile, StandardOpenOption.READ);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+
+        try (final FileChannel entryChannel = channel) {
+            final long size = entryChannel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) return null;
+
+            final MappedByteBuffer entry = entryChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (entry.getInt() != MAGIC || entry.getInt() != FORMAT_VERSION
+                    || entry.getInt() != size - HEADER_SIZE) return null;
+
+            final byte[] bytecode = new byte[entry.remaining()];
+            entry.get(bytecode);
+
+            return bytecode;
+        }
+    }
+
+    /**
+     * Atomically writes the given bytecode to the given entry file.
+     *
+     * @param entryFile file to which the bytecode should be written
+     * @param bytecode bytecode which should be written
+     *
+     * @throws IOException if an exception occurs while writing the file
+     */
+    private void write(@NotNull final Path entryFile, @NotNull final byte[] bytecode) throws IOException {
+        final Path temporaryFile = Files.createTempFile(directory, entryFile.getFileName().toString(), ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC).putInt(FORMAT_VERSION).putInt(bytecode.length);
+                ((Buffer) header).flip();
+                final ByteBuffer body = ByteBuffer.wrap(bytecode);
+                while (header.hasRemaining() || body.hasRemaining()) channel.write(new ByteBuffer[]{header, body});
+                channel.force(false);
+            }
+
+            try {
+                Files.move(temporaryFile, entryFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
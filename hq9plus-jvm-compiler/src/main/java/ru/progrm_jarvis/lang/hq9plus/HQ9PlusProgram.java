@@ -0,0 +1,373 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Compiled <b>HQ9+ programming language</b> program loaded into the current JVM.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class HQ9PlusProgram implements Runnable {
+
+    /**
+     * Simple name of the classes compiled by {@link #compile(AbstractAsmHQ9PlusCompiler, Object)}
+     */
+    public static final String DEFAULT_CLASS_SIMPLE_NAME = "GeneratedHQ9PlusProgram";
+
+    /**
+     * Type of the program's {@code main} method
+     */
+    private static final MethodType MAIN_METHOD_TYPE = MethodType.methodType(void.class, String[].class);
+
+    /**
+     * Type of the constructor of the reentrant program's class
+     */
+    private static final MethodType EXECUTION_CONSTRUCTOR_TYPE = MethodType.methodType(void.class, PrintStream.class);
+
+    /**
+     * Type of {@link #executionConstructor}
+     */
+    private static final MethodType EXECUTION_FACTORY_TYPE = MethodType.methodType(
+            HQ9PlusExecution.class, PrintStream.class
+    );
+
+    /**
+     * Arguments passed to the program's {@code main} method when the program is {@link #run() run}
+     */
+    private static final String[] NO_ARGUMENTS = new String[0];
+
+    /**
+     * Class of the program
+     */
+    @NonNull Class<?> programClass;
+
+    /**
+     * Method handle of the program's {@code main} method of type {@code void(String[])}
+     */
+    @NonNull MethodHandle mainMethod;
+
+    /**
+     * Method handle of the constructor of the reentrant program's class of type
+     * {@link HQ9PlusExecution}{@code (}{@link PrintStream}{@code )}
+     * or {@code null} if the program is not reentrant
+     */
+    @Nullable MethodHandle executionConstructor;
+
+    /**
+     * Creates a program from its loaded class.
+     *
+     * @param programClass class of the program
+     * @return program of the given class
+     *
+     * @throws IllegalArgumentException if the class has no accessible {@code main} method
+     */
+    public static HQ9PlusProgram of(@NonNull final Class<?> programClass) {
+        final MethodHandle mainMethod;
+        final MethodHandle executionConstructor;
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            mainMethod = lookup.findStatic(programClass, "main", MAIN_METHOD_TYPE);
+            executionConstructor = HQ9PlusExecution.class.isAssignableFrom(programClass)
+                    ? lookup.findConstructor(programClass, EXECUTION_CONSTRUCTOR_TYPE).asType(EXECUTION_FACTORY_TYPE)
+                    : null;
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Class " + programClass + " is not a valid HQ9+ program", e);
+        }
+
+        return new HQ9PlusProgram(programClass, mainMethod, executionConstructor);
+    }
+
+    /**
+     * Compiles the program and defines its class in memory.
+     *
+     * @param compiler compiler used to compile the program
+     * @param className name of the compiled class
+     * @param input input source providing compilation source (normally, source code)
+     * @param definer definer used to define the compiled class
+     * @param <I> type of input source providing compilation source
+     * @return compiled program
+     *
+     * @throws IOException if an exception occurs while reading data
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public static <I> HQ9PlusProgram compile(@NonNull final AbstractAsmHQ9PlusCompiler<I, ?> compiler,
+                                             @NonNull final String className, @NonNull final I input,
+                                             @NonNull final HQ9PlusClassDefiner definer) throws IOException {
+        return of(definer.define(compiler.compileToBytes(className, input)));
+    }
+
+    /**
+     * Compiles the program and defines its class in memory using the {@link HQ9PlusClassDefiners#standard()
+     * standard definer} so that the class is hidden if the current JVM supports those.
+     *
+     * @param compiler compiler used to compile the program
+     * @param input input source providing compilation source (normally, source code)
+     * @param <I> type of input source providing compilation source
+     * @return compiled program
+     *
+     * @throws IOException if an exception occurs while reading data
+     * @throws ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException if an exception occurs while parsing AST
+     */
+    public static <I> HQ9PlusProgram compile(@NonNull final AbstractAsmHQ9PlusCompiler<I, ?> compiler,
+                                             @NonNull final I input) throws IOException {
+        return compile(compiler, defaultClassName(), input, HQ9PlusClassDefiners.standard());
+    }
+
+    /**
+     * Gets the name of the classes compiled by {@link #compile(AbstractAsmHQ9PlusCompiler, Object)}
+     * which is in {@link HQ9PlusClassDefiners#standardHiddenClassPackage() the standard package}.
+     *
+     * @return name of the classes compiled by default
+     */
+    static String defaultClassName() {
+        final String packageName = HQ9PlusClassDefiners.standardHiddenClassPackage();
+
+        return packageName.isEmpty() ? DEFAULT_CLASS_SIMPLE_NAME : packageName + '.' + DEFAULT_CLASS_SIMPLE_NAME;
+    }
+
+    /**
+     * Runs the program without arguments.
+     */
+    @Override
+    @SneakyThrows
+    public void run() {
+        mainMethod.invokeExact(NO_ARGUMENTS);
+    }
+
+    /**
+     * Checks whether this program is compiled with {@link HQ9PlusCompilerOptions#isReentrant() reentrant execution}.
+     *
+     * @return {@code true} if this program's runs may be {@link #newExecution(PrintStream) created}
+     * with their own output and accumulator and {@code false} otherwise
+     */
+    public boolean isReentrant() {
+        return executionConstructor != null;
+    }
+
+    /**
+     * Creates a new run of this reentrant program.
+     *
+     * @param output output of the run
+     * @return created run which has not been run yet
+     *
+     * @throws UnsupportedOperationException if this program is not {@link #isReentrant() reentrant}
+     */
+    @SneakyThrows
+    public @NotNull HQ9PlusExecution newExecution(@NonNull final PrintStream output) {
+        if (executionConstructor == null) throw new UnsupportedOperationException(
+                "Program " + programClass + " is not reentrant"
+        );
+
+        return (HQ9PlusExecution) executionConstructor.invokeExact(output);
+    }
+
+    /**
+     * Runs this reentrant program writing its output to the given output stream.
+     *
+     * @param output output stream to which the output should be written
+     * @return final value of the run's accumulator
+     *
+     * @throws IOException if an exception occurs while writing the output
+     * @throws UnsupportedOperationException if this program is not {@link #isReentrant() reentrant}
+     */
+    public long execute(@NonNull final OutputStream output) throws IOException {
+        return execute(new PrintStream(output, false));
+    }
+
+    /**
+     * Runs this reentrant program appending its output to the given appendable.
+     * The output gets decoded using the default charset with which it is encoded.
+     *
+     * @param output appendable to which the output should be appended
+     * @return final value of the run's accumulator
+     *
+     * @throws IOException if an exception occurs while appending the output
+     * @throws UnsupportedOperationException if this program is not {@link #isReentrant() reentrant}
+     */
+    public long execute(@NonNull final Appendable output) throws IOException {
+        final AppendableOutputStream outputStream = new AppendableOutputStream(output);
+        final long counter = execute(outputStream);
+        outputStream.finish();
+
+        return counter;
+    }
+
+    /**
+     * Runs this reentrant program putting its output into the given buffer.
+     *
+     * @param output buffer into which the output should be put
+     * @return final value of the run's accumulator
+     *
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space for the output
+     * @throws UnsupportedOperationException if this program is not {@link #isReentrant() reentrant}
+     */
+    @SneakyThrows(IOException.class) // putting into a buffer never throws IO-exceptions
+    public long execute(@NonNull final ByteBuffer output) {
+        return execute(new ByteBufferOutputStream(output));
+    }
+
+    /**
+     * Runs this reentrant program writing its output to the given print stream.
+     *
+     * @param output print stream to which the output should be written
+     * @return final value of the run's accumulator
+     *
+     * @throws IOException if the print stream has failed to write the output
+     * @throws UnsupportedOperationException if this program is not {@link #isReentrant() reentrant}
+     */
+    private long execute(@NonNull final PrintStream output) throws IOException {
+        final HQ9PlusExecution execution = newExecution(output);
+        execution.run();
+        // checking the error also flushes the output
+        if (output.checkError()) throw new IOException("Failed to write the output of program " + programClass);
+
+        return execution.getCounter();
+    }
+
+    /**
+     * Output stream putting the written bytes into a buffer.
+     */
+    @AllArgsConstructor
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        /**
+         * Buffer into which the written bytes are put
+         */
+        private final @NonNull ByteBuffer buffer;
+
+        @Override
+        public void write(final int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(final @NotNull byte[] b, final int off, final int len) {
+            buffer.put(b, off, len);
+        }
+    }
+
+    /**
+     * Output stream decoding the written bytes using the default charset and appending them to an appendable.
+     */
+    private static final class AppendableOutputStream extends OutputStream {
+
+        /**
+         * Size of the buffer of decoded characters
+         */
+        private static final int CHAR_BUFFER_SIZE = 1024;
+
+        /**
+         * Empty buffer of pending bytes
+         */
+        private static final ByteBuffer NO_BYTES = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+        /**
+         * Appendable to which the decoded characters are appended
+         */
+        private final @NonNull Appendable appendable;
+
+        /**
+         * Decoder of the written bytes
+         */
+        private final CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /**
+         * Buffer of decoded characters
+         */
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+        /**
+         * Written bytes which do not form a complete character yet
+         */
+        private ByteBuffer pendingBytes = NO_BYTES;
+
+        /**
+         * Creates a new output stream appending to the given appendable.
+         *
+         * @param appendable appendable to which the decoded characters should be appended
+         */
+        private AppendableOutputStream(@NonNull final Appendable appendable) {
+            this.appendable = appendable;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final @NotNull byte[] b, final int off, final int len) throws IOException {
+            final ByteBuffer bytes;
+            if (pendingBytes.hasRemaining()) {
+                bytes = ByteBuffer.allocate(pendingBytes.remaining() + len);
+                ((Buffer) bytes.put(pendingBytes).put(b, off, len)).flip();
+            } else bytes = ByteBuffer.wrap(b, off, len);
+
+            decode(bytes, false);
+            if (bytes.hasRemaining()) {
+                pendingBytes = ByteBuffer.allocate(bytes.remaining());
+                ((Buffer) pendingBytes.put(bytes)).flip();
+            } else pendingBytes = NO_BYTES;
+        }
+
+        /**
+         * Decodes the remaining pending bytes once all the bytes are written.
+         *
+         * @throws IOException if an exception occurs while appending the characters
+         */
+        private void finish() throws IOException {
+            decode(pendingBytes, true);
+            while (decoder.flush(chars).isOverflow()) appendChars();
+            appendChars();
+        }
+
+        /**
+         * Decodes the given bytes appending the decoded characters.
+         *
+         * @param bytes decoded bytes
+         * @param endOfInput {@code true} if there are no more bytes to decode and {@code false} otherwise
+         *
+         * @throws IOException if an exception occurs while appending the characters
+         */
+        private void decode(@NonNull final ByteBuffer bytes, final boolean endOfInput) throws IOException {
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                appendChars();
+            } while (result.isOverflow());
+        }
+
+        /**
+         * Appends the decoded characters.
+         *
+         * @throws IOException if an exception occurs while appending the characters
+         */
+        private void appendChars() throws IOException {
+            ((Buffer) chars).flip();
+            appendable.append(chars);
+            ((Buffer) chars).clear();
+        }
+    }
+}
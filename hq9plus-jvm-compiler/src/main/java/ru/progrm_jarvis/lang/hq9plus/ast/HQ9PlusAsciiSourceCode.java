@@ -0,0 +1,200 @@
+package ru.progrm_jarvis.lang.hq9plus.ast;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Validated <b>HQ9+ programming language</b> source code stored as ASCII bytes.
+ * <p>
+ * As all the valid tokens are ASCII characters, the bytes get classified by a lookup table
+ * without being decoded to characters, and the characters of this sequence are read directly from the bytes.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusAsciiSourceCode implements CharSequence {
+
+    /**
+     * AST-nodes by their ordinals
+     */
+    private static final HQ9PlusAstNode[] NODES = HQ9PlusAstNode.values();
+
+    /**
+     * Value of {@link #CASE_SENSITIVE_TOKEN_CLASSES} and {@link #CASE_INSENSITIVE_TOKEN_CLASSES}
+     * used for bytes which are not valid tokens
+     */
+    private static final byte INVALID_TOKEN_CLASS = -1;
+
+    /**
+     * Ordinals of AST-nodes matched by the bytes when the case is respected
+     */
+    private static final byte[] CASE_SENSITIVE_TOKEN_CLASSES = new byte[1 << Byte.SIZE];
+
+    /**
+     * Ordinals of AST-nodes matched by the bytes when the case is ignored
+     */
+    private static final byte[] CASE_INSENSITIVE_TOKEN_CLASSES = new byte[1 << Byte.SIZE];
+
+    static {
+        for (int value = 0; value < 1 << Byte.SIZE; value++) {
+            CASE_SENSITIVE_TOKEN_CLASSES[value] = tokenClass((char) value, true);
+            CASE_INSENSITIVE_TOKEN_CLASSES[value] = tokenClass((char) value, false);
+        }
+    }
+
+    /**
+     * Bytes of the source code
+     */
+    @NonNull ByteBuffer bytes;
+
+    /**
+     * Bit-mask of the ordinals of AST-nodes contained in the source code
+     */
+    int nodeMask;
+
+    /**
+     * {@code true} if the case of source code is respected and {@code false} otherwise
+     */
+    boolean respectCase;
+
+    /**
+     * Computes the class of the given token.
+     *
+     * @param token token whose class should be computed
+     * @param respectCase {@code true} if the case should be respected and {@code false} otherwise
+     * @return ordinal of the AST-node matched by the token or {@link #INVALID_TOKEN_CLASS} if it is not a valid token
+     */
+    private static byte tokenClass(final char token, final boolean respectCase) {
+        return HQ9PlusAstNode.matchOptionally(token, respectCase)
+                .map(node -> (byte) node.ordinal())
+                .orElse(INVALID_TOKEN_CLASS);
+    }
+
+    /**
+     * Scans the remaining bytes of the given buffer validating them as source code.
+     * The buffer's position and limit do not get modified.
+     *
+     * @param bytes buffer containing ASCII bytes of source code
+     * @param respectCase {@code true} if the case should be respected and {@code false} otherwise
+     * @return scanned source code backed by the buffer's content
+     *
+     * @throws HQ9PlusAstParseException if an unknown token is met
+     */
+    public static HQ9PlusAsciiSourceCode scan(@NonNull final ByteBuffer bytes, final boolean respectCase) {
+        final byte[] tokenClasses = respectCase ? CASE_SENSITIVE_TOKEN_CLASSES : CASE_INSENSITIVE_TOKEN_CLASSES;
+        final ByteBuffer sourceBytes = bytes.slice();
+
+        int nodeMask = 0;
+        final int length = sourceBytes.remaining();
+        if (sourceBytes.hasArray()) {
+            final byte[] array = sourceBytes.array();
+            final int offset = sourceBytes.arrayOffset();
+            for (int index = 0; index < length; index++) {
+                final byte tokenClass = tokenClasses[array[offset + index] & 0xFF];
+                if (tokenClass == INVALID_TOKEN_CLASS) throw unknownToken(array[offset + index]);
+                nodeMask |= 1 << tokenClass;
+            }
+        } else for (int index = 0; index < length; index++) {
+            final byte tokenClass = tokenClasses[sourceBytes.get(index) & 0xFF];
+            if (tokenClass == INVALID_TOKEN_CLASS) throw unknownToken(sourceBytes.get(index));
+            nodeMask |= 1 << tokenClass;
+        }
+
+        return new HQ9PlusAsciiSourceCode(sourceBytes.asReadOnlyBuffer(), nodeMask, respectCase);
+    }
+
+    /**
+     * Scans the content of the given file channel from its current position to its end memory-mapping it.
+     * The channel's position does not get modified.
+     *
+     * @param channel file channel providing ASCII bytes of source code
+     * @param respectCase {@code true} if the case should be respected and {@code false} otherwise
+     * @return scanned source code backed by the mapped content of the file
+     *
+     * @throws IOException if an exception occurs while mapping the file
+     * @throws IllegalArgumentException if the file is too big to be mapped at once
+     * @throws HQ9PlusAstParseException if an unknown token is met
+     */
+    public static HQ9PlusAsciiSourceCode scan(@NonNull final FileChannel channel,
+                                              final boolean respectCase) throws IOException {
+        final long position = channel.position();
+        final long size = Math.max(channel.size() - position, 0);
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException(
+                "Source code is too big to be mapped (" + size + " bytes)"
+        );
+
+        return scan(channel.map(FileChannel.MapMode.READ_ONLY, position, size), respectCase);
+    }
+
+    /**
+     * Creates an exception describing the given unknown token.
+     *
+     * @param token unknown token
+     * @return created exception
+     */
+    private static HQ9PlusAstParseException unknownToken(final byte token) {
+        return new HQ9PlusAstParseException("Unknown token: " + (char) (token & 0xFF));
+    }
+
+    /**
+     * Checks whether the source code contains the given AST-node.
+     *
+     * @param node AST-node to check
+     * @return {@code true} if the source code contains the node and {@code false} otherwise
+     */
+    public boolean contains(@NonNull final HQ9PlusAstNode node) {
+        return (nodeMask & (1 << node.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the AST-node at the given index.
+     *
+     * @param index index of the node
+     * @return AST-node at the given index
+     *
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public HQ9PlusAstNode nodeAt(final int index) {
+        return NODES[(respectCase ? CASE_SENSITIVE_TOKEN_CLASSES : CASE_INSENSITIVE_TOKEN_CLASSES)
+                [bytes.get(index) & 0xFF]];
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || start > end || end > length()) throw new IndexOutOfBoundsException(
+                "Invalid subsequence [" + start + "; " + end + ") of sequence of length " + length()
+        );
+
+        final ByteBuffer subBytes = bytes.duplicate();
+        ((Buffer) subBytes).position(start).limit(end);
+
+        // the subsequence may not contain all the nodes of this source code so its mask gets computed again
+        return scan(subBytes, respectCase);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final byte[] content = new byte[bytes.limit()];
+        bytes.duplicate().get(content);
+
+        return new String(content, StandardCharsets.US_ASCII);
+    }
+}
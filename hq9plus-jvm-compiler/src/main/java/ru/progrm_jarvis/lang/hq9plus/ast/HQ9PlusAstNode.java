@@ -41,6 +41,10 @@ public enum HQ9PlusAstNode {
      * Description of this node's semantics
      */
     @NonNull String description;
+    /**
+     * This node wrapped in optional reused by {@link #matchOptionally(char, boolean)}
+     */
+    @Getter(AccessLevel.NONE) @NonNull Optional<HQ9PlusAstNode> optional = Optional.of(this);
 
     /**
      * Matches the AST-node by the given token.
@@ -77,16 +81,16 @@ public enum HQ9PlusAstNode {
      */
     @NotNull public static Optional<HQ9PlusAstNode> matchOptionally(final char token, final boolean respectCase) {
         if (respectCase) switch (token) {
-            case 'H': return Optional.of(H);
-            case 'Q': return Optional.of(Q);
-            case '9': return Optional.of(NINE);
-            case '+': return Optional.of(PLUS);
+            case 'H': return H.optional;
+            case 'Q': return Q.optional;
+            case '9': return NINE.optional;
+            case '+': return PLUS.optional;
             default: return Optional.empty();
         } else switch (token) {
-            case 'H': case 'h': return Optional.of(H);
-            case 'Q': case 'q': return Optional.of(Q);
-            case '9': return Optional.of(NINE);
-            case '+': return Optional.of(PLUS);
+            case 'H': case 'h': return H.optional;
+            case 'Q': case 'q': return Q.optional;
+            case '9': return NINE.optional;
+            case '+': return PLUS.optional;
             default: return Optional.empty();
         }
     }
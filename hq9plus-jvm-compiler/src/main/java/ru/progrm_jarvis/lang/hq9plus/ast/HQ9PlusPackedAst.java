@@ -0,0 +1,274 @@
+package ru.progrm_jarvis.lang.hq9plus.ast;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact AST of a <b>HQ9+ programming language</b> program.
+ * <p>
+ * Source code gets parsed once into runs of equal AST-nodes packed into {@code int}s
+ * along with the count of each node so that it can be consumed by multiple backends
+ * without being scanned and matched again.
+ */
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class HQ9PlusPackedAst {
+
+    /**
+     * AST-nodes by their ordinals
+     */
+    private static final HQ9PlusAstNode[] NODES = HQ9PlusAstNode.values();
+
+    /**
+     * Amount of lower bits of a packed run storing the ordinal of its AST-node
+     */
+    private static final int RUN_NODE_BITS = 2;
+
+    /**
+     * Mask of the bits of a packed run storing the ordinal of its AST-node
+     */
+    private static final int RUN_NODE_MASK = (1 << RUN_NODE_BITS) - 1;
+
+    /**
+     * Maximal length of a single packed run, longer runs get split
+     */
+    private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE >>> RUN_NODE_BITS;
+
+    /**
+     * Maximal amount of characters of source code read at once
+     */
+    private static final int SOURCE_CODE_CHUNK_SIZE = 8192;
+
+    /**
+     * Source code of the program
+     */
+    @Getter @ToString.Exclude @NonNull CharSequence sourceCode;
+
+    /**
+     * Runs of equal AST-nodes each storing its length in the upper bits and the ordinal of its node in the lower bits
+     */
+    @ToString.Exclude @NonNull int[] runs;
+
+    /**
+     * Amounts of AST-nodes by their ordinals
+     */
+    @NonNull int[] nodeCounts;
+
+    /**
+     * Parses the given source code.
+     *
+     * @param sourceCode source code of the program
+     * @param respectCase {@code true} if the case should be respected and {@code false} otherwise
+     * @return parsed AST
+     *
+     * @throws HQ9PlusAstParseException if an unknown token is met
+     */
+    public static HQ9PlusPackedAst parse(@NonNull final CharSequence sourceCode, final boolean respectCase) {
+        final Packer packer = new Packer();
+        final int length = sourceCode.length();
+        for (int index = 0; index < length; index++) packer.append(
+                HQ9PlusAstNode.match(sourceCode.charAt(index), respectCase)
+        );
+
+        return packer.pack(sourceCode.toString());
+    }
+
+    /**
+     * Parses the source code read using the given reader.
+     *
+     * @param reader reader providing the source code
+     * @param respectCase {@code true} if the case should be respected and {@code false} otherwise
+     * @return parsed AST
+     *
+     * @throws IOException if an exception occurs while reading source code
+     * @throws HQ9PlusAstParseException if an unknown token is met
+     */
+    public static HQ9PlusPackedAst parse(@NonNull final Reader reader, final boolean respectCase) throws IOException {
+        final Packer packer = new Packer();
+        final StringBuilder sourceCode = new StringBuilder();
+        final char[] buffer = new char[SOURCE_CODE_CHUNK_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int index = 0; index < read; index++) packer.append(HQ9PlusAstNode.match(buffer[index], respectCase));
+            sourceCode.append(buffer, 0, read);
+        }
+
+        return packer.pack(sourceCode);
+    }
+
+    /**
+     * Parses the given scanned source code.
+     *
+     * @param sourceCode scanned source code
+     * @return parsed AST
+     */
+    public static HQ9PlusPackedAst parse(@NonNull final HQ9PlusAsciiSourceCode sourceCode) {
+        final Packer packer = new Packer();
+        final int length = sourceCode.length();
+        for (int index = 0; index < length; index++) packer.append(sourceCode.nodeAt(index));
+
+        return packer.pack(sourceCode);
+    }
+
+    /**
+     * Gets the amount of runs of equal AST-nodes.
+     *
+     * @return amount of runs
+     */
+    public int getRunCount() {
+        return runs.length;
+    }
+
+    /**
+     * Gets the AST-node of the given run.
+     *
+     * @param run index of the run
+     * @return AST-node repeated by the run
+     *
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public HQ9PlusAstNode runNode(final int run) {
+        return NODES[runs[run] & RUN_NODE_MASK];
+    }
+
+    /**
+     * Gets the length of the given run.
+     *
+     * @param run index of the run
+     * @return amount of times the AST-node of the run is repeated
+     *
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int runLength(final int run) {
+        return runs[run] >>> RUN_NODE_BITS;
+    }
+
+    /**
+     * Checks whether the given run is equal to the given run of the other program.
+     *
+     * @param run index of the run of this program
+     * @param other other program
+     * @param otherRun index of the run of the other program
+     * @return {@code true} if both runs repeat the same AST-node the same amount of times and {@code false} otherwise
+     *
+     * @throws IndexOutOfBoundsException if either of the indices is out of bounds
+     */
+    public boolean runEquals(final int run, @NonNull final HQ9PlusPackedAst other, final int otherRun) {
+        return runs[run] == other.runs[otherRun];
+    }
+
+    /**
+     * Gets the amount of the given AST-node in the program.
+     *
+     * @param node AST-node to count
+     * @return amount of the node in the program
+     */
+    public int count(@NonNull final HQ9PlusAstNode node) {
+        return nodeCounts[node.ordinal()];
+    }
+
+    /**
+     * Checks whether the program contains the given AST-node.
+     *
+     * @param node AST-node to check
+     * @return {@code true} if the program contains the node and {@code false} otherwise
+     */
+    public boolean contains(@NonNull final HQ9PlusAstNode node) {
+        return nodeCounts[node.ordinal()] != 0;
+    }
+
+    /**
+     * Gets the amounts of all AST-nodes in the program.
+     *
+     * @return unmodifiable histogram of AST-nodes of the program
+     */
+    public @NotNull Map<HQ9PlusAstNode, Integer> histogram() {
+        final Map<HQ9PlusAstNode, Integer> histogram = new EnumMap<>(HQ9PlusAstNode.class);
+        for (final HQ9PlusAstNode node : NODES) histogram.put(node, nodeCounts[node.ordinal()]);
+
+        return Collections.unmodifiableMap(histogram);
+    }
+
+    /**
+     * Packer of AST-nodes into runs.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Packer {
+
+        /**
+         * Packed runs, only the first {@link #runCount} of which are complete
+         */
+        int[] runs = new int[16];
+
+        /**
+         * Amount of complete runs
+         */
+        int runCount;
+
+        /**
+         * Ordinal of the AST-node of the current run or {@code -1} if there is none
+         */
+        int runNode = -1;
+
+        /**
+         * Length of the current run
+         */
+        int runLength;
+
+        /**
+         * Amounts of AST-nodes by their ordinals
+         */
+        final int[] nodeCounts = new int[NODES.length];
+
+        /**
+         * Appends the given AST-node.
+         *
+         * @param node appended AST-node
+         */
+        void append(final HQ9PlusAstNode node) {
+            final int ordinal = node.ordinal();
+            nodeCounts[ordinal]++;
+            if (ordinal == runNode && runLength < MAX_RUN_LENGTH) runLength++;
+            else {
+                completeRun();
+                runNode = ordinal;
+                runLength = 1;
+            }
+        }
+
+        /**
+         * Completes the current run if there is one.
+         */
+        void completeRun() {
+            if (runNode == -1) return;
+
+            if (runCount == runs.length) runs = Arrays.copyOf(runs, runCount << 1);
+            runs[runCount++] = runLength << RUN_NODE_BITS | runNode;
+        }
+
+        /**
+         * Creates the AST of the appended AST-nodes.
+         *
+         * @param sourceCode source code from which the AST-nodes were parsed
+         * @return created AST
+         */
+        HQ9PlusPackedAst pack(final CharSequence sourceCode) {
+            completeRun();
+
+            return new HQ9PlusPackedAst(sourceCode, Arrays.copyOf(runs, runCount), nodeCounts);
+        }
+    }
+}
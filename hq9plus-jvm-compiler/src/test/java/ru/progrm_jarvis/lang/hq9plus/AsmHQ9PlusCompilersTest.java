@@ -0,0 +1,725 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.SneakyThrows;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstNode;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class AsmHQ9PlusCompilersTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final byte CONSTANT_CLASS_TAG = 7;
+
+    static String repeat(final String text, final int times) {
+        final StringBuilder result = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) result.append(text);
+
+        return result.toString();
+    }
+
+    static String song(final int initialBottles) {
+        final StringBuilder song = new StringBuilder();
+        for (int bottles = initialBottles; bottles > 1; bottles--) song
+                .append(bottles).append(" bottles of beer on the wall, ")
+                .append(bottles).append(" bottles of beer.").append(LINE_SEPARATOR)
+                .append("Take one down and pass it around, ")
+                .append(bottles - 1).append(" bottles of beer on the wall.").append(LINE_SEPARATOR)
+                .append(LINE_SEPARATOR);
+
+        return song
+                .append("1 bottle of beer on the wall, 1 bottle of beer.").append(LINE_SEPARATOR)
+                .append("Take one down and pass it around, no more bottles of beer on the wall.")
+                .append(LINE_SEPARATOR).append(LINE_SEPARATOR)
+                .append("No more bottles of beer on the wall, no more bottles of beer.").append(LINE_SEPARATOR)
+                .append("Go to the store and buy some more, ").append(initialBottles)
+                .append(" bottles of beer on the wall.").append(LINE_SEPARATOR)
+                .toString();
+    }
+
+    static String expectedOutput(final String source) {
+        final StringBuilder output = new StringBuilder();
+        for (final char token : source.toCharArray()) switch (token) {
+            case 'H': case 'h': {
+                output.append(HQ9PlusConst.HELLO_WORLD_TEXT).append(LINE_SEPARATOR);
+                break;
+            }
+            case 'Q': case 'q': {
+                output.append(source).append(LINE_SEPARATOR);
+                break;
+            }
+            case '9': {
+                output.append(song(HQ9PlusConst.DEFAULT_BEER_BOTTLE_COUNT));
+                break;
+            }
+        }
+
+        return output.toString();
+    }
+
+    static long expectedCounter(final String source) {
+        return source.chars().filter(token -> token == '+').count();
+    }
+
+    static Class<?> compile(final String className, final String source, final boolean respectCase) {
+        return compile(className, source, respectCase, HQ9PlusCompilerOptions.DEFAULT);
+    }
+
+    @SneakyThrows
+    static Class<?> compile(final String className, final String source, final boolean respectCase,
+                            final HQ9PlusCompilerOptions options) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsmHQ9PlusCompilers.streamBased(respectCase, options).compile(
+                className, new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII)), output
+        );
+        final byte[] bytes = output.toByteArray();
+
+        return new ClassLoader(AsmHQ9PlusCompilersTest.class.getClassLoader()) {
+            {
+                defineClass(className, bytes, 0, bytes.length);
+            }
+        }.loadClass(className);
+    }
+
+    @SneakyThrows
+    static String run(final Class<?> programClass) {
+        final PrintStream originalOut = System.out;
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            programClass.getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        return new String(output.toByteArray());
+    }
+
+    @SneakyThrows
+    static long counter(final Class<?> programClass) {
+        final Field field = programClass.getDeclaredField("counter");
+        field.setAccessible(true);
+
+        return field.getType() == long.class ? field.getLong(null) : ((Number) field.get(null)).longValue();
+    }
+
+    static Stream<Arguments> provideTestCompiledProgramArguments() {
+        return Stream.of(
+                arguments(""),
+                arguments("H"),
+                arguments("Q"),
+                arguments("9"),
+                arguments("+"),
+                arguments("HQ9+"),
+                arguments("HHHHHHH"),
+                arguments("QQQQQQ+Q"),
+                arguments("99999H"),
+                arguments("++++++++++++++++++H+++"),
+                arguments("H+Q+9+H" + repeat("+", 1000) + "QQ"),
+                arguments(repeat("H+", 100) + repeat("Q", 17))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    void testCompiledProgram(final String source) {
+        final Class<?> programClass = compile("test.Program", source, true);
+
+        assertEquals(expectedOutput(source), run(programClass));
+        if (source.indexOf('+') != -1) assertEquals(expectedCounter(source), counter(programClass));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    void testCompiledProgramWithBufferedOutput(final String source) {
+        final Class<?> programClass = compile(
+                "test.BufferedProgram", source, true,
+                HQ9PlusCompilerOptions.builder().bufferedOutput(true).outputBufferSize(16).build()
+        );
+
+        assertEquals(expectedOutput(source), run(programClass));
+        if (source.indexOf('+') != -1) assertEquals(expectedCounter(source), counter(programClass));
+    }
+
+    @Test
+    void testHugeProgram() {
+        final String source = repeat("H+", 30_000);
+        final Class<?> programClass = compile("test.HugeProgram", source, true);
+
+        assertEquals(expectedOutput(source), run(programClass));
+        assertEquals(expectedCounter(source), counter(programClass));
+    }
+
+    @Test
+    void testProgramWithHugeSource() {
+        final String source = "Q" + repeat("+", 200_000) + "Q";
+        final Class<?> programClass = compile("test.ProgramWithHugeSource", source, true);
+
+        assertEquals(expectedOutput(source), run(programClass));
+        assertEquals(expectedCounter(source), counter(programClass));
+    }
+
+    @Test
+    void testProgramWithHugeSourceAndBufferedOutput() {
+        final String source = "Q" + repeat("+", 200_000) + "QH9";
+
+        assertEquals(expectedOutput(source), run(compile(
+                "test.BufferedProgramWithHugeSource", source, true,
+                HQ9PlusCompilerOptions.builder().bufferedOutput(true).build()
+        )));
+    }
+
+    @Test
+    @SneakyThrows
+    void testInMemoryProgram() {
+        final String source = "HQ9+";
+        final HQ9PlusProgram program = HQ9PlusProgram.compile(
+                AsmHQ9PlusCompilers.streamBased(true),
+                new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII))
+        );
+
+        assertEquals(expectedOutput(source), run(program.getProgramClass()));
+        assertEquals(expectedCounter(source), counter(program.getProgramClass()));
+    }
+
+    @Test
+    void testClassTemplates() {
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final AbstractAsmHQ9PlusCompiler.ClassTemplate template = compiler.classTemplate(true, true);
+
+        assertSame(template, compiler.classTemplate(true, true));
+        assertNotSame(template, compiler.classTemplate(true, false));
+        assertNotSame(template, compiler.classTemplate(false, true));
+        assertNotSame(template, AsmHQ9PlusCompilers.streamBased(true).classTemplate(true, true));
+
+        // the same template gets spliced into differently named classes
+        assertEquals(expectedOutput("H9H"), run(compile("test.FirstTemplatedProgram", "H9H", true)));
+        assertEquals(expectedOutput("9H9"), run(compile("test.SecondTemplatedProgram", "9H9", true)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testAsciiCompiledProgram(final String source, @TempDir final Path directory) {
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final byte[] expectedBytecode = compiler.compileSourceToBytes("test.AsciiProgram", source);
+        final byte[] sourceBytes = source.getBytes(StandardCharsets.US_ASCII);
+
+        assertArrayEquals(
+                expectedBytecode, compiler.compileAsciiToBytes("test.AsciiProgram", ByteBuffer.wrap(sourceBytes))
+        );
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(sourceBytes.length);
+        ((Buffer) directBuffer.put(sourceBytes)).flip();
+        assertArrayEquals(expectedBytecode, compiler.compileAsciiToBytes("test.AsciiProgram", directBuffer));
+        assertEquals(0, directBuffer.position());
+
+        final Path file = Files.write(directory.resolve("program.hq9"), sourceBytes);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertArrayEquals(expectedBytecode, compiler.compileAsciiToBytes("test.AsciiProgram", channel));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testNioCompiledProgram(final String source, @TempDir final Path directory) {
+        final byte[] expectedBytecode = AsmHQ9PlusCompilers.streamBased(true).compileSourceToBytes("test.NioProgram", source);
+        final byte[] sourceBytes = source.getBytes(StandardCharsets.US_ASCII);
+
+        final Path sourceFile = Files.write(directory.resolve("program.hq9"), sourceBytes);
+        final Path classFile = directory.resolve("program.class");
+        AsmHQ9PlusCompilers.pathBased(true).compile("test.NioProgram", sourceFile, classFile);
+        assertArrayEquals(expectedBytecode, Files.readAllBytes(classFile));
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsmHQ9PlusCompilers.channelBased(true).compile(
+                "test.NioProgram",
+                Channels.newChannel(new ByteArrayInputStream(sourceBytes)), Channels.newChannel(output)
+        );
+        assertArrayEquals(expectedBytecode, output.toByteArray());
+        try (final FileChannel channel = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            assertArrayEquals(
+                    expectedBytecode, AsmHQ9PlusCompilers.channelBased(true).compileToBytes("test.NioProgram", channel)
+            );
+        }
+
+        final ByteBuffer inputBuffer = ByteBuffer.wrap(sourceBytes);
+        final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(expectedBytecode.length);
+        AsmHQ9PlusCompilers.byteBufferBased(true).compile("test.NioProgram", inputBuffer, outputBuffer);
+        assertFalse(inputBuffer.hasRemaining());
+        assertFalse(outputBuffer.hasRemaining());
+        final byte[] bytecode = new byte[expectedBytecode.length];
+        ((ByteBuffer) outputBuffer.flip()).get(bytecode);
+        assertArrayEquals(expectedBytecode, bytecode);
+
+        assertThrows(BufferOverflowException.class, () -> AsmHQ9PlusCompilers.byteBufferBased(true).compile(
+                "test.NioProgram", ByteBuffer.wrap(sourceBytes), ByteBuffer.allocate(expectedBytecode.length - 1)
+        ));
+    }
+
+    @Test
+    @SneakyThrows
+    void testPositionedFileChannel(@TempDir final Path directory) {
+        final byte[] expectedBytecode = AsmHQ9PlusCompilers.streamBased(true).compileSourceToBytes("test.NioProgram", "HQ9+");
+
+        final Path sourceFile = Files.write(directory.resolve("program.hq9"), "??HQ9+".getBytes(StandardCharsets.US_ASCII));
+        try (final FileChannel channel = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            channel.position(2);
+            assertArrayEquals(
+                    expectedBytecode, AsmHQ9PlusCompilers.channelBased(true).compileToBytes("test.NioProgram", channel)
+            );
+            assertEquals(channel.size(), channel.position());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(HQ9PlusAccumulatorMode.class)
+    void testAccumulatorMode(final HQ9PlusAccumulatorMode accumulatorMode) {
+        final String source = "+H" + repeat("+", 10) + "Q+";
+        final Class<?> programClass = compile(
+                "test.AccumulatingProgram", source, true,
+                HQ9PlusCompilerOptions.builder().accumulatorMode(accumulatorMode).build()
+        );
+
+        assertEquals(expectedOutput(source), run(programClass));
+        assertEquals(expectedCounter(source), counter(programClass));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HQ9PlusAccumulatorMode.class, names = {"ATOMIC", "STRIPED"})
+    @SneakyThrows
+    void testConcurrentAccumulatorMode(final HQ9PlusAccumulatorMode accumulatorMode) {
+        final String source = "+++" + repeat("+", 100);
+        final Method main = compile(
+                "test.ConcurrentlyAccumulatingProgram", source, true,
+                HQ9PlusCompilerOptions.builder().accumulatorMode(accumulatorMode).build()
+        ).getMethod("main", String[].class);
+
+        final int threadCount = 4;
+        final int runsPerThread = 1000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> runs = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) runs.add(executor.submit(() -> {
+                for (int run = 0; run < runsPerThread; run++) main.invoke(null, (Object) new String[0]);
+
+                return null;
+            }));
+            for (final Future<?> run : runs) run.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(
+                expectedCounter(source) * threadCount * runsPerThread, counter(main.getDeclaringClass())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testReentrantProgram(final String source) {
+        for (final boolean bufferedOutput : new boolean[]{false, true}) {
+            final Class<?> programClass = compile(
+                    "test.ReentrantProgram", source, true,
+                    HQ9PlusCompilerOptions.builder().reentrant(true).bufferedOutput(bufferedOutput).build()
+            );
+            final String expectedOutput = expectedOutput(source);
+            assertEquals(expectedOutput, run(programClass));
+
+            final HQ9PlusProgram program = HQ9PlusProgram.of(programClass);
+            assertTrue(program.isReentrant());
+
+            final StringBuilder appendedOutput = new StringBuilder();
+            assertEquals(expectedCounter(source), program.execute(appendedOutput));
+            assertEquals(expectedOutput, appendedOutput.toString());
+
+            final ByteArrayOutputStream writtenOutput = new ByteArrayOutputStream();
+            assertEquals(expectedCounter(source), program.execute(writtenOutput));
+            assertEquals(expectedOutput, new String(writtenOutput.toByteArray()));
+
+            final ByteBuffer bufferOutput = ByteBuffer.allocate(writtenOutput.size());
+            assertEquals(expectedCounter(source), program.execute(bufferOutput));
+            assertArrayEquals(writtenOutput.toByteArray(), bufferOutput.array());
+        }
+    }
+
+    @Test
+    void testHugeReentrantProgram() {
+        final String source = repeat("H+", 30_000) + "Q9";
+        final HQ9PlusProgram program = HQ9PlusProgram.of(compile(
+                "test.HugeReentrantProgram", source, true, HQ9PlusCompilerOptions.builder().reentrant(true).build()
+        ));
+
+        assertEquals(expectedOutput(source), run(program.getProgramClass()));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final HQ9PlusExecution execution = program.newExecution(new PrintStream(output, true));
+        execution.run();
+        assertEquals(expectedOutput(source), new String(output.toByteArray()));
+        assertEquals(expectedCounter(source), execution.getCounter());
+    }
+
+    @Test
+    @SneakyThrows
+    void testConcurrentReentrantProgram() {
+        final String source = "H++Q" + repeat("+", 100) + "9";
+        final HQ9PlusProgram program = HQ9PlusProgram.of(compile(
+                "test.ConcurrentReentrantProgram", source, true,
+                HQ9PlusCompilerOptions.builder().reentrant(true).bufferedOutput(true).build()
+        ));
+
+        final int threadCount = 4;
+        final int runsPerThread = 100;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> runs = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) runs.add(executor.submit(() -> {
+                for (int run = 0; run < runsPerThread; run++) {
+                    final StringBuilder output = new StringBuilder();
+                    assertEquals(expectedCounter(source), program.execute(output));
+                    assertEquals(expectedOutput(source), output.toString());
+                }
+
+                return null;
+            }));
+            for (final Future<?> run : runs) run.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testNonReentrantProgram() {
+        final HQ9PlusProgram program = HQ9PlusProgram.of(compile("test.NonReentrantProgram", "H+", true));
+
+        assertFalse(program.isReentrant());
+        assertThrows(UnsupportedOperationException.class, () -> program.execute(new StringBuilder()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testDeadCodeEliminatedProgram(final String source) {
+        for (final boolean reentrant : new boolean[]{false, true}) {
+            final Class<?> programClass = compile(
+                    "test.DeadCodeEliminatedProgram", source, true, HQ9PlusCompilerOptions.builder()
+                            .optimizationLevel(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE)
+                            .reentrant(reentrant).bufferedOutput(true).build()
+            );
+            assertEquals(expectedOutput(source), run(programClass));
+
+            if (reentrant) {
+                final StringBuilder output = new StringBuilder();
+                assertEquals(expectedCounter(source), HQ9PlusProgram.of(programClass).execute(output));
+                assertEquals(expectedOutput(source), output.toString());
+            } else assertEquals(0, programClass.getDeclaredConstructors().length);
+        }
+    }
+
+    @Test
+    void testDeadCodeEliminatedMembers() {
+        final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.builder()
+                .optimizationLevel(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE).bufferedOutput(true).build();
+        final Class<?> programClass = compile("test.DeadCodeEliminatedMembers", "H+++", true, options);
+
+        assertEquals(expectedOutput("H+++"), run(programClass));
+        for (final Method method : programClass.getDeclaredMethods()) {
+            assertNotEquals("q", method.getName());
+            assertNotEquals("plus", method.getName());
+        }
+        for (final Field field : programClass.getDeclaredFields()) assertNotEquals("counter", field.getName());
+
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true, options);
+        final String source = "H" + repeat("+", 1_000);
+        assertTrue(compiler.compileSourceToBytes("test.DeadCodeEliminatedMembers", source).length
+                < AsmHQ9PlusCompilers.streamBased(true).compileSourceToBytes("test.DeadCodeEliminatedMembers", source)
+                .length);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testOutputFoldedProgram(final String source) {
+        for (final boolean reentrant : new boolean[]{false, true}) for (final boolean buffered : new boolean[]{
+                false, true
+        }) {
+            final Class<?> programClass = compile(
+                    "test.OutputFoldedProgram", source, true, HQ9PlusCompilerOptions.builder()
+                            .optimizationLevel(HQ9PlusOptimizationLevel.FOLD_OUTPUT)
+                            .reentrant(reentrant).bufferedOutput(buffered).build()
+            );
+            assertEquals(expectedOutput(source), run(programClass));
+            for (final Method method : programClass.getDeclaredMethods()) assertTrue(
+                    method.getName().equals("main") || method.getName().equals("run")
+            );
+
+            if (reentrant) {
+                final StringBuilder output = new StringBuilder();
+                assertEquals(expectedCounter(source), HQ9PlusProgram.of(programClass).execute(output));
+                assertEquals(expectedOutput(source), output.toString());
+            }
+        }
+    }
+
+    @Test
+    void testOutputFoldingBudget() {
+        // the output does not fit into a single string constant
+        final String source = repeat("9", 10) + "H";
+        final Class<?> programClass = compile(
+                "test.OutputFoldingBudget", source, true, HQ9PlusCompilerOptions.builder()
+                        .optimizationLevel(HQ9PlusOptimizationLevel.FOLD_OUTPUT).foldedOutputBudget(1 << 20).build()
+        );
+        assertEquals(expectedOutput(source), run(programClass));
+        assertEquals(1, programClass.getDeclaredMethods().length);
+
+        // the output exceeds the budget so the program gets compiled normally
+        final Class<?> unfoldedProgramClass = compile(
+                "test.OutputFoldingBudget", source, true, HQ9PlusCompilerOptions.builder()
+                        .optimizationLevel(HQ9PlusOptimizationLevel.FOLD_OUTPUT).foldedOutputBudget(100).build()
+        );
+        assertEquals(expectedOutput(source), run(unfoldedProgramClass));
+        assertTrue(unfoldedProgramClass.getDeclaredMethods().length > 1);
+
+        assertThrows(IllegalArgumentException.class, () -> AsmHQ9PlusCompilers.streamBased(
+                true, HQ9PlusCompilerOptions.builder().foldedOutputBudget(-1).build()
+        ));
+    }
+
+    @ParameterizedTest
+    @EnumSource(HQ9PlusClassFileVersion.class)
+    void testClassFileVersion(final HQ9PlusClassFileVersion classFileVersion) {
+        final String source = "HQ9+Q";
+        for (final HQ9PlusOptimizationLevel optimizationLevel : new HQ9PlusOptimizationLevel[]{
+                HQ9PlusOptimizationLevel.NONE, HQ9PlusOptimizationLevel.FOLD_OUTPUT
+        }) {
+            final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.builder().bufferedOutput(true)
+                    .optimizationLevel(optimizationLevel).classFileVersion(classFileVersion).build();
+            final byte[] bytecode = AsmHQ9PlusCompilers.streamBased(true, options)
+                    .compileSourceToBytes("test.ClassFileVersion", source);
+
+            final ClassReader classReader = new ClassReader(bytecode);
+            assertEquals(classFileVersion.getVersion(), classReader.readUnsignedShort(6));
+            final List<String> memberNames = new ArrayList<>();
+            classReader.accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public FieldVisitor visitField(final int access, final String name, final String descriptor,
+                                               final String signature, final Object value) {
+                    memberNames.add(name);
+                    return null;
+                }
+
+                @Override
+                public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                                 final String signature, final String[] exceptions) {
+                    memberNames.add(name);
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE);
+            // encoded texts are only stored in fields without dynamic constants
+            assertEquals(
+                    !classFileVersion.isConstantDynamicSupported(),
+                    memberNames.stream().anyMatch(name -> name.endsWith("$bytes"))
+            );
+
+            if (runtimeVersion() >= classFileVersion.getVersion() - Opcodes.V1_8 + 8) assertEquals(
+                    expectedOutput(source), run(compile("test.ClassFileVersion", source, true, options))
+            );
+        }
+    }
+
+    static int runtimeVersion() {
+        final String specificationVersion = System.getProperty("java.specification.version");
+
+        return Integer.parseInt(
+                specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideTestCompiledProgramArguments")
+    @SneakyThrows
+    void testFlightRecorderEventsProgram(final String source) {
+        for (final HQ9PlusOptimizationLevel optimizationLevel : HQ9PlusOptimizationLevel.values()) for (
+                final boolean reentrant : new boolean[]{false, true}
+        ) {
+            final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.builder()
+                    .optimizationLevel(optimizationLevel).reentrant(reentrant).build();
+            final Class<?> programClass = compile(
+                    "test.FlightRecorderEventsProgram", source, true, options.toBuilder().flightRecorderEvents(true)
+                            .build()
+            );
+            assertEquals(expectedOutput(source), run(programClass));
+            if (reentrant) {
+                final StringBuilder output = new StringBuilder();
+                assertEquals(expectedCounter(source), HQ9PlusProgram.of(programClass).execute(output));
+                assertEquals(expectedOutput(source), output.toString());
+            }
+
+            // disabled events neither reference the event class nor store it in locals
+            assertEquals(!source.isEmpty(), usesFlightRecorderEvents(AsmHQ9PlusCompilers.streamBased(
+                    true, options.toBuilder().flightRecorderEvents(true).build()
+            ).compileSourceToBytes("test.FlightRecorderEventsProgram", source)));
+            assertFalse(usesFlightRecorderEvents(AsmHQ9PlusCompilers.streamBased(true, options)
+                    .compileSourceToBytes("test.FlightRecorderEventsProgram", source)));
+        }
+    }
+
+    static boolean usesFlightRecorderEvents(final byte[] bytecode) {
+        final ClassReader classReader = new ClassReader(bytecode);
+        final char[] buffer = new char[classReader.getMaxStringLength()];
+        for (int index = 1; index < classReader.getItemCount(); index++) {
+            final int offset = classReader.getItem(index);
+            // the second slots of long and double constants have no item
+            if (offset != 0 && bytecode[offset - 1] == CONSTANT_CLASS_TAG && classReader.readUTF8(offset, buffer)
+                    .equals("ru/progrm_jarvis/lang/hq9plus/HQ9PlusOperationEvent")) return true;
+        }
+
+        // only the events are stored in reference locals
+        final boolean[] storesReferences = new boolean[1];
+        classReader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                             final String signature, final String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitVarInsn(final int opcode, final int variableIndex) {
+                        if (opcode == Opcodes.ASTORE) storesReferences[0] = true;
+                    }
+                };
+            }
+        }, 0);
+
+        return storesReferences[0];
+    }
+
+    @Test
+    @SneakyThrows
+    void testFlightRecorderEvents(@TempDir final Path directory) {
+        // long runs get folded into loops and the body gets split into chunks
+        final String source = repeat("HH9QQQQQ+++++", 1_000) + "+";
+        final Class<?> programClass = compile(
+                "test.FlightRecorderEvents", source, true, HQ9PlusCompilerOptions.builder()
+                        .optimizationLevel(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE)
+                        .bufferedOutput(true).flightRecorderEvents(true).build()
+        );
+
+        final Path recordingFile = directory.resolve("events.jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable(HQ9PlusOperationEvent.NAME).withoutThreshold();
+            recording.start();
+            assertEquals(expectedOutput(source), run(programClass));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final Map<String, Long> invocations = new HashMap<>();
+        long bytesWritten = 0;
+        for (final RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+            invocations.merge(event.getString("operation"), (long) event.getInt("invocations"), Long::sum);
+            bytesWritten += event.getLong("bytesWritten");
+        }
+        assertEquals(2_000L, invocations.get("h"));
+        assertEquals(5_000L, invocations.get("q"));
+        assertEquals(1_000L, invocations.get("nine"));
+        assertEquals(expectedCounter(source), invocations.get("plus"));
+        assertEquals(expectedOutput(source).length(), bytesWritten);
+    }
+
+    @Test
+    void testCompilationListener() {
+        final List<HQ9PlusCompilationMetrics> compilations = new ArrayList<>();
+        final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.builder()
+                .optimizationLevel(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE).listener(compilations::add).build();
+        final byte[] bytecode = AsmHQ9PlusCompilers.streamBased(true, options)
+                .compileSourceToBytes("test.CompilationListener", "HH9++");
+
+        assertEquals(1, compilations.size());
+        final HQ9PlusCompilationMetrics metrics = compilations.get(0);
+        assertEquals("test.CompilationListener", metrics.getClassName());
+        assertEquals(5, metrics.getSourceCharacterCount());
+        assertEquals(2, metrics.getNodeCounts().get(HQ9PlusAstNode.H));
+        assertEquals(1, metrics.getNodeCounts().get(HQ9PlusAstNode.NINE));
+        assertEquals(2, metrics.getNodeCounts().get(HQ9PlusAstNode.PLUS));
+        assertTrue(metrics.getParseNanos() >= 0);
+        assertTrue(metrics.getGenerationNanos() >= 0);
+        assertEquals(bytecode.length, metrics.getBytecodeLength());
+        assertEquals(new ClassReader(bytecode).getItemCount(), metrics.getConstantPoolSize());
+        assertTrue(metrics.isMethodGenerated("main"));
+        assertTrue(metrics.isMethodGenerated("h"));
+        assertFalse(metrics.isMethodGenerated("q"));
+        assertTrue(metrics.getMethodCodeSizes().get("main") > 0);
+
+        // the listener does not affect the generated class
+        assertArrayEquals(
+                AsmHQ9PlusCompilers.streamBased(true, options.toBuilder().listener(HQ9PlusCompilationListener.NONE)
+                        .build()).compileSourceToBytes("test.CompilationListener", "HH9++"),
+                bytecode
+        );
+        assertEquals(1, compilations.size());
+        assertEquals(options.toBuilder().listener(HQ9PlusCompilationListener.NONE).build(), options);
+        assertSame(HQ9PlusCompilationListener.NONE, HQ9PlusCompilerOptions.builder().build().getListener());
+    }
+
+    @Test
+    void testCaseInsensitiveProgram() {
+        assertEquals(
+                expectedOutput("hHqQ9+"), run(compile("test.CaseInsensitiveProgram", "hHqQ9+", false))
+        );
+    }
+
+    @Test
+    void testInvalidProgram() {
+        assertThrows(HQ9PlusAstParseException.class, () -> compile("test.InvalidProgram", "HQ9+?", true));
+        assertThrows(HQ9PlusAstParseException.class, () -> compile("test.InvalidProgram", "hq", true));
+        assertThrows(HQ9PlusAstParseException.class, () -> AsmHQ9PlusCompilers.streamBased(true)
+                .compileAsciiToBytes("test.InvalidProgram", ByteBuffer.wrap(new byte[]{'H', (byte) 0xC8})));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusBatchCompilerTest {
+
+    private static HQ9PlusBatchCompiler.Unit<InputStream> unit(final String className, final String source) {
+        return HQ9PlusBatchCompiler.Unit.of(
+                className, new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII)), className + ".hq9"
+        );
+    }
+
+    private static List<HQ9PlusBatchCompiler.Unit<InputStream>> units() {
+        return Arrays.asList(
+                unit("test.BatchProgram0", "HQ9+"),
+                unit("test.BatchProgram1", "HQ9+?"),
+                unit("test.BatchProgram2", AsmHQ9PlusCompilersTest.repeat("H+", 10000)),
+                unit("test.BatchProgram3", "9")
+        );
+    }
+
+    @Test
+    void testOrderedResults() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final AbstractAsmHQ9PlusCompiler<InputStream, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+            final List<HQ9PlusBatchCompiler.Result<InputStream>> results = HQ9PlusBatchCompiler
+                    .create(compiler, executor).compile(units());
+
+            assertEquals(4, results.size());
+            for (int i = 0; i < results.size(); i++) assertEquals(i, results.get(i).getIndex());
+
+            assertTrue(results.get(0).isSuccessful());
+            assertArrayEquals(
+                    compiler.compileSourceToBytes("test.BatchProgram0", "HQ9+"),
+                    results.get(0).getBytecodeOrThrow()
+            );
+
+            final HQ9PlusBatchCompiler.Result<InputStream> failure = results.get(1);
+            assertFalse(failure.isSuccessful());
+            assertNull(failure.getBytecode());
+            assertTrue(failure.getFailure() instanceof HQ9PlusAstParseException);
+            assertTrue(failure.getFailure().getMessage().contains("test.BatchProgram1.hq9"));
+            assertThrows(HQ9PlusAstParseException.class, failure::getBytecodeOrThrow);
+
+            assertTrue(results.get(2).isSuccessful());
+            assertTrue(results.get(3).isSuccessful());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testResultsInCompletionOrder() throws Exception {
+        final List<HQ9PlusBatchCompiler.Result<InputStream>> results = new ArrayList<>();
+        HQ9PlusBatchCompiler.create(AsmHQ9PlusCompilers.streamBased(true)).compile(units(), results::add);
+
+        assertEquals(4, results.size());
+        final Set<Integer> indices = new HashSet<>();
+        for (final HQ9PlusBatchCompiler.Result<InputStream> result : results) {
+            indices.add(result.getIndex());
+            assertEquals(result.getIndex() != 1, result.isSuccessful());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3)), indices);
+    }
+}
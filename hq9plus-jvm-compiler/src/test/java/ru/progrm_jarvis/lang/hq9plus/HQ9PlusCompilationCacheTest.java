@@ -0,0 +1,149 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusCompilationCacheTest {
+
+    private static final String CLASS_NAME = HQ9PlusClassDefiners.standardHiddenClassPackage() + ".CachedProgram";
+
+    @Test
+    void testCachedBytecode() {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(16, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+
+        final byte[] bytecode = cache.getBytecode(compiler, CLASS_NAME, "HQ9+");
+        assertSame(bytecode, cache.getBytecode(compiler, CLASS_NAME, new StringBuilder("HQ9+")));
+        assertNotSame(bytecode, cache.getBytecode(compiler, CLASS_NAME, "HQ9++"));
+        assertNotSame(bytecode, cache.getBytecode(compiler, "test.OtherCachedProgram", "HQ9+"));
+        assertNotSame(bytecode, cache.getBytecode(AsmHQ9PlusCompilers.streamBased(false), CLASS_NAME, "HQ9+"));
+        assertNotSame(bytecode, cache.getBytecode(AsmHQ9PlusCompilers.streamBased(
+                true, HQ9PlusCompilerOptions.builder().bufferedOutput(true).build()
+        ), CLASS_NAME, "HQ9+"));
+
+        final HQ9PlusCompilationCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(5, stats.getMissCount());
+        assertEquals(5, stats.getLoadSuccessCount());
+        assertEquals(5, stats.getSize());
+        assertEquals(0, stats.getEvictionCount());
+    }
+
+    @Test
+    void testSizeEviction() {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(2, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+
+        cache.getBytecode(compiler, CLASS_NAME, "H");
+        cache.getBytecode(compiler, CLASS_NAME, "Q");
+        cache.getBytecode(compiler, CLASS_NAME, "H"); // `Q` becomes the least recently used
+        cache.getBytecode(compiler, CLASS_NAME, "9");
+        cache.getBytecode(compiler, CLASS_NAME, "H");
+
+        final HQ9PlusCompilationCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getHitCount());
+
+        cache.getBytecode(compiler, CLASS_NAME, "Q");
+        assertEquals(4, cache.stats().getMissCount());
+    }
+
+    @Test
+    void testWeightEviction() {
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final int weight = compiler.compileSourceToBytes(CLASS_NAME, "H").length;
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(Long.MAX_VALUE, weight);
+
+        cache.getBytecode(compiler, CLASS_NAME, "H");
+        assertEquals(weight, cache.stats().getWeight());
+
+        cache.getBytecode(compiler, CLASS_NAME, "HQ9+");
+        final HQ9PlusCompilationCache.Stats stats = cache.stats();
+        assertEquals(0, stats.getSize());
+        assertEquals(0, stats.getWeight());
+        assertEquals(2, stats.getEvictionCount());
+    }
+
+    @Test
+    void testConcurrentCompilation() throws Exception {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(16, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final String source = AsmHQ9PlusCompilersTest.repeat("H+", 10000);
+
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) results.add(executor.submit(() -> {
+                start.await();
+                return cache.getBytecode(compiler, CLASS_NAME, source);
+            }));
+            start.countDown();
+
+            final byte[] bytecode = results.get(0).get();
+            for (final Future<byte[]> result : results) assertSame(bytecode, result.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        final HQ9PlusCompilationCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(threads - 1, stats.getHitCount());
+    }
+
+    @Test
+    void testFailedCompilation() {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(16, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+
+        assertThrows(HQ9PlusAstParseException.class, () -> cache.getBytecode(compiler, CLASS_NAME, "HQ9+?"));
+        assertThrows(HQ9PlusAstParseException.class, () -> cache.getBytecode(compiler, CLASS_NAME, "HQ9+?"));
+
+        final HQ9PlusCompilationCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getLoadFailureCount());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    void testCachedProgram() {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(16, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+
+        final HQ9PlusProgram program = cache.getProgram(compiler, CLASS_NAME, "HQ9+");
+        assertSame(program, cache.getProgram(compiler, CLASS_NAME, "HQ9+"));
+        assertEquals(AsmHQ9PlusCompilersTest.expectedOutput("HQ9+"),
+                AsmHQ9PlusCompilersTest.run(program.getProgramClass()));
+    }
+
+    @Test
+    void testCachingCompiler() throws Exception {
+        final HQ9PlusCompilationCache cache = HQ9PlusCompilationCache.create(16, Long.MAX_VALUE);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final HQ9PlusCompiler<InputStream, OutputStream> cachingCompiler = cache.wrap(compiler);
+
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            cachingCompiler.compile(
+                    CLASS_NAME, new ByteArrayInputStream("HQ9+".getBytes(StandardCharsets.US_ASCII)), output
+            );
+            assertArrayEquals(compiler.compileSourceToBytes(CLASS_NAME, "HQ9+"), output.toByteArray());
+        }
+        assertEquals(1, cache.stats().getHitCount());
+    }
+}
@@ -0,0 +1,117 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusCompileDaemonTest {
+
+    @Test
+    void testCompileAndRun() throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        try (final HQ9PlusCompileDaemon daemon = HQ9PlusCompileDaemon.start(compiler, 0);
+             final HQ9PlusCompileDaemonClient client = HQ9PlusCompileDaemonClient.connect(daemon.getPort())) {
+            assertArrayEquals(
+                    compiler.compileSourceToBytes("test.DaemonProgram", "HQ9+"),
+                    client.compile("test.DaemonProgram", "HQ9+")
+            );
+            assertEquals(
+                    AsmHQ9PlusCompilersTest.expectedOutput("HQ9+"),
+                    new String(client.run("HQ9+"), StandardCharsets.US_ASCII)
+            );
+
+            assertThrows(HQ9PlusAstParseException.class, () -> client.compile("test.DaemonProgram", "HQ9+?"));
+            assertThrows(HQ9PlusAstParseException.class, () -> client.run("HQ9+é"));
+            // the failed requests do not break the connection
+            assertEquals("", new String(client.run("++"), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testTooLongOutput() throws IOException {
+        try (final HQ9PlusCompileDaemon daemon = HQ9PlusCompileDaemon.start(AsmHQ9PlusCompilers.streamBased(true), 0);
+             final HQ9PlusCompileDaemonClient client = HQ9PlusCompileDaemonClient.connect(daemon.getPort())) {
+            assertThrows(IOException.class, () -> client.run(AsmHQ9PlusCompilersTest.repeat("9", 7000)));
+            // the output is known to be too long without running the program
+            assertThrows(IOException.class, () -> client.run(AsmHQ9PlusCompilersTest.repeat("9", 1 << 20)));
+            // the too long output does not break the connection
+            assertEquals(AsmHQ9PlusCompilersTest.expectedOutput("H"), new String(client.run("H"), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testConnectionLimit() throws IOException {
+        final List<HQ9PlusCompileDaemonClient> clients = new ArrayList<>();
+        try (final HQ9PlusCompileDaemon daemon = HQ9PlusCompileDaemon.start(AsmHQ9PlusCompilers.streamBased(true), 0)) {
+            for (int clientIndex = 0; clientIndex < HQ9PlusCompileDaemon.MAX_CONNECTIONS; clientIndex++) {
+                final HQ9PlusCompileDaemonClient client = HQ9PlusCompileDaemonClient.connect(daemon.getPort());
+                clients.add(client);
+                // the served request guarantees that the connection is accepted
+                assertEquals(AsmHQ9PlusCompilersTest.expectedOutput("H"),
+                        new String(client.run("H"), StandardCharsets.US_ASCII));
+            }
+
+            try (final HQ9PlusCompileDaemonClient client = HQ9PlusCompileDaemonClient.connect(daemon.getPort())) {
+                assertThrows(IOException.class, () -> client.run("H"));
+            }
+        } finally {
+            for (final HQ9PlusCompileDaemonClient client : clients) client.close();
+        }
+    }
+
+    @Test
+    void testConcurrentClients() throws Exception {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (final HQ9PlusCompileDaemon daemon = HQ9PlusCompileDaemon.start(compiler, 0)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int clientIndex = 0; clientIndex < 8; clientIndex++) {
+                final String source = AsmHQ9PlusCompilersTest.repeat("HQ+", clientIndex + 1);
+                futures.add(executor.submit(() -> {
+                    try (final HQ9PlusCompileDaemonClient client
+                                 = HQ9PlusCompileDaemonClient.connect(daemon.getPort())) {
+                        for (int request = 0; request < 10; request++) {
+                            assertArrayEquals(
+                                    compiler.compileSourceToBytes("test.DaemonProgram", source),
+                                    client.compile("test.DaemonProgram", source)
+                            );
+                            assertEquals(
+                                    AsmHQ9PlusCompilersTest.expectedOutput(source),
+                                    new String(client.run(source), StandardCharsets.US_ASCII)
+                            );
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testClosedDaemon() throws IOException {
+        final HQ9PlusCompileDaemon daemon = HQ9PlusCompileDaemon.start(AsmHQ9PlusCompilers.streamBased(true), 0);
+        try (final HQ9PlusCompileDaemonClient client = HQ9PlusCompileDaemonClient.connect(daemon.getPort())) {
+            client.compile("test.DaemonProgram", "H");
+            daemon.close();
+
+            assertThrows(IOException.class, () -> client.compile("test.DaemonProgram", "H"));
+        }
+        // the port is released so it can be bound again
+        new ServerSocket(daemon.getPort(), 0, InetAddress.getLoopbackAddress()).close();
+    }
+}
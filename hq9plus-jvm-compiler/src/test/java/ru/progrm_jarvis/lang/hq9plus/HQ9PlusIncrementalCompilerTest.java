@@ -0,0 +1,134 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusIncrementalCompilerTest {
+
+    private static final String SOURCE = "Q9" + AsmHQ9PlusCompilersTest.repeat("H++", 5_000);
+
+    @SneakyThrows
+    private static Class<?> define(final String className, final byte[] bytecode) {
+        return new ClassLoader(HQ9PlusIncrementalCompilerTest.class.getClassLoader()) {
+            {
+                defineClass(className, bytecode, 0, bytecode.length);
+            }
+        }.loadClass(className);
+    }
+
+    @SneakyThrows
+    private static void assertProgram(final String source, final byte[] bytecode,
+                                      final HQ9PlusCompilerOptions options) {
+        final Class<?> programClass = define("test.IncrementalProgram", bytecode);
+        assertEquals(AsmHQ9PlusCompilersTest.expectedOutput(source), AsmHQ9PlusCompilersTest.run(programClass));
+        if (options.isReentrant()) {
+            final StringBuilder output = new StringBuilder();
+            assertEquals(
+                    AsmHQ9PlusCompilersTest.expectedCounter(source), HQ9PlusProgram.of(programClass).execute(output)
+            );
+            assertEquals(AsmHQ9PlusCompilersTest.expectedOutput(source), output.toString());
+        } else if (options.getOptimizationLevel() == HQ9PlusOptimizationLevel.NONE) assertEquals(
+                AsmHQ9PlusCompilersTest.expectedCounter(source), AsmHQ9PlusCompilersTest.counter(programClass)
+        );
+    }
+
+    static Stream<HQ9PlusCompilerOptions> provideOptions() {
+        return Stream.of(
+                HQ9PlusCompilerOptions.DEFAULT,
+                HQ9PlusCompilerOptions.builder().reentrant(true).build(),
+                HQ9PlusCompilerOptions.builder().bufferedOutput(true).accumulatorMode(HQ9PlusAccumulatorMode.STRIPED)
+                        .build(),
+                HQ9PlusCompilerOptions.builder().optimizationLevel(HQ9PlusOptimizationLevel.ELIMINATE_DEAD_CODE)
+                        .build(),
+                HQ9PlusCompilerOptions.builder().flightRecorderEvents(true).reentrant(true).build()
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideOptions")
+    void testEditedProgram(final HQ9PlusCompilerOptions options) {
+        final int middle = SOURCE.length() / 2;
+        final String[] edits = {
+                // a single token inserted in the middle
+                SOURCE.substring(0, middle) + 'H' + SOURCE.substring(middle),
+                // a run removed from the middle
+                SOURCE.substring(0, middle) + SOURCE.substring(middle + 3),
+                // a run removed from the beginning
+                SOURCE.substring(0, 2) + SOURCE.substring(5),
+                // tokens appended to the end
+                SOURCE + "HHHHHHHHH++++"
+        };
+        for (final String source : edits) {
+            final HQ9PlusIncrementalCompiler compiler = HQ9PlusIncrementalCompiler.create(
+                    AsmHQ9PlusCompilers.streamBased(true, options), "test.IncrementalProgram"
+            );
+            assertProgram(SOURCE, compiler.compile(SOURCE), options);
+            assertEquals(0, compiler.getReusedChunkCount());
+
+            assertProgram(source, compiler.compile(source), options);
+            // the instrumented chunk method printing the source code depends on its length
+            // so that only the trailing chunk methods are reusable if the length changes
+            final boolean reusable = !options.isFlightRecorderEvents() || !source.startsWith(SOURCE);
+            assertTrue(!reusable || compiler.getReusedChunkCount() > 0);
+            // the edit gets reverted
+            assertProgram(SOURCE, compiler.compile(SOURCE), options);
+            assertTrue(!reusable || compiler.getReusedChunkCount() > 0);
+        }
+    }
+
+    @Test
+    void testRepeatedlyEditedProgram() {
+        final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.DEFAULT;
+        final HQ9PlusIncrementalCompiler compiler = HQ9PlusIncrementalCompiler.create(
+                AsmHQ9PlusCompilers.streamBased(true, options), "test.IncrementalProgram"
+        );
+        final int initialLength = compiler.compile(SOURCE).length;
+        String source = SOURCE;
+        for (int edit = 0; edit < 20; edit++) {
+            source = source + 'H';
+            final byte[] bytecode = compiler.compile(source);
+            assertProgram(source, bytecode, options);
+            // the class gets generated from scratch once it grows too much
+            assertTrue(bytecode.length <= 3 * initialLength);
+        }
+    }
+
+    @Test
+    void testChangedNodes() {
+        final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.DEFAULT;
+        final HQ9PlusIncrementalCompiler compiler = HQ9PlusIncrementalCompiler.create(
+                AsmHQ9PlusCompilers.streamBased(true, options), "test.IncrementalProgram"
+        );
+        compiler.compile(SOURCE);
+
+        // the fixed methods of the previous class are not the same
+        final String source = SOURCE.replace("Q9", "");
+        assertProgram(source, compiler.compile(source), options);
+        assertEquals(0, compiler.getReusedChunkCount());
+
+        assertThrows(HQ9PlusAstParseException.class, () -> compiler.compile(source + '?'));
+        // the failed compilation does not break the compiler
+        assertProgram(SOURCE, compiler.compile(SOURCE), options);
+    }
+
+    @Test
+    void testFoldedOutput() {
+        final HQ9PlusCompilerOptions options = HQ9PlusCompilerOptions.builder().optimizationLevel(HQ9PlusOptimizationLevel.FOLD_OUTPUT).build();
+        final HQ9PlusIncrementalCompiler compiler = HQ9PlusIncrementalCompiler.create(
+                AsmHQ9PlusCompilers.streamBased(true, options), "test.IncrementalProgram"
+        );
+        assertProgram("HQ+", compiler.compile("HQ+"), options);
+        // the output exceeds the budget once `9` is repeated
+        final String source = AsmHQ9PlusCompilersTest.repeat("HQ+9", 10);
+        assertProgram(source, compiler.compile(source), options);
+        assertProgram(source + 'H', compiler.compile(source + 'H'), options);
+        assertProgram("HQ+", compiler.compile("HQ+"), options);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusPackedAst;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HQ9PlusInterpreterTest {
+
+    @SneakyThrows
+    static String interpret(final HQ9PlusInterpreter interpreter, final String source) {
+        final StringBuilder output = new StringBuilder();
+        interpreter.interpret(new StringReader(source), output);
+
+        return output.toString();
+    }
+
+    @ParameterizedTest
+    @MethodSource("ru.progrm_jarvis.lang.hq9plus.AsmHQ9PlusCompilersTest#provideTestCompiledProgramArguments")
+    void testInterpretedProgram(final String source) throws Exception {
+        final StringBuilder output = new StringBuilder();
+        final long counter = HQ9PlusInterpreter.create(true).interpret(
+                new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII)), output
+        );
+
+        assertEquals(AsmHQ9PlusCompilersTest.run(
+                AsmHQ9PlusCompilersTest.compile("test.InterpretedProgram", source, true)
+        ), output.toString());
+        assertEquals(AsmHQ9PlusCompilersTest.expectedCounter(source), counter);
+    }
+
+    @ParameterizedTest
+    @MethodSource("ru.progrm_jarvis.lang.hq9plus.AsmHQ9PlusCompilersTest#provideTestCompiledProgramArguments")
+    void testInterpretedAst(final String source) throws Exception {
+        final StringBuilder output = new StringBuilder();
+        final long counter = HQ9PlusInterpreter.create(true).interpret(HQ9PlusPackedAst.parse(source, true), output);
+
+        assertEquals(AsmHQ9PlusCompilersTest.expectedOutput(source), output.toString());
+        assertEquals(AsmHQ9PlusCompilersTest.expectedCounter(source), counter);
+    }
+
+    @Test
+    void testProgramWithHugeSource() {
+        // `Q` is met before the whole source code is read
+        final String source = "Q" + AsmHQ9PlusCompilersTest.repeat("+H", 50_000) + "Q";
+
+        assertEquals(
+                AsmHQ9PlusCompilersTest.expectedOutput(source), interpret(HQ9PlusInterpreter.create(true), source)
+        );
+    }
+
+    @Test
+    void testLineSeparator() {
+        assertEquals(
+                "Hello, world!\r\nHQ9\r\n" + HQ9PlusConst.bottlesOfBeerSong(99, "\r\n"),
+                interpret(HQ9PlusInterpreter.create(true, "\r\n"), "HQ9")
+        );
+    }
+
+    @Test
+    void testCaseInsensitiveProgram() {
+        assertEquals(
+                AsmHQ9PlusCompilersTest.expectedOutput("hHqQ9+"),
+                interpret(HQ9PlusInterpreter.create(false), "hHqQ9+")
+        );
+    }
+
+    @Test
+    void testInvalidProgram() {
+        final HQ9PlusInterpreter interpreter = HQ9PlusInterpreter.create(true);
+        assertThrows(HQ9PlusAstParseException.class, () -> interpreter.interpret("HQ9+?", new StringBuilder()));
+        assertThrows(HQ9PlusAstParseException.class, () -> interpreter.interpret("hq", new StringBuilder()));
+    }
+}
@@ -0,0 +1,184 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.progrm_jarvis.lang.hq9plus.ast.HQ9PlusAstParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusJarWriterTest {
+
+    private static final int PROGRAM_COUNT = 1_000;
+
+    private static String source(final int index) {
+        return AsmHQ9PlusCompilersTest.repeat("HQ+", index % 10 + 1) + (index % 2 == 0 ? "9" : "");
+    }
+
+    private static byte[] writeJar(final AbstractAsmHQ9PlusCompiler<?, ?> compiler) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final HQ9PlusJarWriter writer = HQ9PlusJarWriter.create(compiler, output, "test.JarProgram0")) {
+            for (int index = 0; index < PROGRAM_COUNT; index++) writer.add("test.JarProgram" + index, source(index));
+        }
+
+        return output.toByteArray();
+    }
+
+    @Test
+    void testStreamedJar() throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final byte[] jar = writeJar(compiler);
+
+        try (final JarInputStream input = new JarInputStream(new ByteArrayInputStream(jar))) {
+            assertEquals("test.JarProgram0", input.getManifest().getMainAttributes().get(Attributes.Name.MAIN_CLASS));
+            for (int index = 0; index < PROGRAM_COUNT; index++) {
+                final JarEntry entry = input.getNextJarEntry();
+                assertEquals("test/JarProgram" + index + ".class", entry.getName());
+                final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                int read;
+                while ((read = input.read(buffer)) != -1) bytecode.write(buffer, 0, read);
+                assertArrayEquals(
+                        compiler.compileSourceToBytes("test.JarProgram" + index, source(index)),
+                        bytecode.toByteArray()
+                );
+            }
+            assertNull(input.getNextJarEntry());
+        }
+
+        // the archive is deterministic
+        assertArrayEquals(jar, writeJar(compiler));
+    }
+
+    @Test
+    void testCentralDirectory(@TempDir final Path directory) throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final Path jarFile = directory.resolve("programs.jar");
+        Files.write(jarFile, writeJar(compiler));
+
+        try (final JarFile jar = new JarFile(jarFile.toFile())) {
+            final List<String> names = new ArrayList<>();
+            for (final Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                names.add(entries.nextElement().getName());
+            }
+            assertEquals(PROGRAM_COUNT + 1, names.size());
+            assertEquals(JarFile.MANIFEST_NAME, names.get(0));
+
+            final JarEntry entry = jar.getJarEntry("test/JarProgram42.class");
+            final byte[] bytecode = compiler.compileSourceToBytes("test.JarProgram42", source(42));
+            assertEquals(bytecode.length, entry.getSize());
+            assertArrayEquals(bytecode, readFully(jar, entry));
+            assertEquals("test.JarProgram0", jar.getManifest().getMainAttributes().getValue("Main-Class"));
+        }
+    }
+
+    @Test
+    void testInvalidProgram() throws IOException {
+        final HQ9PlusJarWriter writer = HQ9PlusJarWriter.create(
+                AsmHQ9PlusCompilers.streamBased(true), new ByteArrayOutputStream(), null
+        );
+        writer.add("test.JarProgram0", "HQ9+");
+        writer.add("test.JarProgram1", "HQ9+?");
+
+        final HQ9PlusAstParseException exception = assertThrows(HQ9PlusAstParseException.class, writer::close);
+        assertTrue(exception.getMessage().contains("test.JarProgram1"));
+    }
+
+    @Test
+    void testFailedProgramDoesNotLoseNextOne() throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final List<Runnable> tasks = new ArrayList<>();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final HQ9PlusJarWriter writer = HQ9PlusJarWriter.create(
+                compiler, output, tasks::add, new Manifest(), Deflater.DEFAULT_COMPRESSION
+        );
+
+        writer.add("test.JarProgram0", "HQ9+?");
+        runAll(tasks);
+        final HQ9PlusAstParseException exception = assertThrows(
+                HQ9PlusAstParseException.class, () -> writer.add("test.JarProgram1", "HQ9+")
+        );
+        assertTrue(exception.getMessage().contains("test.JarProgram0"));
+        runAll(tasks);
+        writer.close();
+
+        try (final JarInputStream input = new JarInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals("test/JarProgram1.class", input.getNextJarEntry().getName());
+            assertNull(input.getNextJarEntry());
+        }
+    }
+
+    @Test
+    void testDuplicateEntry() throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        try (final HQ9PlusJarWriter writer = HQ9PlusJarWriter.create(compiler, new ByteArrayOutputStream(), null)) {
+            writer.add("test.JarProgram0", "HQ9+");
+            assertThrows(ZipException.class, () -> writer.add("test.JarProgram0", "H"));
+            assertThrows(ZipException.class, () -> writer.add(
+                    "test.JarProgram0", compiler.compileSourceToBytes("test.JarProgram0", "H")
+            ));
+        }
+    }
+
+    @Test
+    void testAddedBytecodeIsCopied() throws IOException {
+        final AbstractAsmHQ9PlusCompiler<?, ?> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final byte[] bytecode = compiler.compileSourceToBytes("test.JarProgram0", "HQ9+");
+        final byte[] addedBytecode = bytecode.clone();
+        final List<Runnable> tasks = new ArrayList<>();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final HQ9PlusJarWriter writer = HQ9PlusJarWriter.create(
+                compiler, output, tasks::add, new Manifest(), Deflater.DEFAULT_COMPRESSION
+        )) {
+            writer.add("test.JarProgram0", addedBytecode);
+            // the bytecode is modified before it gets compressed
+            Arrays.fill(addedBytecode, (byte) 0);
+            runAll(tasks);
+        }
+
+        try (final JarInputStream input = new JarInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            input.getNextJarEntry();
+            final ByteArrayOutputStream entryBytecode = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) entryBytecode.write(buffer, 0, read);
+            assertArrayEquals(bytecode, entryBytecode.toByteArray());
+        }
+    }
+
+    private static void runAll(final List<Runnable> tasks) {
+        for (final Runnable task : tasks) task.run();
+        tasks.clear();
+    }
+
+    private static byte[] readFully(final JarFile jar, final JarEntry entry) throws IOException {
+        final byte[] bytes = new byte[(int) entry.getSize()];
+        try (final InputStream input = jar.getInputStream(entry)) {
+            int offset = 0;
+            int read;
+            while (offset < bytes.length && (read = input.read(bytes, offset, bytes.length - offset)) != -1) {
+                offset += read;
+            }
+            assertEquals(bytes.length, offset);
+        }
+
+        return bytes;
+    }
+}
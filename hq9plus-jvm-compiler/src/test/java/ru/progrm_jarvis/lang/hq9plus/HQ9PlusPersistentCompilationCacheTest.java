@@ -0,0 +1,93 @@
+package ru.progrm_jarvis.lang.hq9plus;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HQ9PlusPersistentCompilationCacheTest {
+
+    private static long countFiles(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testCachedBytecode(@TempDir final Path directory) throws IOException {
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final byte[] expectedBytecode = compiler.compileSourceToBytes("test.PersistentProgram", "HQ9+");
+
+        final HQ9PlusPersistentCompilationCache cache = HQ9PlusPersistentCompilationCache.create(directory);
+        final Path entryFile = cache.entryFile(compiler, "test.PersistentProgram", "HQ9+");
+        assertFalse(Files.exists(entryFile));
+        assertArrayEquals(expectedBytecode, cache.getBytecode(compiler, "test.PersistentProgram", "HQ9+"));
+        assertTrue(Files.exists(entryFile));
+
+        // as if after a restart
+        final HQ9PlusPersistentCompilationCache restartedCache = HQ9PlusPersistentCompilationCache.create(directory);
+        assertArrayEquals(
+                expectedBytecode, restartedCache.getBytecode(compiler, "test.PersistentProgram", "HQ9+")
+        );
+        assertEquals(1, countFiles(directory));
+    }
+
+    @Test
+    void testDistinctEntries(@TempDir final Path directory) throws IOException {
+        final HQ9PlusPersistentCompilationCache cache = HQ9PlusPersistentCompilationCache.create(directory);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final Path entryFile = cache.entryFile(compiler, "test.PersistentProgram", "HQ9+");
+
+        assertNotEquals(entryFile, cache.entryFile(compiler, "test.PersistentProgram", "HQ9++"));
+        assertNotEquals(entryFile, cache.entryFile(compiler, "test.OtherPersistentProgram", "HQ9+"));
+        assertNotEquals(entryFile, cache.entryFile(
+                AsmHQ9PlusCompilers.streamBased(false), "test.PersistentProgram", "HQ9+"
+        ));
+        assertNotEquals(entryFile, cache.entryFile(AsmHQ9PlusCompilers.streamBased(
+                true, HQ9PlusCompilerOptions.builder().bufferedOutput(true).build()
+        ), "test.PersistentProgram", "HQ9+"));
+    }
+
+    @Test
+    void testCorruptedEntry(@TempDir final Path directory) throws IOException {
+        final HQ9PlusPersistentCompilationCache cache = HQ9PlusPersistentCompilationCache.create(directory);
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final Path entryFile = cache.entryFile(compiler, "test.PersistentProgram", "HQ9+");
+        Files.write(entryFile, new byte[]{'H', 'Q', '9', 'C', 0, 0});
+
+        assertArrayEquals(
+                compiler.compileSourceToBytes("test.PersistentProgram", "HQ9+"),
+                cache.getBytecode(compiler, "test.PersistentProgram", "HQ9+")
+        );
+        assertTrue(Files.size(entryFile) > 6);
+        assertEquals(1, countFiles(directory));
+    }
+
+    @Test
+    void testCachingCompiler(@TempDir final Path directory) throws IOException {
+        final AbstractAsmHQ9PlusCompiler<InputStream, OutputStream> compiler = AsmHQ9PlusCompilers.streamBased(true);
+        final HQ9PlusCompiler<InputStream, OutputStream> cachingCompiler
+                = HQ9PlusPersistentCompilationCache.create(directory).wrap(compiler);
+
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            cachingCompiler.compile(
+                    "test.PersistentProgram",
+                    new ByteArrayInputStream("HQ9+".getBytes(StandardCharsets.US_ASCII)), output
+            );
+            assertArrayEquals(
+                    compiler.compileSourceToBytes("test.PersistentProgram", "HQ9+"), output.toByteArray()
+            );
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.progrm_jarvis.lang.hq9plus.ast;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HQ9PlusAsciiSourceCodeTest {
+
+    static ByteBuffer ascii(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testScan() {
+        val bytes = ascii("??HQ+hq?");
+        bytes.position(2).limit(7);
+        val sourceCode = HQ9PlusAsciiSourceCode.scan(bytes, false);
+
+        assertEquals(2, bytes.position());
+        assertEquals(7, bytes.limit());
+        assertEquals("HQ+hq", sourceCode.toString());
+        assertEquals(5, sourceCode.length());
+        assertEquals('h', sourceCode.charAt(3));
+        assertEquals("Q+h", sourceCode.subSequence(1, 4).toString());
+        assertEquals(HQ9PlusAstNode.H, sourceCode.nodeAt(3));
+        assertEquals(HQ9PlusAstNode.PLUS, sourceCode.nodeAt(2));
+        assertTrue(sourceCode.contains(HQ9PlusAstNode.H));
+        assertTrue(sourceCode.contains(HQ9PlusAstNode.Q));
+        assertTrue(sourceCode.contains(HQ9PlusAstNode.PLUS));
+        assertFalse(sourceCode.contains(HQ9PlusAstNode.NINE));
+    }
+
+    @Test
+    void testSubSequence() {
+        val sourceCode = HQ9PlusAsciiSourceCode.scan(ascii("HQ+9"), true);
+        val subSequence = (HQ9PlusAsciiSourceCode) sourceCode.subSequence(1, 3);
+
+        assertEquals("Q+", subSequence.toString());
+        assertEquals(HQ9PlusAstNode.PLUS, subSequence.nodeAt(1));
+        assertTrue(subSequence.contains(HQ9PlusAstNode.Q));
+        assertTrue(subSequence.contains(HQ9PlusAstNode.PLUS));
+        assertFalse(subSequence.contains(HQ9PlusAstNode.H));
+        assertFalse(subSequence.contains(HQ9PlusAstNode.NINE));
+        assertFalse(((HQ9PlusAsciiSourceCode) sourceCode.subSequence(0, 1)).contains(HQ9PlusAstNode.Q));
+    }
+
+    @Test
+    void testScanRespectingCase() {
+        assertEquals("HQ9+", HQ9PlusAsciiSourceCode.scan(ascii("HQ9+"), true).toString());
+        assertThrows(HQ9PlusAstParseException.class, () -> HQ9PlusAsciiSourceCode.scan(ascii("Hq"), true));
+        assertThrows(HQ9PlusAstParseException.class, () -> HQ9PlusAsciiSourceCode.scan(ascii("H?"), false));
+        assertThrows(HQ9PlusAstParseException.class, () -> HQ9PlusAsciiSourceCode.scan(
+                ByteBuffer.wrap(new byte[]{(byte) 0xC8}), false
+        ));
+    }
+}
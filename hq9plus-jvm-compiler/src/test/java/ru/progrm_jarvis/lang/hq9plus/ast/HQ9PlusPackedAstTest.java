@@ -0,0 +1,72 @@
+package ru.progrm_jarvis.lang.hq9plus.ast;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HQ9PlusPackedAstTest {
+
+    static void assertRuns(final HQ9PlusPackedAst ast, final Object... runs) {
+        assertEquals(runs.length / 2, ast.getRunCount());
+        for (int run = 0; run < ast.getRunCount(); run++) {
+            assertEquals(runs[run << 1], ast.runNode(run));
+            assertEquals(runs[(run << 1) + 1], ast.runLength(run));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testParse() {
+        final String source = "HHq++++9QQh";
+        final HQ9PlusPackedAst ast = HQ9PlusPackedAst.parse(source, false);
+
+        assertEquals(source, ast.getSourceCode().toString());
+        assertRuns(
+                ast, HQ9PlusAstNode.H, 2, HQ9PlusAstNode.Q, 1, HQ9PlusAstNode.PLUS, 4,
+                HQ9PlusAstNode.NINE, 1, HQ9PlusAstNode.Q, 2, HQ9PlusAstNode.H, 1
+        );
+        assertRuns(
+                HQ9PlusPackedAst.parse(new StringReader(source), false), HQ9PlusAstNode.H, 2, HQ9PlusAstNode.Q, 1,
+                HQ9PlusAstNode.PLUS, 4, HQ9PlusAstNode.NINE, 1, HQ9PlusAstNode.Q, 2, HQ9PlusAstNode.H, 1
+        );
+        assertRuns(
+                HQ9PlusPackedAst.parse(HQ9PlusAsciiSourceCode.scan(
+                        ByteBuffer.wrap(source.getBytes(StandardCharsets.US_ASCII)), false
+                )), HQ9PlusAstNode.H, 2, HQ9PlusAstNode.Q, 1,
+                HQ9PlusAstNode.PLUS, 4, HQ9PlusAstNode.NINE, 1, HQ9PlusAstNode.Q, 2, HQ9PlusAstNode.H, 1
+        );
+
+        final Map<HQ9PlusAstNode, Integer> histogram = new EnumMap<>(HQ9PlusAstNode.class);
+        histogram.put(HQ9PlusAstNode.H, 3);
+        histogram.put(HQ9PlusAstNode.Q, 3);
+        histogram.put(HQ9PlusAstNode.NINE, 1);
+        histogram.put(HQ9PlusAstNode.PLUS, 4);
+        assertEquals(histogram, ast.histogram());
+        assertEquals(4, ast.count(HQ9PlusAstNode.PLUS));
+    }
+
+    @Test
+    void testParseEmpty() {
+        final HQ9PlusPackedAst ast = HQ9PlusPackedAst.parse("", true);
+
+        assertRuns(ast);
+        for (final HQ9PlusAstNode node : HQ9PlusAstNode.values()) assertFalse(ast.contains(node));
+    }
+
+    @Test
+    void testParseInvalid() {
+        assertThrows(HQ9PlusAstParseException.class, () -> HQ9PlusPackedAst.parse("HQ9+?", true));
+        assertThrows(HQ9PlusAstParseException.class, () -> HQ9PlusPackedAst.parse(new StringReader("hq"), true));
+        assertTrue(HQ9PlusPackedAst.parse("hq", false).contains(HQ9PlusAstNode.H));
+    }
+}